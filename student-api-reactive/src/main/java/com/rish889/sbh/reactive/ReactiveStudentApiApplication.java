@@ -0,0 +1,12 @@
+package com.rish889.sbh.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveStudentApiApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveStudentApiApplication.class, args);
+    }
+}
@@ -0,0 +1,116 @@
+package com.rish889.sbh.reactive.controller;
+
+import com.rish889.sbh.reactive.entity.Student;
+import com.rish889.sbh.reactive.service.StudentService;
+import com.rish889.sbh.service.StudentPage;
+import com.rish889.sbh.service.StudentTags;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Same paths, status codes, headers and bodies as student-api's {@code StudentController}, for the
+ * endpoints a gateway fans out to.
+ */
+@RestController
+@RequestMapping("/api/students")
+public class StudentController {
+
+    private final StudentService service;
+
+    public StudentController(StudentService service) {
+        this.service = service;
+    }
+
+    @PostMapping
+    public Mono<Student> create(@RequestBody Student student) {
+        return service.create(student);
+    }
+
+    /**
+     * Without {@code after}/{@code limit} this is the bounded compatibility list. With either of them it
+     * returns one keyset page and advertises the next one in a {@code Link: <...>; rel="next"} header.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<List<Student>>> getAll(@RequestParam(required = false) Long after,
+                                                      @RequestParam(required = false) Integer limit,
+                                                      ServerWebExchange exchange) {
+        if (after == null && limit == null) {
+            return service.getAll().map(students -> respond(exchange,
+                    ResponseEntity.ok().eTag(StudentTags.ofVersions(students, false)), students));
+        }
+        return service.getPage(after, limit).map(page -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(StudentTags.ofVersions(page.items(), page.nextAfter() != null));
+            addNextLink(response, page, limit);
+            return respond(exchange, response, page.items());
+        });
+    }
+
+    /**
+     * Opt-in streaming variant of {@link #getAll}: one JSON document per line, read from the database
+     * only as fast as the client consumes it.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Student> streamAll(@RequestParam(required = false) Long after) {
+        return service.streamAll(after);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Student>> getById(@PathVariable Long id, ServerWebExchange exchange) {
+        return service.getById(id)
+                .map(student -> respond(exchange, ResponseEntity.ok().eTag(StudentTags.of(student.version())), student));
+    }
+
+    /**
+     * Updates in one round trip. With {@code If-Match} the write only happens while the student still
+     * has that version, otherwise 412.
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Student>> update(@PathVariable Long id, @RequestBody Student student,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return service.update(id, expectedVersion(ifMatch), student)
+                .map(updated -> ResponseEntity.ok().eTag(StudentTags.of(updated.version())).body(updated));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> delete(@PathVariable Long id) {
+        return service.delete(id);
+    }
+
+    // answers a matching If-None-Match with 304 and no body
+    private static <T> ResponseEntity<T> respond(ServerWebExchange exchange, ResponseEntity.BodyBuilder response, T body) {
+        ResponseEntity<T> entity = response.body(body);
+        String tag = entity.getHeaders().getETag();
+        if (tag != null && exchange.checkNotModified(tag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(entity.getHeaders()).build();
+        }
+        return entity;
+    }
+
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        try {
+            return StudentTags.parseVersion(ifMatch);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match must be a tag from ETag");
+        }
+    }
+
+    private static void addNextLink(ResponseEntity.BodyBuilder response, StudentPage<Student> page, Integer limit) {
+        if (page.nextAfter() != null) {
+            String next = "/api/students?after=" + page.nextAfter() + (limit == null ? "" : "&limit=" + limit);
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+    }
+}
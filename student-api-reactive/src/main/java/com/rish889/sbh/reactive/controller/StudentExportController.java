@@ -0,0 +1,74 @@
+package com.rish889.sbh.reactive.controller;
+
+import com.rish889.sbh.reactive.entity.Student;
+import com.rish889.sbh.reactive.service.StudentService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Locale;
+
+/**
+ * The table in id order as CSV or NDJSON, in the same layout as student-api's export. Rows are read
+ * as the response is written, so a slow download slows the query instead of buffering rows.
+ */
+@RestController
+@RequestMapping("/api/students/export")
+public class StudentExportController {
+
+    private static final String CSV_HEADER = "id,name,email,version,created_at,updated_at\n";
+
+    private final StudentService service;
+    private final ObjectWriter studentWriter;
+
+    public StudentExportController(StudentService service, JsonMapper jsonMapper) {
+        this.service = service;
+        this.studentWriter = jsonMapper.writerFor(Student.class);
+    }
+
+    /**
+     * An interrupted export is resumed with {@code after} set to the last id received; a resumed CSV has
+     * no header row.
+     */
+    @GetMapping
+    public ResponseEntity<Flux<String>> export(@RequestParam(defaultValue = "csv") String format,
+                                               @RequestParam(required = false) Long after) {
+        String extension = format.toLowerCase(Locale.ROOT);
+        Flux<String> lines = switch (extension) {
+            case "csv" -> {
+                Flux<String> rows = service.streamAll(after).map(StudentExportController::csv);
+                yield after == null ? Flux.just(CSV_HEADER).concatWith(rows) : rows;
+            }
+            case "ndjson" -> service.streamAll(after).map(student -> studentWriter.writeValueAsString(student) + "\n");
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or ndjson");
+        };
+        return ResponseEntity.ok()
+                .contentType(extension.equals("csv") ? MediaType.parseMediaType("text/csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("students." + extension).build().toString())
+                .body(lines);
+    }
+
+    private static String csv(Student student) {
+        return student.id() + "," + quote(student.name()) + "," + quote(student.email()) + "," + student.version()
+                + "," + student.createdAt() + "," + student.updatedAt() + "\n";
+    }
+
+    // quoted only when needed, like COPY's CSV output
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
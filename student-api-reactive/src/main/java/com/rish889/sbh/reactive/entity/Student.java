@@ -0,0 +1,12 @@
+package com.rish889.sbh.reactive.entity;
+
+import com.rish889.sbh.service.Versioned;
+
+import java.time.Instant;
+
+/**
+ * A row of the {@code students} table, serialized like student-api's entity.
+ */
+public record Student(Long id, String name, String email, Long version, Instant createdAt, Instant updatedAt)
+        implements Versioned {
+}
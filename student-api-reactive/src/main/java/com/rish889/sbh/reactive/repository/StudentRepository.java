@@ -0,0 +1,196 @@
+package com.rish889.sbh.reactive.repository;
+
+import com.rish889.sbh.reactive.entity.Student;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * SQL over R2DBC against the schema student-api migrates. Statements match student-api's native
+ * queries: PostgreSQL {@code ... RETURNING}, and {@code FINAL TABLE} / {@code MERGE} on H2.
+ */
+@Repository
+public class StudentRepository {
+
+    private static final String COLUMNS = "id, name, email, version, created_at, updated_at";
+
+    // must match the allocationSize of student-api's entity, both stacks draw ids from the same sequence
+    private static final int ALLOCATION_SIZE = 50;
+
+    // Hibernate's pooled optimizer treats a sequence value as the top of a block of ALLOCATION_SIZE ids;
+    // an insert here draws a block of its own in the statement and takes its first id, so ids never
+    // collide with ones student-api assigns and no block is kept in memory. The block is only drawn while
+    // the email is free, so retried creates and renames leave the sequence alone
+    private static final String NEXT_ID = "greatest(1, nextval('students_id_seq') - " + (ALLOCATION_SIZE - 1) + ")";
+
+    // students is partitioned on PostgreSQL, the email is claimed in student_emails as student-api does.
+    // next is empty for a held email; the claim then falls to its holder, read from student_emails
+    private static final String POSTGRES_UPSERT = """
+            with next as (
+                select %s as id where not exists (select 1 from student_emails where email = :email)
+            ), claimed as (
+                insert into student_emails (email, student_id) select :email, id from next
+                on conflict (email) do update set student_id = student_emails.student_id
+                returning student_id
+            ), holder as (
+                select student_id from claimed
+                union all
+                select student_id from student_emails where email = :email and not exists (select 1 from next)
+            ), inserted as (
+                insert into students (id, name, email, version, created_at, updated_at)
+                select h.student_id, :name, :email, 0, :now, :now from holder h join next n on h.student_id = n.id
+                returning id, name, email, version, created_at, updated_at
+            ), updated as (
+                update students t set name = :name, version = t.version + 1, updated_at = :now
+                from holder h where t.id = h.student_id and h.student_id not in (select id from next) and t.name <> :name
+                returning t.id, t.name, t.email, t.version, t.created_at, t.updated_at
+            )
+            select * from inserted union all select * from updated
+            """.formatted(NEXT_ID);
+
+    // the id is only evaluated when no row has the email
+    private static final String H2_UPSERT = """
+            select id, name, email, version, created_at, updated_at from final table (
+                merge into students t
+                using (values (cast(case when exists (select 1 from students where email = :email) then null else %s end as bigint),
+                               cast(:name as varchar), cast(:email as varchar), cast(:now as timestamp with time zone)))
+                      s (id, name, email, now)
+                on t.email = s.email
+                when matched and t.name <> s.name then update set name = s.name, version = t.version + 1, updated_at = s.now
+                when not matched then insert (id, name, email, version, created_at, updated_at)
+                    values (s.id, s.name, s.email, 0, s.now, s.now))
+            """.formatted(NEXT_ID);
+
+    private final DatabaseClient client;
+    private final boolean h2;
+
+    public StudentRepository(DatabaseClient client) {
+        this.client = client;
+        this.h2 = client.getConnectionFactory().getMetadata().getName().contains("H2");
+    }
+
+    public Mono<Student> findById(long id) {
+        return client.sql("select " + COLUMNS + " from students where id = :id")
+                .bind("id", id)
+                .map(StudentRepository::toStudent)
+                .one();
+    }
+
+    public Mono<Long> findVersionById(long id) {
+        return client.sql("select version from students where id = :id")
+                .bind("id", id)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    public Flux<Student> findAfter(long after, int limit) {
+        return client.sql("select " + COLUMNS + " from students where id > :after order by id limit :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(StudentRepository::toStudent)
+                .all();
+    }
+
+    /**
+     * Every student after {@code after} in id order, fetched {@code fetchSize} rows per round trip.
+     */
+    public Flux<Student> streamAfter(long after, int fetchSize) {
+        return client.sql("select " + COLUMNS + " from students where id > :after order by id")
+                .bind("after", after)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(StudentRepository::toStudent)
+                .all();
+    }
+
+    /**
+     * Inserts a student, or renames the one that has the email. A created row is the only one at version 0.
+     */
+    public Mono<StudentUpsert> upsert(String name, String email) {
+        return client.sql(h2 ? H2_UPSERT : POSTGRES_UPSERT)
+                .bind("name", name)
+                .bind("email", email)
+                .bind("now", now())
+                .map(StudentRepository::toStudent)
+                .one()
+                .map(saved -> new StudentUpsert(saved, saved.version() == 0
+                        ? StudentUpsert.Outcome.CREATED : StudentUpsert.Outcome.UPDATED))
+                .switchIfEmpty(Mono.defer(() -> client.sql("select " + COLUMNS + " from students where email = :email")
+                        .bind("email", email)
+                        .map(StudentRepository::toStudent)
+                        .one()
+                        .map(existing -> new StudentUpsert(existing, StudentUpsert.Outcome.UNCHANGED))));
+    }
+
+    /**
+     * Replaces name and email in one statement.
+     *
+     * @param expectedVersion only update while the row still has this version, {@code null} for unconditionally
+     * @return the updated row, empty if none matched
+     */
+    public Mono<Student> update(long id, Long expectedVersion, String name, String email) {
+        String update = "update students set version = version + 1, updated_at = :now, name = :name, email = :email"
+                + " where id = :id" + (expectedVersion == null ? "" : " and version = :version");
+        DatabaseClient.GenericExecuteSpec spec = client.sql(h2
+                        ? "select " + COLUMNS + " from final table (" + update + ")"
+                        : update + " returning " + COLUMNS)
+                .bind("id", id)
+                .bind("name", name)
+                .bind("email", email)
+                .bind("now", now());
+        if (expectedVersion != null) {
+            spec = spec.bind("version", expectedVersion);
+        }
+        return spec.map(StudentRepository::toStudent).one();
+    }
+
+    /**
+     * @return whether a row was deleted
+     */
+    public Mono<Boolean> delete(long id) {
+        return client.sql("delete from students where id = :id")
+                .bind("id", id)
+                .fetch().rowsUpdated()
+                .map(deleted -> deleted > 0);
+    }
+
+    /**
+     * Appends to the {@code student_changes} outbox read by student-api's change relay.
+     */
+    public Mono<Void> recordChange(long id, String type, String payload) {
+        DatabaseClient.GenericExecuteSpec spec = client
+                .sql("insert into student_changes (student_id, type, payload) values (:id, :type, :payload)")
+                .bind("id", id)
+                .bind("type", type);
+        spec = payload == null ? spec.bindNull("payload", String.class) : spec.bind("payload", payload);
+        return spec.then();
+    }
+
+    /**
+     * Sends a {@code pg_notify} in the current transaction, delivered to student-api's cache invalidation
+     * listeners only if it commits. H2 has no notifications; there student-api follows the outbox.
+     */
+    public Mono<Void> notify(String channel, String message) {
+        if (h2) {
+            return Mono.empty();
+        }
+        return client.sql("select pg_notify(:channel, :message)")
+                .bind("channel", channel)
+                .bind("message", message)
+                .then();
+    }
+
+    private static OffsetDateTime now() {
+        return OffsetDateTime.now(ZoneOffset.UTC);
+    }
+
+    private static Student toStudent(Readable row) {
+        return new Student(row.get("id", Long.class), row.get("name", String.class), row.get("email", String.class),
+                row.get("version", Long.class), row.get("created_at", OffsetDateTime.class).toInstant(),
+                row.get("updated_at", OffsetDateTime.class).toInstant());
+    }
+}
@@ -0,0 +1,13 @@
+package com.rish889.sbh.reactive.repository;
+
+import com.rish889.sbh.reactive.entity.Student;
+
+/**
+ * Result of an upsert by email.
+ */
+public record StudentUpsert(Student student, Outcome outcome) {
+
+    public enum Outcome {
+        CREATED, UPDATED, UNCHANGED
+    }
+}
@@ -0,0 +1,49 @@
+package com.rish889.sbh.reactive.security;
+
+import com.rish889.sbh.config.StudentCommonProperties;
+import com.rish889.sbh.security.RealmRoleAuthoritiesConverter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+/**
+ * The rules of student-api's {@code SecurityConfig} on WebFlux: {@code /api/**} needs the ADMIN realm
+ * role, everything else an authenticated bearer token.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@EnableConfigurationProperties(StudentCommonProperties.class)
+public class SecurityConfig {
+
+    @Bean
+    SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                .authorizeExchange(exchange -> exchange
+                        .pathMatchers("/api/**").hasRole("ADMIN")
+                        .anyExchange().authenticated()
+                )
+                .oauth2ResourceServer(oauth2 ->
+                        oauth2.jwt(jwt ->
+                                jwt.jwtAuthenticationConverter(new ReactiveJwtAuthenticationConverterAdapter(jwtAuthenticationConverter()))
+                        )
+                )
+                .build();
+    }
+
+    @Bean
+    public RealmRoleAuthoritiesConverter realmRoleAuthoritiesConverter() {
+        return new RealmRoleAuthoritiesConverter();
+    }
+
+    @Bean
+    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtAuthenticationConverter jwtConverter = new JwtAuthenticationConverter();
+        jwtConverter.setJwtGrantedAuthoritiesConverter(realmRoleAuthoritiesConverter());
+        return jwtConverter;
+    }
+}
@@ -0,0 +1,12 @@
+package com.rish889.sbh.reactive.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class StudentNotFoundException extends RuntimeException {
+
+    public StudentNotFoundException() {
+        super("Student not found");
+    }
+}
@@ -0,0 +1,140 @@
+package com.rish889.sbh.reactive.service;
+
+import com.rish889.sbh.config.StudentCommonProperties;
+import com.rish889.sbh.reactive.entity.Student;
+import com.rish889.sbh.reactive.repository.StudentRepository;
+import com.rish889.sbh.service.DuplicateEmailException;
+import com.rish889.sbh.service.StaleStudentException;
+import com.rish889.sbh.service.StudentPage;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The contract of student-api's {@code StudentService} without blocking. Every write appends to the
+ * same {@code student_changes} outbox in its transaction, so change stream and delta sync clients see
+ * writes from either stack, and notifies student-api's cache invalidation listeners.
+ */
+@Service
+public class StudentService {
+
+    private final StudentRepository repository;
+    private final JsonMapper jsonMapper;
+    private final StudentCommonProperties.Pagination pagination;
+    private final int fetchSize;
+    private final String invalidationChannel;
+    // sender of cache invalidations, in the format of student-api's PostgresNotifyInvalidation
+    private final String node = UUID.randomUUID().toString();
+
+    public StudentService(StudentRepository repository, JsonMapper jsonMapper, StudentCommonProperties properties) {
+        this.repository = repository;
+        this.jsonMapper = jsonMapper;
+        this.pagination = properties.pagination();
+        this.fetchSize = properties.streaming().fetchSize();
+        this.invalidationChannel = properties.cacheInvalidation().channel();
+    }
+
+    /**
+     * Upserts by email, so a retried create returns the existing row instead of adding a duplicate.
+     */
+    @Transactional
+    public Mono<Student> create(Student student) {
+        return repository.upsert(student.name(), student.email())
+                .flatMap(upsert -> switch (upsert.outcome()) {
+                    case CREATED -> recordChange("CREATED", upsert.student());
+                    case UPDATED -> recordChange("UPDATED", upsert.student());
+                    case UNCHANGED -> Mono.just(upsert.student());
+                });
+    }
+
+    /**
+     * Compatibility path for the unpaginated list: returns at most {@code max-limit} students.
+     */
+    @Transactional(readOnly = true)
+    public Mono<List<Student>> getAll() {
+        return repository.findAfter(0L, pagination.maxLimit()).collectList();
+    }
+
+    @Transactional(readOnly = true)
+    public Mono<StudentPage<Student>> getPage(Long after, Integer limit) {
+        int size = limit == null ? pagination.defaultLimit() : Math.clamp(limit, 1, pagination.maxLimit());
+        // fetch one extra row to learn whether another page exists without a count query
+        return repository.findAfter(after == null ? 0L : after, size + 1)
+                .collectList()
+                .map(rows -> rows.size() > size
+                        ? new StudentPage<>(rows.subList(0, size), rows.get(size - 1).id())
+                        : new StudentPage<>(rows, null));
+    }
+
+    /**
+     * Every student after {@code after}, read only as fast as the subscriber requests.
+     */
+    @Transactional(readOnly = true)
+    public Flux<Student> streamAll(Long after) {
+        return repository.streamAfter(after == null ? 0L : after, fetchSize)
+                .limitRate(fetchSize);
+    }
+
+    public Mono<Student> getById(Long id) {
+        return repository.findById(id)
+                .switchIfEmpty(Mono.error(StudentNotFoundException::new));
+    }
+
+    public Mono<Long> getVersion(Long id) {
+        return repository.findVersionById(id);
+    }
+
+    /**
+     * Replaces name and email in a single {@code UPDATE ... RETURNING} round trip. An email another
+     * student has is answered with {@link DuplicateEmailException}.
+     *
+     * @param expectedVersion version from the client's {@code If-Match}, or {@code null} to update unconditionally
+     */
+    @Transactional
+    public Mono<Student> update(Long id, Long expectedVersion, Student student) {
+        return repository.update(id, expectedVersion, student.name(), student.email())
+                .onErrorMap(DataIntegrityViolationException.class, e -> DuplicateEmailException.isCauseOf(e)
+                        ? new DuplicateEmailException("Email " + student.email() + " belongs to another student")
+                        : e)
+                .flatMap(saved -> recordChange("UPDATED", saved))
+                .switchIfEmpty(Mono.defer(() -> notUpdated(id, expectedVersion)));
+    }
+
+    // no row matched: only a conditional update needs the extra lookup to tell "gone" from "stale"
+    private Mono<Student> notUpdated(Long id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.error(new StudentNotFoundException());
+        }
+        return repository.findVersionById(id)
+                .flatMap(version -> Mono.<Student>error(new StaleStudentException("Student was modified")))
+                .switchIfEmpty(Mono.error(StudentNotFoundException::new));
+    }
+
+    /**
+     * Delta sync and the change stream learn about the delete from its outbox row.
+     */
+    @Transactional
+    public Mono<Void> delete(Long id) {
+        return repository.delete(id)
+                .flatMap(deleted -> deleted
+                        ? repository.recordChange(id, "DELETED", null).then(invalidate(id))
+                        : Mono.empty());
+    }
+
+    private Mono<Student> recordChange(String type, Student student) {
+        return repository.recordChange(student.id(), type, jsonMapper.writeValueAsString(student))
+                .then(invalidate(student.id()))
+                .thenReturn(student);
+    }
+
+    // evicts the student from student-api's near caches once this transaction commits
+    private Mono<Void> invalidate(long id) {
+        return repository.notify(invalidationChannel, node + " " + id);
+    }
+}
@@ -0,0 +1,136 @@
+package com.rish889.sbh.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and p99 latency of the reactive stack under the same load student-api's
+ * {@code VirtualThreadLoadTest} applies to the servlet stack: as many clients, the same page request,
+ * the same output format, so the numbers of both runs line up. Not part of the regular build; run with
+ * {@code mvn test -Dtest=ReactiveLoadTest -Dload-test=true [-Dload-test.clients=400] [-Dload-test.seconds=20]}.
+ * The H2 driver blocks the event loop, so only a run with
+ * {@code -Dload-test.r2dbc-url=r2dbc:postgresql://...} against a real, already migrated database gives
+ * comparable numbers.
+ */
+@EnabledIfSystemProperty(named = "load-test", matches = "true")
+class ReactiveLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("load-test.clients", 400);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load-test.warmup-seconds", 5));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load-test.seconds", 20));
+    private static final String TOKEN = "load-test-token";
+
+    @Test
+    void measureReactiveStack() throws Exception {
+        Result reactive = run();
+
+        System.out.println(reactive);
+
+        assertThat(reactive.requests()).isPositive();
+    }
+
+    private Result run() throws Exception {
+        String url = System.getProperty("load-test.r2dbc-url");
+        if (url == null) {
+            TestDatabase.migrate("jdbc:h2:mem:load-reactive;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+            url = "r2dbc:h2:mem:///load-reactive?options=DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ReactiveStudentApiApplication.class, LoadTestSecurity.class)
+                .run("--spring.profiles.active=test", "--server.port=0", "--spring.r2dbc.url=" + url)) {
+            DatabaseClient client = context.getBean(DatabaseClient.class);
+            Flux.range(0, 500)
+                    .concatMap(i -> client.sql("insert into students (id, name, email, version) values (nextval('students_id_seq'), :name, :email, 0)")
+                            .bind("name", "Student " + i)
+                            .bind("email", "student" + i + "@example.com")
+                            .then())
+                    .blockLast();
+
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            URI uri = URI.create("http://localhost:" + port + "/api/students?limit=20");
+            drive(uri, WARMUP);
+            return drive(uri, DURATION);
+        }
+    }
+
+    private Result drive(URI uri, Duration duration) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", "Bearer " + TOKEN).build();
+        Instant deadline = Instant.now().plus(duration);
+
+        List<Future<long[]>> clients = new ArrayList<>(CLIENTS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (Instant.now().isBefore(deadline)) {
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+
+        long[] all = clients.stream().map(Future::resultNow).flatMapToLong(Arrays::stream).sorted().toArray();
+        double throughput = all.length / (double) duration.toSeconds();
+        long p99 = all.length == 0 ? 0 : all[(int) Math.ceil(all.length * 0.99) - 1];
+        return new Result("reactive", all.length, throughput, Duration.ofNanos(p99));
+    }
+
+    record Result(String mode, long requests, double throughput, Duration p99) {
+
+        @Override
+        public String toString() {
+            return "%-8s requests=%d throughput=%.0f req/s p99=%d ms".formatted(mode, requests, throughput, p99.toMillis());
+        }
+    }
+
+    /**
+     * Accepts a fixed bearer token as an ADMIN so the run needs no identity provider.
+     */
+    @Configuration
+    static class LoadTestSecurity {
+
+        @Bean
+        ReactiveJwtDecoder jwtDecoder() {
+            return token -> Mono.just(Jwt.withTokenValue(token)
+                    .header("alg", "none")
+                    .subject("load-test")
+                    .claim("realm_access", Map.of("roles", List.of("ADMIN")))
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.rish889.sbh.reactive;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Applies student-api's migrations to the in-memory H2 database the test profile points R2DBC at, or to
+ * an embedded PostgreSQL server for what H2 cannot stand in for.
+ */
+public final class TestDatabase {
+
+    private static final String URL =
+            "jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+    private static EmbeddedPostgres postgres;
+
+    private TestDatabase() {
+    }
+
+    public static void migrate() {
+        migrate(URL);
+    }
+
+    public static void migrate(String jdbcUrl) {
+        Flyway.configure()
+                .dataSource(jdbcUrl, "sa", "")
+                .locations("classpath:db/migration", "classpath:db/vendor/h2")
+                .load()
+                .migrate();
+    }
+
+    /**
+     * Starts the embedded PostgreSQL server once per test JVM and migrates it like student-api does.
+     *
+     * @return the R2DBC url of its {@code postgres} database
+     */
+    public static synchronized String postgres() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Embedded PostgreSQL did not start", e);
+            }
+            Flyway.configure()
+                    .dataSource(postgres.getPostgresDatabase())
+                    .locations("classpath:db/migration", "classpath:db/vendor/postgresql")
+                    .load()
+                    .migrate();
+            EmbeddedPostgres started = postgres;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    started.close();
+                } catch (IOException ignored) {
+                    // the JVM is exiting, the data directory is temporary
+                }
+            }));
+        }
+        return "r2dbc:postgresql://postgres@localhost:" + postgres.getPort() + "/postgres";
+    }
+}
@@ -0,0 +1,256 @@
+package com.rish889.sbh.reactive.controller;
+
+import com.rish889.sbh.reactive.TestDatabase;
+import com.rish889.sbh.reactive.entity.Student;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webtestclient.autoconfigure.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockJwt;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class StudentControllerIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeAll
+    static void migrate() {
+        TestDatabase.migrate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("students", "student_changes")) {
+            databaseClient.sql("delete from " + table).then().block();
+        }
+    }
+
+    @Test
+    void shouldCreateAndGetStudentWithVersionTag() {
+        Student created = create("Alice", "alice@example.com");
+
+        // when // then
+        admin().get().uri("/api/students/{id}", created.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Alice")
+                .jsonPath("$.email").isEqualTo("alice@example.com");
+
+        admin().get().uri("/api/students/{id}", created.id())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void shouldReturnExistingStudentWhenCreateIsRetried() {
+        // given
+        Student first = create("Alice", "alice@example.com");
+
+        // when
+        Student retried = create("Alice", "alice@example.com");
+
+        // then
+        assertThat(retried.id()).isEqualTo(first.id());
+        assertThat(changeTypes()).containsExactly("CREATED");
+    }
+
+    @Test
+    void shouldPageWithNextLink() {
+        // given
+        Student first = create("Alice", "alice@example.com");
+        create("Bob", "bob@example.com");
+
+        // when // then
+        admin().get().uri("/api/students?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.LINK, "</api/students?after=" + first.id() + "&limit=1>; rel=\"next\"")
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].name").isEqualTo("Alice");
+    }
+
+    @Test
+    void shouldRejectUpdateWithStaleVersion() {
+        // given
+        Student created = create("Alice", "alice@example.com");
+        admin().put().uri("/api/students/{id}", created.id())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(Map.of("name", "Alicia", "email", "alice@example.com"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+
+        // when // then
+        admin().put().uri("/api/students/{id}", created.id())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(Map.of("name", "Ali", "email", "alice@example.com"))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    @Test
+    void shouldAnswerUpdateToTakenEmailWithConflict() {
+        // given
+        create("Alice", "alice@example.com");
+        Student bob = create("Bob", "bob@example.com");
+
+        // when // then
+        admin().put().uri("/api/students/{id}", bob.id())
+                .bodyValue(Map.of("name", "Bob", "email", "alice@example.com"))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+        assertThat(changeTypes()).containsExactly("CREATED", "CREATED");
+    }
+
+    @Test
+    void shouldTakeIdsFromABlockOfTheSequenceStudentApiAllocatesFrom() {
+        // given
+        Student first = create("Alice", "alice@example.com");
+        Student second = create("Bob", "bob@example.com");
+
+        // when: student-api's pooled optimizer draws the next block
+        Long hi = databaseClient.sql("select nextval('students_id_seq')")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+
+        // then
+        assertThat(second.id()).isGreaterThan(first.id()).isLessThanOrEqualTo(hi - 50);
+    }
+
+    @Test
+    void shouldDrawNoIdsForRetriedCreates() {
+        // given: the first value of a fresh sequence starts a shorter block
+        create("Alice", "alice@example.com");
+        Student bob = create("Bob", "bob@example.com");
+
+        // when
+        create("Alice", "alice@example.com");
+        Student carol = create("Carol", "carol@example.com");
+
+        // then
+        assertThat(carol.id()).isEqualTo(bob.id() + 50);
+    }
+
+    @Test
+    void shouldDeleteAndRecordChange() {
+        // given
+        Student created = create("Alice", "alice@example.com");
+
+        // when
+        admin().delete().uri("/api/students/{id}", created.id())
+                .exchange()
+                .expectStatus().isOk();
+
+        // then
+        admin().get().uri("/api/students/{id}", created.id())
+                .exchange()
+                .expectStatus().isNotFound();
+        assertThat(changeTypes()).containsExactly("CREATED", "DELETED");
+    }
+
+    @Test
+    void shouldStreamStudentsAsNdjson() {
+        // given
+        create("Alice", "alice@example.com");
+        create("Bob", "bob@example.com");
+
+        // when
+        List<Student> streamed = admin().get().uri("/api/students")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Student.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        // then
+        assertThat(streamed).extracting(Student::name).containsExactly("Alice", "Bob");
+    }
+
+    @Test
+    void shouldExportCsv() {
+        // given
+        Student created = create("Smith, Alice", "alice@example.com");
+
+        // when
+        String csv = admin().get().uri("/api/students/export?format=csv")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"students.csv\"")
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        // then
+        assertThat(csv).startsWith("id,name,email,version,created_at,updated_at\n")
+                .contains(created.id() + ",\"Smith, Alice\",alice@example.com,0,");
+    }
+
+    @Test
+    void shouldRejectUnknownExportFormat() {
+        admin().get().uri("/api/students/export?format=xml")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldRequireAdminRole() {
+        webTestClient.get().uri("/api/students")
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        webTestClient.mutateWith(mockJwt()).get().uri("/api/students")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    private Student create(String name, String email) {
+        return admin().post().uri("/api/students")
+                .bodyValue(Map.of("name", name, "email", email))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Student.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private WebTestClient admin() {
+        return webTestClient
+                .mutateWith(mockJwt().authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                .mutateWith(csrf());
+    }
+
+    private List<String> changeTypes() {
+        return databaseClient.sql("select type from student_changes order by id")
+                .map(row -> row.get("type", String.class))
+                .all()
+                .collectList()
+                .block();
+    }
+}
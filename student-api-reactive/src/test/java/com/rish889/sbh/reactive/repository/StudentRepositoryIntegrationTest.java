@@ -0,0 +1,63 @@
+package com.rish889.sbh.reactive.repository;
+
+import com.rish889.sbh.reactive.TestDatabase;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the upsert claims emails in student_emails on PostgreSQL, against the partitioned students table of V8
+class StudentRepositoryIntegrationTest {
+
+    private static DatabaseClient client;
+    private static StudentRepository repository;
+
+    @BeforeAll
+    static void postgres() {
+        client = DatabaseClient.create(ConnectionFactories.get(TestDatabase.postgres()));
+        repository = new StudentRepository(client);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.sql("delete from students").then().block();
+    }
+
+    @Test
+    void shouldCreateThenLeaveUnchangedThenRename() {
+        // when
+        StudentUpsert created = repository.upsert("Alice", "alice@example.com").block();
+        StudentUpsert unchanged = repository.upsert("Alice", "alice@example.com").block();
+        StudentUpsert updated = repository.upsert("Alicia", "alice@example.com").block();
+
+        // then
+        assertThat(created.outcome()).isEqualTo(StudentUpsert.Outcome.CREATED);
+        assertThat(created.student().version()).isZero();
+        assertThat(unchanged.outcome()).isEqualTo(StudentUpsert.Outcome.UNCHANGED);
+        assertThat(unchanged.student().id()).isEqualTo(created.student().id());
+        assertThat(updated.outcome()).isEqualTo(StudentUpsert.Outcome.UPDATED);
+        assertThat(updated.student().id()).isEqualTo(created.student().id());
+        assertThat(updated.student().version()).isEqualTo(1);
+        assertThat(updated.student().name()).isEqualTo("Alicia");
+        assertThat(client.sql("select student_id from student_emails where email = 'alice@example.com'")
+                .map(row -> row.get(0, Long.class)).one().block()).isEqualTo(created.student().id());
+    }
+
+    @Test
+    void shouldDrawABlockOfIdsOnlyForNewStudents() {
+        // given: the first value of a fresh sequence starts a shorter block
+        repository.upsert("Alice", "alice@example.com").block();
+        long bob = repository.upsert("Bob", "bob@example.com").block().student().id();
+
+        // when
+        repository.upsert("Alice", "alice@example.com").block();
+        repository.upsert("Alicia", "alice@example.com").block();
+        long carol = repository.upsert("Carol", "carol@example.com").block().student().id();
+
+        // then: Carol's block directly follows Bob's
+        assertThat(carol).isEqualTo(bob + 50);
+    }
+}
@@ -1,21 +1,53 @@
 package com.rish889.sbh;
 
+import com.rish889.sbh.config.StudentApiRuntimeHints;
+import com.rish889.sbh.service.StudentImportService;
+import com.rish889.sbh.service.StudentImportSummary;
+import com.rish889.sbh.service.StudentWarmup;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.nio.file.Path;
+import java.util.Arrays;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
+@ImportRuntimeHints(StudentApiRuntimeHints.class)
 public class StudentApiApplication {
 
+    private static final String IMPORT_ARG = "--import=";
+
     public static void main(String[] args) {
         SpringApplication.run(StudentApiApplication.class, args);
     }
 
+    /**
+     * {@code --import=<file>} loads a CSV or NDJSON roster through {@link StudentImportService#importFile}
+     * and exits, with status 1 when rows were rejected. Add {@code --spring.main.web-application-type=none}
+     * to skip starting the web server. Otherwise runs {@link StudentWarmup}, which holds back readiness
+     * until the hot paths are warm.
+     */
     @Bean
-    public CommandLineRunner commandLineRunner() {
+    public CommandLineRunner commandLineRunner(ObjectProvider<StudentImportService> importService,
+                                               ObjectProvider<StudentWarmup> warmup,
+                                               ApplicationContext context) {
         return args -> {
-            System.out.println("hello world");
+            String file = Arrays.stream(args).filter(arg -> arg.startsWith(IMPORT_ARG))
+                    .map(arg -> arg.substring(IMPORT_ARG.length()))
+                    .findFirst().orElse(null);
+            if (file != null) {
+                StudentImportSummary summary = importService.getObject().importFile(Path.of(file));
+                System.exit(SpringApplication.exit(context, () -> summary.rejected() > 0 ? 1 : 0));
+            }
+            warmup.ifAvailable(StudentWarmup::run);
         };
     }
 
@@ -0,0 +1,106 @@
+package com.rish889.sbh.cache;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.controller.StudentPayloadCache;
+import com.rish889.sbh.service.StudentService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evicts a student from this node's in-memory caches, the {@code students} cache behind
+ * {@link StudentService#getById} and {@link StudentPayloadCache}, when another node wrote it. The
+ * database stays the shared tier every node reads through on a miss.
+ * <p>
+ * A read that loaded the old row before the write committed can still put it after the eviction, so
+ * every eviction is repeated once after {@code re-evict-delay}.
+ */
+@Component
+public class NearCacheInvalidator implements SmartLifecycle, MeterBinder {
+
+    private final Cache students;
+    private final StudentPayloadCache payloadCache;
+    private final long reEvictDelayMillis;
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder clears = new LongAdder();
+    private ScheduledExecutorService scheduler;
+
+    public NearCacheInvalidator(CacheManager cacheManager, StudentPayloadCache payloadCache, StudentApiProperties properties) {
+        this.students = cacheManager.getCache(StudentService.CACHE);
+        this.payloadCache = payloadCache;
+        this.reEvictDelayMillis = properties.cacheInvalidation().reEvictDelay().toMillis();
+    }
+
+    public void evict(long id) {
+        evictions.increment();
+        evictNow(id);
+        schedule(() -> evictNow(id));
+    }
+
+    /**
+     * Clears everything, for a transaction that wrote too many students to name them or for messages
+     * that may have been missed.
+     */
+    public void evictAll() {
+        clears.increment();
+        evictAllNow();
+        schedule(this::evictAllNow);
+    }
+
+    private void evictNow(long id) {
+        if (students != null) {
+            students.evict(id);
+        }
+        payloadCache.evict(id);
+    }
+
+    private void evictAllNow() {
+        if (students != null) {
+            students.clear();
+        }
+        payloadCache.evictAll();
+    }
+
+    private synchronized void schedule(Runnable eviction) {
+        if (scheduler != null) {
+            scheduler.schedule(eviction, reEvictDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("near-cache-invalidator").daemon().factory());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("student.cache.remote.invalidations", evictions, LongAdder::sum)
+                .tag("scope", "student")
+                .register(registry);
+        FunctionCounter.builder("student.cache.remote.invalidations", clears, LongAdder::sum)
+                .tag("scope", "all")
+                .register(registry);
+    }
+}
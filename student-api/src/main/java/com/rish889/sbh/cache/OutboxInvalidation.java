@@ -0,0 +1,79 @@
+package com.rish889.sbh.cache;
+
+import com.rish889.sbh.service.StudentChange;
+import com.rish889.sbh.service.StudentChangeRelay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cross-node invalidation for databases without {@code LISTEN/NOTIFY}: follows the
+ * {@code student_changes} outbox through {@link StudentChangeRelay}, which sees the committed writes of
+ * every node, and evicts each changed student. Evictions lag writes by up to the relay's poll interval.
+ */
+@Component
+@ConditionalOnProperty(name = "student-api.cache-invalidation.transport", havingValue = "outbox")
+public class OutboxInvalidation implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxInvalidation.class);
+    private static final Duration WAIT = Duration.ofSeconds(1);
+    private static final int BATCH_SIZE = 500;
+
+    private final StudentChangeRelay relay;
+    private final NearCacheInvalidator invalidator;
+
+    private volatile boolean running;
+    private Thread follower;
+
+    public OutboxInvalidation(StudentChangeRelay relay, NearCacheInvalidator invalidator) {
+        this.relay = relay;
+        this.invalidator = invalidator;
+    }
+
+    private void follow() {
+        long offset = relay.head();
+        while (running) {
+            try {
+                if (!relay.awaitAfter(offset, WAIT)) {
+                    continue;
+                }
+                List<StudentChange> changes = relay.read(offset, BATCH_SIZE);
+                for (StudentChange change : changes) {
+                    invalidator.evict(change.studentId());
+                    offset = change.offset();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Could not follow the student change outbox, clearing the caches", e);
+                invalidator.evictAll();
+                offset = relay.head();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        follower = Thread.ofPlatform().name("student-cache-outbox-follower").daemon().start(this::follow);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (follower != null) {
+            follower.interrupt();
+            follower = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return follower != null;
+    }
+}
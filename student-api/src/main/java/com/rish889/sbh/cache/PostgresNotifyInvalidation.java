@@ -0,0 +1,186 @@
+package com.rish889.sbh.cache;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.service.StudentChangedEvent;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Broadcasts writes between nodes with PostgreSQL {@code LISTEN/NOTIFY}. Every transaction that
+ * writes students sends one {@code pg_notify} naming them just before it commits; PostgreSQL delivers
+ * it to the listening nodes only if the commit succeeds, so a rolled back write evicts nothing. Each
+ * node listens on a dedicated connection outside the pool and evicts through {@link NearCacheInvalidator};
+ * after that connection failed, everything is evicted, since messages may have been missed.
+ * <p>
+ * A message is {@code <node> <id>,<id>,...}, or {@code <node> *} when the transaction wrote more than
+ * {@code max-ids-per-message} students. Nodes skip their own messages, their caches are evicted locally.
+ */
+@Component
+@ConditionalOnProperty(name = "student-api.cache-invalidation.transport", havingValue = "notify", matchIfMissing = true)
+public class PostgresNotifyInvalidation implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresNotifyInvalidation.class);
+    private static final int POLL_MILLIS = 1_000;
+    static final String ALL = "*";
+
+    private final String node = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final NearCacheInvalidator invalidator;
+    private final StudentApiProperties.CacheInvalidation properties;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread listener;
+
+    public PostgresNotifyInvalidation(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+                                      NearCacheInvalidator invalidator, StudentApiProperties properties) {
+        if (!properties.cacheInvalidation().channel().matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("cache invalidation channel must be a lower case identifier");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.invalidator = invalidator;
+        this.properties = properties.cacheInvalidation();
+    }
+
+    @EventListener
+    @SuppressWarnings("unchecked")
+    public void publish(StudentChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            notify(Set.of(event.id()));
+            return;
+        }
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Long> ids = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    PostgresNotifyInvalidation.this.notify(ids);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PostgresNotifyInvalidation.this);
+                }
+            });
+            pending = ids;
+        }
+        pending.add(event.id());
+    }
+
+    // runs on the writing transaction's connection, so delivery is tied to its commit
+    private void notify(Collection<Long> ids) {
+        jdbcTemplate.query("select pg_notify(?, ?)", rs -> null, properties.channel(),
+                message(node, ids, properties.maxIdsPerMessage()));
+    }
+
+    static String message(String node, Collection<Long> ids, int maxIds) {
+        if (ids.size() > maxIds) {
+            return node + " " + ALL;
+        }
+        return node + " " + ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    void receive(String message) {
+        int separator = message.indexOf(' ');
+        if (separator < 0 || message.substring(0, separator).equals(node)) {
+            return;
+        }
+        String ids = message.substring(separator + 1);
+        if (ids.equals(ALL)) {
+            invalidator.evictAll();
+            return;
+        }
+        for (String id : List.of(ids.split(","))) {
+            invalidator.evict(Long.parseLong(id));
+        }
+    }
+
+    private void listen() {
+        boolean missed = false;
+        while (running) {
+            try (Connection listening = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + properties.channel());
+                }
+                connection = listening;
+                if (missed) {
+                    invalidator.evictAll();
+                }
+                PGConnection pg = listening.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection, reconnecting: {}", e.getMessage());
+                missed = true;
+                try {
+                    Thread.sleep(properties.reconnectInterval());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        listener = Thread.ofPlatform().name("student-cache-listener").daemon().start(this::listen);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            listener = null;
+        }
+        Connection listening = connection;
+        if (listening != null) {
+            try {
+                listening.close();
+            } catch (SQLException e) {
+                log.debug("Could not close the cache invalidation listener", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return listener != null;
+    }
+}
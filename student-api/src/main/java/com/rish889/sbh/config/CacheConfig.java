@@ -0,0 +1,36 @@
+package com.rish889.sbh.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheResolver;
+import org.springframework.cache.interceptor.SimpleCacheResolver;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Turns on the Spring cache abstraction. The provider and its size/TTL limits come from
+ * {@code spring.cache.*}, so the store can be swapped without touching the service code.
+ * <p>
+ * Annotated caches are resolved through a transaction-aware proxy: an eviction inside a transaction
+ * happens after commit, so a concurrent read cannot re-cache the row the transaction is replacing.
+ * Caching wraps the transaction of a cached method, so its conditions see the caller's transaction and a
+ * hit opens none.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig implements CachingConfigurer {
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    public CacheConfig(ObjectProvider<CacheManager> cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public CacheResolver cacheResolver() {
+        return new SimpleCacheResolver(new TransactionAwareCacheManagerProxy(cacheManager.getObject()));
+    }
+}
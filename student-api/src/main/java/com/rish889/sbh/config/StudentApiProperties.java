@@ -0,0 +1,234 @@
+package com.rish889.sbh.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code student-api.*} settings of this stack. The sections student-api-reactive reads as well are
+ * defined in {@link StudentCommonProperties}.
+ */
+@ConfigurationProperties(prefix = "student-api")
+public record StudentApiProperties(@DefaultValue StudentCommonProperties.Pagination pagination,
+                                   @DefaultValue Batch batch,
+                                   @DefaultValue Security security,
+                                   @DefaultValue Search search,
+                                   @DefaultValue Metrics metrics,
+                                   @DefaultValue Idempotency idempotency,
+                                   @DefaultValue Changes changes,
+                                   @DefaultValue Replicas replicas,
+                                   @DefaultValue BulkImport bulkImport,
+                                   @DefaultValue RateLimit rateLimit,
+                                   @DefaultValue ConcurrencyLimit concurrencyLimit,
+                                   @DefaultValue ResponseCache responseCache,
+                                   @DefaultValue Warmup warmup,
+                                   @DefaultValue CacheInvalidation cacheInvalidation,
+                                   @DefaultValue Partitions partitions,
+                                   @DefaultValue SingleFlight singleFlight) {
+
+    /**
+     * @param size      rows per JDBC batch, also used as {@code hibernate.jdbc.batch_size}
+     * @param chunkSize rows written per transaction by the bulk endpoints
+     */
+    public record Batch(@DefaultValue("50") int size,
+                        @DefaultValue("1000") int chunkSize) {
+    }
+
+    public record Security(@DefaultValue TokenCache tokenCache,
+                           @DefaultValue Jwks jwks) {
+    }
+
+    /**
+     * @param maxSize most decoded tokens kept at once
+     * @param maxTtl  longest a decoded token is reused, even if its {@code exp} is further away
+     */
+    public record TokenCache(@DefaultValue("10000") long maxSize,
+                             @DefaultValue("5m") Duration maxTtl) {
+    }
+
+    /**
+     * @param cacheDirectory     directory owned by the application user, and writable by it alone, the issuer's keys
+     *                           are persisted to and reloaded from on boot; empty keeps them in memory
+     * @param refreshInterval    how often known keys are re-fetched in the background
+     * @param minRefetchInterval shortest gap between fetches triggered by an unknown {@code kid}
+     */
+    public record Jwks(String cacheDirectory,
+                       @DefaultValue("10m") Duration refreshInterval,
+                       @DefaultValue("30s") Duration minRefetchInterval) {
+    }
+
+    /**
+     * @param engine              {@code postgres} for the pg_trgm backed query, {@code memory} for the in-process index used on H2
+     * @param defaultSize         results per page when the client does not pass {@code size}
+     * @param maxSize             upper bound for {@code size}
+     * @param maxResults          deepest result served; pages beyond it come back empty
+     * @param similarityThreshold minimum trigram word similarity for a fuzzy match
+     * @param budget              time a single search may take before it is cancelled
+     */
+    public record Search(@DefaultValue("postgres") String engine,
+                         @DefaultValue("20") int defaultSize,
+                         @DefaultValue("100") int maxSize,
+                         @DefaultValue("1000") int maxResults,
+                         @DefaultValue("0.5") double similarityThreshold,
+                         @DefaultValue("200ms") Duration budget) {
+    }
+
+    /**
+     * @param maxStatementsPerRequest SQL statements a single request may issue before it is logged and
+     *                                counted as {@code jpa.statements.excessive}
+     */
+    public record Metrics(@DefaultValue("20") int maxStatementsPerRequest) {
+    }
+
+    /**
+     * @param maxSize most {@code Idempotency-Key} responses remembered at once
+     * @param ttl     how long a response is replayed for its key
+     */
+    public record Idempotency(@DefaultValue("10000") long maxSize,
+                              @DefaultValue("24h") Duration ttl) {
+    }
+
+    /**
+     * @param pollInterval     how often the relay reads new outbox rows
+     * @param gapTimeout       on PostgreSQL, how long a missing offset may hold delivery back before it is logged; it is only
+     *                         skipped once the transactions that could still commit it have ended. Elsewhere, how long
+     *                         the relay waits for it before skipping it
+     * @param bufferSize       most recent changes kept in memory for subscribers that are close to the head
+     * @param batchSize        rows read per outbox query
+     * @param heartbeat        idle time after which a subscriber gets a keep-alive comment
+     * @param emitterTimeout   lifetime of one event stream connection; clients reconnect with {@code Last-Event-ID}
+     * @param maxSubscribers   concurrent event stream connections
+     * @param retention        age after which outbox rows are purged; change stream and delta sync cursors older than that answer 410
+     */
+    public record Changes(@DefaultValue("200ms") Duration pollInterval,
+                          @DefaultValue("2s") Duration gapTimeout,
+                          @DefaultValue("10000") int bufferSize,
+                          @DefaultValue("500") int batchSize,
+                          @DefaultValue("15s") Duration heartbeat,
+                          @DefaultValue("30m") Duration emitterTimeout,
+                          @DefaultValue("1000") int maxSubscribers,
+                          @DefaultValue("7d") Duration retention) {
+    }
+
+    /**
+     * @param urls                 JDBC urls of the read replicas; empty sends everything to {@code spring.datasource}
+     * @param username             replica user, defaults to {@code spring.datasource.username}
+     * @param password             replica password, defaults to {@code spring.datasource.password}
+     * @param maxPoolSize          connections per replica
+     * @param healthCheckInterval  how often replicas are probed; one that failed rejoins after a passing probe
+     * @param readYourWritesWindow how long after a write the same principal's reads stay on the primary,
+     *                             should exceed the usual replication lag
+     * @param maxTrackedClients    most principals remembered for read-your-writes at once
+     */
+    public record Replicas(@DefaultValue List<String> urls,
+                           String username,
+                           String password,
+                           @DefaultValue("10") int maxPoolSize,
+                           @DefaultValue("5s") Duration healthCheckInterval,
+                           @DefaultValue("5s") Duration readYourWritesWindow,
+                           @DefaultValue("100000") long maxTrackedClients) {
+    }
+
+    /**
+     * @param chunkSize rows loaded with one {@code COPY} and committed together by the import
+     */
+    public record BulkImport(@DefaultValue("5000") int chunkSize) {
+    }
+
+    /**
+     * @param enabled           whether {@code /api/**} requests are rate limited per client
+     * @param requestsPerSecond sustained rate allowed to a client without an entry in {@code clients}
+     * @param burst             requests such a client may make at once after being idle
+     * @param clients           limits by JWT subject, or by client id ({@code azp}) for every subject of that client
+     * @param maxTrackedClients most clients whose buckets are kept at once
+     */
+    public record RateLimit(@DefaultValue("true") boolean enabled,
+                            @DefaultValue("50") double requestsPerSecond,
+                            @DefaultValue("100") int burst,
+                            @DefaultValue Map<String, ClientLimit> clients,
+                            @DefaultValue("100000") long maxTrackedClients) {
+    }
+
+    public record ClientLimit(double requestsPerSecond,
+                              int burst) {
+    }
+
+    /**
+     * @param enabled          whether concurrent {@code /api/**} requests are limited
+     * @param initialLimit     concurrent requests allowed at startup
+     * @param minLimit         floor the limit never drops below
+     * @param maxLimit         ceiling the limit never grows beyond
+     * @param latencyThreshold requests slower than this shrink the limit, faster ones let it grow
+     * @param backoffRatio     factor the limit is multiplied by on a slow request
+     */
+    public record ConcurrencyLimit(@DefaultValue("true") boolean enabled,
+                                   @DefaultValue("20") int initialLimit,
+                                   @DefaultValue("4") int minLimit,
+                                   @DefaultValue("200") int maxLimit,
+                                   @DefaultValue("500ms") Duration latencyThreshold,
+                                   @DefaultValue("0.9") double backoffRatio) {
+    }
+
+    /**
+     * @param enabled         whether serialized student and list responses are kept between requests
+     * @param maxSize         memory the serialized bodies may take, compressed copies included
+     * @param ttl             longest a body is served; pages may come from a replica, this bounds how long a lagging one lives
+     * @param precompress     whether a gzip copy is kept next to each body
+     * @param minCompressSize bodies smaller than this are never compressed
+     */
+    public record ResponseCache(@DefaultValue("true") boolean enabled,
+                                @DefaultValue("32MB") DataSize maxSize,
+                                @DefaultValue("1m") Duration ttl,
+                                @DefaultValue("true") boolean precompress,
+                                @DefaultValue("1KB") DataSize minCompressSize) {
+    }
+
+    /**
+     * @param enabled    whether the read paths are exercised after startup, before readiness is reported
+     * @param iterations rounds of reads and serialization to run
+     * @param budget     longest the warmup may delay readiness, whatever the iterations left
+     */
+    public record Warmup(@DefaultValue("true") boolean enabled,
+                         @DefaultValue("1000") int iterations,
+                         @DefaultValue("10s") Duration budget) {
+    }
+
+    /**
+     * @param transport         {@code notify} for PostgreSQL {@code LISTEN/NOTIFY}, {@code outbox} to tail the
+     *                          {@code student_changes} outbox (any database, up to {@code changes.poll-interval} later),
+     *                          {@code none} for a single node
+     * @param channel           notification channel every node listens on, read by student-api-reactive through
+     *                          {@link StudentCommonProperties.CacheInvalidation} with the same default
+     * @param maxIdsPerMessage  students named in one notification; a transaction writing more clears the caches
+     * @param reEvictDelay      delay of the second eviction, which drops a value a concurrent read cached
+     *                          from before the write
+     * @param reconnectInterval wait before the listener connection is opened again after it failed
+     */
+    public record CacheInvalidation(@DefaultValue("notify") String transport,
+                                    @DefaultValue("student_cache") String channel,
+                                    @DefaultValue("100") int maxIdsPerMessage,
+                                    @DefaultValue("1s") Duration reEvictDelay,
+                                    @DefaultValue("5s") Duration reconnectInterval) {
+    }
+
+    /**
+     * @param parallelism partitions of {@code students} read at once by a count or a parallel export,
+     *                    each on its own pool connection; parallel scans together hold at most half
+     *                    the pool, the others read their partitions one after another
+     */
+    public record Partitions(@DefaultValue("4") int parallelism) {
+    }
+
+    /**
+     * @param enabled whether concurrent reads of the same page share one query
+     * @param maxWait longest a caller waits for another's page query before answering 503; a query slower
+     *                than this is stuck, not merely busy, and another one would only add to the load
+     */
+    public record SingleFlight(@DefaultValue("true") boolean enabled,
+                               @DefaultValue("200ms") Duration maxWait) {
+    }
+}
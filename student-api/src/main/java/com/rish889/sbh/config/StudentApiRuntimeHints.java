@@ -0,0 +1,30 @@
+package com.rish889.sbh.config;
+
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentView;
+import com.rish889.sbh.service.StudentBatchResult;
+import com.rish889.sbh.service.StudentChange;
+import com.rish889.sbh.service.StudentDelta;
+import com.rish889.sbh.service.StudentImportRejection;
+import com.rish889.sbh.service.StudentImportSummary;
+import com.rish889.sbh.service.StudentPage;
+import com.rish889.sbh.service.StudentPatch;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * What a native image cannot discover from the AOT-processed context: types Jackson binds outside of
+ * controller method signatures (pre-serialized payloads, exports, import events, the outbox) and the
+ * vendor-specific Flyway migrations, which are only located through the {@code {vendor}} placeholder.
+ */
+public class StudentApiRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                Student.class, StudentView.class, StudentPage.class, StudentPatch.class, StudentChange.class,
+                StudentDelta.class, StudentBatchResult.class, StudentImportRejection.class, StudentImportSummary.class);
+        hints.resources().registerPattern("db/vendor/*/*.sql");
+    }
+}
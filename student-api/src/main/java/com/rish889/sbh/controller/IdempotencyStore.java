@@ -0,0 +1,76 @@
+package com.rish889.sbh.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rish889.sbh.config.StudentApiProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Bounded memory of responses to requests sent with an {@code Idempotency-Key}. A replay with the same
+ * key and payload gets the first response back without touching the database; failed requests are
+ * forgotten so they can be retried.
+ */
+@Component
+public class IdempotencyStore implements MeterBinder {
+
+    private final Cache<String, Entry> entries;
+
+    public IdempotencyStore(StudentApiProperties properties) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(properties.idempotency().maxSize())
+                .expireAfterWrite(properties.idempotency().ttl())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Runs {@code action} for the first request with {@code key}, replays its result afterwards.
+     *
+     * @param fingerprint identifies the payload; reusing a key with a different one is rejected with 422
+     * @throws ResponseStatusException 409 while the first request with the key is still running
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Replay<T> execute(String key, Object fingerprint, Supplier<T> action) {
+        CompletableFuture<Object> response = new CompletableFuture<>();
+        Entry entry = new Entry(fingerprint, response);
+        Entry existing = entries.asMap().putIfAbsent(key, entry);
+        if (existing != null) {
+            if (!existing.fingerprint().equals(fingerprint)) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key was already used for a different request");
+            }
+            if (!existing.response().isDone()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "A request with this Idempotency-Key is still in progress");
+            }
+            return new Replay<>((T) existing.response().join(), true);
+        }
+        try {
+            T value = action.get();
+            response.complete(value);
+            return new Replay<>(value, false);
+        } catch (RuntimeException e) {
+            entries.asMap().remove(key, entry);
+            throw e;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, entries, "idempotency-keys");
+    }
+
+    private record Entry(Object fingerprint, CompletableFuture<Object> response) {
+    }
+
+    public record Replay<T>(T value, boolean replayed) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.rish889.sbh.controller;
+
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.service.StudentBatchResult;
+import com.rish889.sbh.service.StudentBatchService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Bulk variants of the student write endpoints. Bodies are either a JSON array or NDJSON (one item per
+ * line); NDJSON is read incrementally, so large imports never have to fit in memory as one document.
+ */
+@RestController
+@RequestMapping("/api/students/batch")
+public class StudentBatchController {
+
+    private final StudentBatchService service;
+    private final JsonMapper jsonMapper;
+
+    public StudentBatchController(StudentBatchService service, JsonMapper jsonMapper) {
+        this.service = service;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<StudentBatchResult> createAll(@RequestBody List<Student> students) {
+        return service.createAll(students.iterator());
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public List<StudentBatchResult> createAll(InputStream body) {
+        return service.createAll(jsonMapper.readerFor(Student.class).readValues(body));
+    }
+
+    @PutMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<StudentBatchResult> updateAll(@RequestBody List<Student> students) {
+        return service.updateAll(students.iterator());
+    }
+
+    @PutMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public List<StudentBatchResult> updateAll(InputStream body) {
+        return service.updateAll(jsonMapper.readerFor(Student.class).readValues(body));
+    }
+
+    @DeleteMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<StudentBatchResult> deleteAll(@RequestBody List<Long> ids) {
+        return service.deleteAll(ids.iterator());
+    }
+
+    @DeleteMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public List<StudentBatchResult> deleteAll(InputStream body) {
+        return service.deleteAll(jsonMapper.readerFor(Long.class).readValues(body));
+    }
+}
@@ -0,0 +1,104 @@
+package com.rish889.sbh.controller;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.service.StudentChange;
+import com.rish889.sbh.service.StudentChangeRelay;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+@RestController
+@RequestMapping("/api/students/changes")
+public class StudentChangesController {
+
+    private final StudentChangeRelay relay;
+    private final StudentApiProperties.Changes properties;
+    private final Semaphore subscribers;
+    private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+
+    public StudentChangesController(StudentChangeRelay relay, StudentApiProperties properties) {
+        this.relay = relay;
+        this.properties = properties.changes();
+        this.subscribers = new Semaphore(this.properties.maxSubscribers());
+    }
+
+    /**
+     * Server-Sent Events of every committed student write after {@code since} (or {@code Last-Event-ID}
+     * on reconnect; the current head when neither is given). Each event's id is its offset.
+     * <p>
+     * Every subscriber is served by its own virtual thread that blocks on the client's socket, so a slow
+     * consumer only delays itself; the relay and other subscribers keep going, and the consumer catches
+     * up from the outbox table once it reads again.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestParam(required = false) Long since,
+                              @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long from = since != null ? since : lastEventId != null ? lastEventId : relay.head();
+        if (from < relay.purgedThrough()) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Changes after " + from + " are no longer retained");
+        }
+        if (!subscribers.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many change subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(properties.emitterTimeout().toMillis());
+        emitters.add(emitter);
+        Thread subscriber = Thread.ofVirtual().name("student-changes-subscriber").unstarted(() -> {
+            try {
+                stream(emitter, from);
+            } finally {
+                emitters.remove(emitter);
+                subscribers.release();
+            }
+        });
+        emitter.onCompletion(subscriber::interrupt);
+        emitter.onTimeout(subscriber::interrupt);
+        emitter.onError(error -> subscriber.interrupt());
+        subscriber.start();
+        return emitter;
+    }
+
+    @PreDestroy
+    void completeAll() {
+        emitters.forEach(SseEmitter::complete);
+    }
+
+    private void stream(SseEmitter emitter, long from) {
+        long cursor = from;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<StudentChange> changes = relay.read(cursor, properties.batchSize());
+                if (changes.isEmpty()) {
+                    if (!relay.awaitAfter(cursor, properties.heartbeat())) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                    continue;
+                }
+                for (StudentChange change : changes) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.offset()))
+                            .name("change")
+                            .data(change.data()));
+                    cursor = change.offset();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            // the client went away or the emitter was completed
+        }
+        emitter.complete();
+    }
+}
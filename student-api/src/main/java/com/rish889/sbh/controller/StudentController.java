@@ -1,46 +1,241 @@
 package com.rish889.sbh.controller;
 
 import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentField;
+import com.rish889.sbh.repository.StudentView;
+import com.rish889.sbh.service.StudentCount;
+import com.rish889.sbh.service.StudentPage;
+import com.rish889.sbh.service.StudentPatch;
 import com.rish889.sbh.service.StudentService;
+import com.rish889.sbh.service.StudentTags;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
 
-import org.springframework.web.bind.annotation.*;
-
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/students")
 public class StudentController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final StudentService service;
+    private final IdempotencyStore idempotencyStore;
+    private final StudentPayloadCache payloadCache;
+    private final JsonMapper jsonMapper;
 
-    public StudentController(StudentService service) {
+    public StudentController(StudentService service, IdempotencyStore idempotencyStore,
+                             StudentPayloadCache payloadCache, JsonMapper jsonMapper) {
         this.service = service;
+        this.idempotencyStore = idempotencyStore;
+        this.payloadCache = payloadCache;
+        this.jsonMapper = jsonMapper;
     }
 
+    /**
+     * With an {@code Idempotency-Key} a retried request is answered from {@link IdempotencyStore} and
+     * flagged with {@code Idempotent-Replayed: true}. Keys are scoped to the caller.
+     */
     @PostMapping
-    public Student create(@RequestBody Student student) {
-        return service.create(student);
+    public ResponseEntity<Student> create(@RequestBody Student student,
+                                          @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                          Principal principal) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(service.create(student));
+        }
+        IdempotencyStore.Replay<Student> result = idempotencyStore.execute(principal.getName() + ":" + idempotencyKey,
+                List.of(String.valueOf(student.getName()), String.valueOf(student.getEmail())),
+                () -> service.create(student));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.replayed()) {
+            response.header("Idempotent-Replayed", "true");
+        }
+        return response.body(result.value());
     }
 
+    /**
+     * Without {@code after}/{@code limit} this is the bounded compatibility list. With either of them it
+     * returns one keyset page and advertises the next one in a {@code Link: <...>; rel="next"} header.
+     * A matching {@code If-None-Match} is answered with 304 after reading only ids and versions.
+     * Bodies come serialized from {@link StudentPayloadCache}.
+     */
     @GetMapping
-    public List<Student> getAll() {
-        return service.getAll();
+    public ResponseEntity<byte[]> getAll(@RequestParam(required = false) Long after,
+                                         @RequestParam(required = false) Integer limit,
+                                         WebRequest request) {
+        boolean paged = after != null || limit != null;
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && notModified(request, paged ? service.getPageTag(after, limit) : service.getAllTag())) {
+            return null;
+        }
+        if (!paged) {
+            return payload(ResponseEntity.ok(), payloadCache.all(service::getAll), request);
+        }
+        StudentPayloadCache.Payload page = payloadCache.page(after, limit, () -> service.getPage(after, limit));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        addNextLink(response, page.nextAfter(), limit, null);
+        return payload(response, page, request);
+    }
+
+    /**
+     * Sparse variant of {@link #getAll}: {@code ?fields=id,name} selects only those columns and returns
+     * read-only views. {@code id} is always included. The views are narrow, so the ETag is computed from
+     * the versions read along with them, in the same query, and a 304 costs no more than a 200.
+     */
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<StudentView>> getAllFields(@RequestParam String fields,
+                                                          @RequestParam(required = false) Long after,
+                                                          @RequestParam(required = false) Integer limit,
+                                                          WebRequest request) {
+        Set<StudentField> selected = parseFields(fields);
+        boolean paged = after != null || limit != null;
+        StudentPage<StudentView> page = paged
+                ? service.getViewPage(selected, after, limit)
+                : new StudentPage<>(service.getAllViews(selected), null);
+        String tag = StudentTags.withFields(StudentTags.ofVersions(page.items(), page.nextAfter() != null), selected);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null && request.checkNotModified(tag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(tag);
+        addNextLink(response, page.nextAfter(), limit, fields);
+        return response.body(StudentView.only(page.items(), selected));
+    }
+
+    /**
+     * Opt-in streaming variant of {@link #getAll}: one JSON document per line, read from a server-side cursor.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll(@RequestParam(required = false) Long after) {
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = jsonMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                service.streamAll(after, writer::write);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Exact number of students. Reads the whole table, several partitions at a time.
+     */
+    @GetMapping("/count")
+    public StudentCount count() {
+        return new StudentCount(service.count());
     }
 
+    /**
+     * Sends a strong version-based ETag, with a {@code -gzip} suffix on the compressed body. A matching
+     * {@code If-None-Match} is answered with 304 after reading only the version column, without loading
+     * the student.
+     */
     @GetMapping("/{id}")
-    public Student getById(@PathVariable Long id) {
-        return service.getById(id);
+    public ResponseEntity<byte[]> getById(@PathVariable Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = service.getVersion(id);
+            if (version.isPresent() && notModified(request, StudentTags.of(version.get()))) {
+                return null;
+            }
+        }
+        return payload(ResponseEntity.ok(), payloadCache.student(id, () -> service.getById(id)), request);
     }
 
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<StudentView> getByIdFields(@PathVariable Long id, @RequestParam String fields,
+                                                     WebRequest request) {
+        Set<StudentField> selected = parseFields(fields);
+        StudentView view = service.getViewById(selected, id);
+        String tag = StudentTags.withFields(StudentTags.of(view.version()), selected);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null && request.checkNotModified(tag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(tag).body(view.only(selected));
+    }
+
+    /**
+     * Updates in one round trip. With {@code If-Match} the write only happens while the student still
+     * has that version, otherwise 412.
+     */
     @PutMapping("/{id}")
-    public Student update(@PathVariable Long id, @RequestBody Student student) {
-        return service.update(id, student);
+    public ResponseEntity<Student> update(@PathVariable Long id, @RequestBody Student student,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Student updated = service.update(id, expectedVersion(ifMatch), student);
+        return ResponseEntity.ok().eTag(StudentTags.of(updated.getVersion())).body(updated);
+    }
+
+    /**
+     * Merge-patch: only the fields present in the body are written.
+     */
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+    public ResponseEntity<Student> patch(@PathVariable Long id, @RequestBody StudentPatch patch,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Student updated = service.patch(id, expectedVersion(ifMatch), patch);
+        return ResponseEntity.ok().eTag(StudentTags.of(updated.getVersion())).body(updated);
     }
 
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
         service.delete(id);
     }
-}
 
+    // the pre-compressed copy goes out as is; Tomcat leaves responses that already carry Content-Encoding alone
+    private static ResponseEntity<byte[]> payload(ResponseEntity.BodyBuilder response, StudentPayloadCache.Payload payload,
+                                                  WebRequest request) {
+        response.contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (payload.gzip() != null && StudentPayloadCache.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return response.eTag(StudentTags.gzip(payload.eTag()))
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(payload.gzip());
+        }
+        return response.eTag(payload.eTag()).body(payload.json());
+    }
+
+    // a client holding the gzip body validates it with the gzip tag, which it gets again only while it accepts gzip
+    private static boolean notModified(WebRequest request, String tag) {
+        boolean gzip = StudentTags.namesGzip(request.getHeader(HttpHeaders.IF_NONE_MATCH))
+                && StudentPayloadCache.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        return request.checkNotModified(gzip ? StudentTags.gzip(tag) : tag);
+    }
+
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        try {
+            return StudentTags.parseVersion(ifMatch);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match must be a tag from ETag");
+        }
+    }
+
+    private static Set<StudentField> parseFields(String fields) {
+        try {
+            return StudentField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown field in '" + fields + "'");
+        }
+    }
+
+    private static void addNextLink(ResponseEntity.BodyBuilder response, Long nextAfter, Integer limit, String fields) {
+        if (nextAfter != null) {
+            String next = "/api/students?after=" + nextAfter
+                    + (limit == null ? "" : "&limit=" + limit)
+                    + (fields == null ? "" : "&fields=" + URLEncoder.encode(fields, StandardCharsets.UTF_8));
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.rish889.sbh.controller;
+
+import com.rish889.sbh.service.StudentDelta;
+import com.rish889.sbh.service.StudentDeltaService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/students/delta")
+public class StudentDeltaController {
+
+    private final StudentDeltaService service;
+
+    public StudentDeltaController(StudentDeltaService service) {
+        this.service = service;
+    }
+
+    /**
+     * Students changed and ids deleted since {@code since}, at most {@code limit} of them. Without
+     * {@code since} the first page of a full sync is returned. Clients repeat with the returned
+     * {@code next} until {@code hasMore} is {@code false} and keep {@code next} for their next sync;
+     * a cursor older than the outbox retention is answered with 410.
+     */
+    @GetMapping
+    public StudentDelta delta(@RequestParam(required = false) String since,
+                              @RequestParam(required = false) Integer limit) {
+        try {
+            return service.getDelta(since, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
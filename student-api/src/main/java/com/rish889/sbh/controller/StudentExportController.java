@@ -0,0 +1,92 @@
+package com.rish889.sbh.controller;
+
+import com.rish889.sbh.service.StudentExportService;
+import com.rish889.sbh.service.StudentFileFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/students/export")
+public class StudentExportController {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final StudentExportService service;
+
+    public StudentExportController(StudentExportService service) {
+        this.service = service;
+    }
+
+    /**
+     * The whole table in id order as CSV or NDJSON, streamed as it is read. Compressed with gzip when
+     * the client accepts it. An interrupted export is resumed with {@code after} set to the last id received.
+     * With {@code parallel=true} the partitions are read concurrently and rows come in no particular order,
+     * such an export cannot be resumed.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "csv") String format,
+                                                        @RequestParam(required = false) Long after,
+                                                        @RequestParam(defaultValue = "false") boolean parallel,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        StudentFileFormat fileFormat = switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> StudentFileFormat.CSV;
+            case "ndjson" -> StudentFileFormat.NDJSON;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or ndjson");
+        };
+        if (parallel && after != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "a parallel export cannot be resumed with after");
+        }
+        boolean gzip = StudentPayloadCache.acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            if (!gzip) {
+                export(fileFormat, after, parallel, out);
+                return;
+            }
+            try (OutputStream compressed = new FastGzipOutputStream(out)) {
+                export(fileFormat, after, parallel, compressed);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(fileFormat == StudentFileFormat.CSV ? MediaType.parseMediaType("text/csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("students." + format.toLowerCase(Locale.ROOT)).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    private void export(StudentFileFormat format, Long after, boolean parallel, OutputStream out) {
+        if (parallel) {
+            service.exportParallel(format, out);
+        } else {
+            service.export(format, after, out);
+        }
+    }
+
+    // the export is bound by compression speed, not bandwidth: the fastest level keeps up with COPY
+    private static final class FastGzipOutputStream extends GZIPOutputStream {
+
+        private FastGzipOutputStream(OutputStream out) throws IOException {
+            super(out, GZIP_BUFFER_SIZE);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.rish889.sbh.controller;
+
+import com.rish889.sbh.service.StudentFileFormat;
+import com.rish889.sbh.service.StudentImportEvent;
+import com.rish889.sbh.service.StudentImportService;
+import com.rish889.sbh.service.StudentImportSummary;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Roster import through {@code COPY}. The response is NDJSON written while the upload is consumed: a
+ * {@code rejected} line for every bad row and a {@code summary} line after every committed chunk, the
+ * last one with {@code "done": true}.
+ */
+@RestController
+@RequestMapping("/api/students/import")
+public class StudentImportController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final StudentImportService service;
+    private final ObjectWriter eventWriter;
+
+    public StudentImportController(StudentImportService service, JsonMapper jsonMapper) {
+        this.service = service;
+        this.eventWriter = jsonMapper.writerFor(StudentImportEvent.class);
+    }
+
+    @PostMapping(consumes = TEXT_CSV, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importCsv(InputStream body, HttpServletResponse response) throws IOException {
+        importStudents(body, StudentFileFormat.CSV, response);
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importNdjson(InputStream body, HttpServletResponse response) throws IOException {
+        importStudents(body, StudentFileFormat.NDJSON, response);
+    }
+
+    private void importStudents(InputStream body, StudentFileFormat format, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        try {
+            service.importStudents(body, format, event -> {
+                try {
+                    out.write(eventWriter.writeValueAsBytes(event));
+                    out.write('\n');
+                    // summaries are the progress reports, push them out as soon as a chunk commits
+                    if (event instanceof StudentImportSummary) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.rish889.sbh.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.datasource.ReadYourWrites;
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentVersion;
+import com.rish889.sbh.service.StudentChangedEvent;
+import com.rish889.sbh.service.StudentPage;
+import com.rish889.sbh.service.StudentTags;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response bodies of single students and list pages, kept as serialized JSON and, when large enough,
+ * as a gzip copy, so a hot payload is neither serialized nor compressed again: the controller hands
+ * the cached array to the response as is. Every committed write clears the pages and the written
+ * student; a body built while a write was committing is served once but not kept.
+ * <p>
+ * Pages are read from a replica unless the client is pinned to the primary by {@link ReadYourWrites},
+ * so pinned requests keep pages of their own: a page a lagging replica served must not hide a client's
+ * own write from it.
+ */
+@Component
+public class StudentPayloadCache implements MeterBinder {
+
+    private final JsonMapper jsonMapper;
+    private final boolean enabled;
+    private final boolean precompress;
+    private final long minCompressSize;
+    private final Cache<Long, Payload> students;
+    private final Cache<PageKey, Payload> pages;
+    // bumped by every write, a body built across a bump may predate the write
+    private final AtomicLong generation = new AtomicLong();
+
+    public StudentPayloadCache(JsonMapper jsonMapper, StudentApiProperties properties) {
+        StudentApiProperties.ResponseCache responseCache = properties.responseCache();
+        this.jsonMapper = jsonMapper;
+        this.enabled = responseCache.enabled();
+        this.precompress = responseCache.precompress();
+        this.minCompressSize = responseCache.minCompressSize().toBytes();
+        // single students are small and many, pages few and large; each gets half of the budget
+        this.students = cache(responseCache.maxSize().toBytes() / 2, responseCache);
+        this.pages = cache(responseCache.maxSize().toBytes() / 2, responseCache);
+    }
+
+    private static <K> Cache<K, Payload> cache(long maxBytes, StudentApiProperties.ResponseCache responseCache) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((K key, Payload payload) -> payload.size())
+                .expireAfterWrite(responseCache.ttl())
+                .recordStats()
+                .build();
+    }
+
+    public Payload student(Long id, Supplier<Student> loader) {
+        return get(students, id, () -> {
+            Student student = loader.get();
+            return payload(student, StudentTags.of(student.getVersion()), null);
+        });
+    }
+
+    public Payload page(Long after, Integer limit, Supplier<StudentPage<Student>> loader) {
+        return get(pages, new PageKey(after, limit, ReadYourWrites.isPinned()), () -> {
+            StudentPage<Student> page = loader.get();
+            return payload(page.items(), StudentTags.ofVersions(StudentVersion.of(page.items()), page.nextAfter() != null), page.nextAfter());
+        });
+    }
+
+    public Payload all(Supplier<List<Student>> loader) {
+        return get(pages, new PageKey(null, null, ReadYourWrites.isPinned()), () -> {
+            List<Student> students = loader.get();
+            return payload(students, StudentTags.ofVersions(StudentVersion.of(students), false), null);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(StudentChangedEvent event) {
+        evict(event.id());
+    }
+
+    /**
+     * Drops the student's body and every page, for a write this node did not see as an event.
+     */
+    public void evict(Long id) {
+        generation.incrementAndGet();
+        pages.invalidateAll();
+        students.invalidate(id);
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        pages.invalidateAll();
+        students.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, students, "student-payloads");
+        CaffeineCacheMetrics.monitor(registry, pages, "student-page-payloads");
+    }
+
+    // the load runs outside the cache so a slow query never holds one of its locks
+    private <K> Payload get(Cache<K, Payload> cache, K key, Supplier<Payload> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Payload cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long before = generation.get();
+        Payload payload = loader.get();
+        if (generation.get() == before) {
+            cache.put(key, payload);
+            // a write that committed between the check and the put has already cleared the cache
+            if (generation.get() != before) {
+                cache.invalidate(key);
+            }
+        }
+        return payload;
+    }
+
+    private Payload payload(Object body, String eTag, Long nextAfter) {
+        byte[] json = jsonMapper.writeValueAsBytes(body);
+        byte[] gzip = precompress && json.length >= minCompressSize ? gzip(json) : null;
+        return new Payload(json, gzip != null && gzip.length < json.length ? gzip : null, eTag, nextAfter);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new SmallestGzipOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header allows gzip; {@code gzip;q=0} refuses it.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equals("gzip") && !name.equals("x-gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    return !parameter.substring(2).trim().matches("0(\\.0*)?");
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param json      the serialized body
+     * @param gzip      the body compressed, {@code null} when it is too small to benefit
+     * @param eTag      tag of the body, as the uncached path would send it
+     * @param nextAfter cursor of the next page, {@code null} on the last one and for single students
+     */
+    public record Payload(byte[] json, byte[] gzip, String eTag, Long nextAfter) {
+
+        private int size() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+
+    // compressed once per cache fill, so the slowest level is affordable
+    private static final class SmallestGzipOutputStream extends GZIPOutputStream {
+
+        private SmallestGzipOutputStream(ByteArrayOutputStream out) throws IOException {
+            super(out);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+
+    /**
+     * @param primary whether the page was read for a client pinned to the primary
+     */
+    private record PageKey(Long after, Integer limit, boolean primary) {
+    }
+}
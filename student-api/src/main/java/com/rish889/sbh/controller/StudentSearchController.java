@@ -0,0 +1,52 @@
+package com.rish889.sbh.controller;
+
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.service.StudentSearchPage;
+import com.rish889.sbh.service.StudentSearchService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/students/search")
+public class StudentSearchController {
+
+    private static final int MIN_QUERY_LENGTH = 2;
+
+    private final StudentSearchService service;
+
+    public StudentSearchController(StudentSearchService service) {
+        this.service = service;
+    }
+
+    /**
+     * Ranked prefix and fuzzy matches on name and email. The next page is advertised in a
+     * {@code Link: <...>; rel="next"} header; a search over its latency budget is answered with 503.
+     */
+    @GetMapping
+    public ResponseEntity<List<Student>> search(@RequestParam String q,
+                                                @RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(required = false) Integer size) {
+        if (q.strip().length() < MIN_QUERY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "q must have at least " + MIN_QUERY_LENGTH + " characters");
+        }
+        StudentSearchPage result = service.search(q, page, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.hasNext()) {
+            String next = "/api/students/search?q=" + URLEncoder.encode(q, StandardCharsets.UTF_8)
+                    + "&page=" + (Math.max(page, 0) + 1) + "&size=" + service.pageSize(size);
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(result.items());
+    }
+}
@@ -0,0 +1,57 @@
+package com.rish889.sbh.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Sends connections for {@code @Transactional(readOnly = true)} work to a replica and everything else
+ * to the primary. Falls back to the primary when the thread is pinned by {@link ReadYourWrites} or no
+ * replica is healthy.
+ * <p>
+ * The read-only flag is only known once the transaction has started, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} that defers
+ * {@link #getConnection()} to the first statement.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replicas;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replicas) {
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReadYourWrites.isPinned()) {
+            try {
+                return replicas.getConnection();
+            } catch (SQLException noReplica) {
+                // reads are still served, only without offloading the primary
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    // pool metrics and health checks unwrap to the primary pool
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> type) throws SQLException {
+        return type.isInstance(this) ? (T) this : primary.unwrap(type);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) throws SQLException {
+        return type.isInstance(this) || primary.isWrapperFor(type);
+    }
+}
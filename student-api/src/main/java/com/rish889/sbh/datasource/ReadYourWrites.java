@@ -0,0 +1,44 @@
+package com.rish889.sbh.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Remembers which clients wrote recently, so their reads can stay on the primary until the replicas
+ * have caught up, and whether the current thread is pinned to the primary.
+ */
+public class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(Duration window, long maxClients) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxClients)
+                .build();
+    }
+
+    public void written(String client) {
+        recentWriters.put(client, Boolean.TRUE);
+    }
+
+    public boolean wroteRecently(String client) {
+        return recentWriters.getIfPresent(client) != null;
+    }
+
+    public static void pin() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED.remove();
+    }
+
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+}
@@ -0,0 +1,45 @@
+package com.rish889.sbh.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.Set;
+
+/**
+ * Pins a request to the primary when it writes, or when the same principal wrote within the
+ * read-your-writes window, so a client never reads a replica that has not seen its own write yet.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ReadYourWrites readYourWrites;
+
+    public ReadYourWritesFilter(ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Principal principal = request.getUserPrincipal();
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (write || (principal != null && readYourWrites.wroteRecently(principal.getName()))) {
+            ReadYourWrites.pin();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.unpin();
+            // the window starts once the write has committed and the response is on its way
+            if (write && principal != null) {
+                readYourWrites.written(principal.getName());
+            }
+        }
+    }
+}
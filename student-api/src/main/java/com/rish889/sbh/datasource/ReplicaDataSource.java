@@ -0,0 +1,115 @@
+package com.rish889.sbh.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Round-robin over the read replicas that passed their last health check. A replica that fails to
+ * hand out a connection is taken out of rotation until {@link #checkHealth()} sees it answer again.
+ * When no replica is available {@link #getConnection()} fails, and the caller falls back to the primary.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaDataSource(List<DataSource> replicas) {
+        this.replicas = replicas.stream().map(Replica::new).toList();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection connect(Connector connector) throws SQLException {
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return connector.connect(replica.dataSource);
+            } catch (SQLFeatureNotSupportedException e) {
+                // a pool that cannot switch credentials is not down
+                throw e;
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+        throw new SQLException("No healthy read replica");
+    }
+
+    /**
+     * Probes every replica and puts the ones that answer back into rotation.
+     */
+    @Scheduled(fixedDelayString = "${student-api.replicas.health-check-interval:5s}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                boolean valid = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+                if (valid && !replica.healthy) {
+                    log.info("Read replica {} is back in rotation", replica.dataSource);
+                }
+                replica.healthy = valid;
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    private static void markDown(Replica replica, SQLException e) {
+        if (replica.healthy) {
+            log.warn("Read replica {} taken out of rotation: {}", replica.dataSource, e.getMessage());
+        }
+        replica.healthy = false;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Connector {
+
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
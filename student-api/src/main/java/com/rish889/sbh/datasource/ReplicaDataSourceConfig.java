@@ -0,0 +1,74 @@
+package com.rish889.sbh.datasource;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica routing, active once {@code student-api.replicas.urls} lists at least one replica.
+ * {@code spring.datasource} stays the primary; the {@code @Primary} data source every other component
+ * gets routes read-only transactions to the replicas.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "student-api.replicas", name = "urls[0]")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaDataSource replicaDataSource(DataSourceProperties dataSourceProperties,
+                                               StudentApiProperties properties,
+                                               ObjectProvider<MeterRegistry> registry) {
+        StudentApiProperties.Replicas replicas = properties.replicas();
+        List<DataSource> pools = new ArrayList<>(replicas.urls().size());
+        for (int i = 0; i < replicas.urls().size(); i++) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (i + 1));
+            config.setJdbcUrl(replicas.urls().get(i));
+            config.setUsername(replicas.username() != null ? replicas.username() : dataSourceProperties.determineUsername());
+            config.setPassword(replicas.password() != null ? replicas.password() : dataSourceProperties.determinePassword());
+            config.setMaximumPoolSize(replicas.maxPoolSize());
+            config.setReadOnly(true);
+            // a replica that is down at startup is skipped by the health check instead of failing the boot
+            config.setInitializationFailTimeout(-1);
+            registry.ifAvailable(meters -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meters)));
+            pools.add(new HikariDataSource(config));
+        }
+        return new ReplicaDataSource(pools);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primaryDataSource, replicaDataSource));
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(StudentApiProperties properties) {
+        return new ReadYourWrites(properties.replicas().readYourWritesWindow(), properties.replicas().maxTrackedClients());
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReadYourWrites readYourWrites) {
+        return new FilterRegistrationBean<>(new ReadYourWritesFilter(readYourWrites));
+    }
+}
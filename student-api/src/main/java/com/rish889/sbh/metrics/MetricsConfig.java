@@ -0,0 +1,35 @@
+package com.rish889.sbh.metrics;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Per-request SQL statement counting. Endpoint, service and repository timers, and the Hikari pool
+ * gauges, come from Actuator and {@code @Timed}; see {@code management.*} in application.yaml.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(StatementCounter statementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    @Bean
+    public FilterRegistrationBean<StatementCountFilter> statementCountFilter(StatementCounter statementCounter,
+                                                                            MeterRegistry registry,
+                                                                            StudentApiProperties properties) {
+        return new FilterRegistrationBean<>(new StatementCountFilter(statementCounter, registry,
+                properties.metrics().maxStatementsPerRequest()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.rish889.sbh.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request issued as {@code jpa.statements.per.request}. Requests
+ * above the threshold, usually an N+1 pattern, are logged and counted in
+ * {@code jpa.statements.excessive} so they can be alerted on.
+ */
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementCountFilter.class);
+
+    private final StatementCounter counter;
+    private final MeterRegistry registry;
+    private final int maxStatements;
+
+    public StatementCountFilter(StatementCounter counter, MeterRegistry registry, int maxStatements) {
+        this.counter = counter;
+        this.registry = registry;
+        this.maxStatements = maxStatements;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        counter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            record(request, counter.stop());
+        }
+    }
+
+    private void record(HttpServletRequest request, int statements) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder("jpa.statements.per.request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(statements);
+        if (statements > maxStatements) {
+            Counter.builder("jpa.statements.excessive")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(registry)
+                    .increment();
+            log.warn("{} {} issued {} SQL statements (threshold {})", request.getMethod(), uri, statements, maxStatements);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.rish889.sbh.repository;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Columns a client may select with {@code ?fields=}.
+ */
+public enum StudentField {
+    ID, NAME, EMAIL, VERSION;
+
+    /**
+     * Parses a comma separated field list. {@code id} is always selected because keyset paging and
+     * links need it.
+     *
+     * @throws IllegalArgumentException for an unknown field name
+     */
+    public static Set<StudentField> parse(String fields) {
+        Set<StudentField> parsed = EnumSet.of(ID);
+        for (String field : fields.split(",")) {
+            if (!field.isBlank()) {
+                parsed.add(valueOf(field.strip().toUpperCase(Locale.ROOT)));
+            }
+        }
+        return parsed;
+    }
+
+    String attribute() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,8 +1,40 @@
 package com.rish889.sbh.repository;
 
 import com.rish889.sbh.entity.Student;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface StudentRepository extends JpaRepository<Student, Long> {
-}
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface StudentRepository extends JpaRepository<Student, Long>, StudentViewRepository, StudentWriteRepository {
+
+    List<Student> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    @Query("select s.version from Student s where s.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 
+    @Query("select new com.rish889.sbh.repository.StudentVersion(s.id, s.version) from Student s where s.id > :after order by s.id")
+    List<StudentVersion> findVersionsByIdGreaterThan(@Param("after") Long after, Limit limit);
+
+    @Query("select s.id from Student s where s.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Forward-only cursor over the table. Must be consumed inside a transaction so the
+     * driver keeps the server-side cursor open and fetches 500 rows at a time.
+     */
+    @Query("select s from Student s where s.id > :after order by s.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Student> streamByIdGreaterThan(@Param("after") Long after);
+}
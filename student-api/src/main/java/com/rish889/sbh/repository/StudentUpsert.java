@@ -0,0 +1,13 @@
+package com.rish889.sbh.repository;
+
+import com.rish889.sbh.entity.Student;
+
+/**
+ * Result of {@link StudentWriteRepository#upsert}.
+ */
+public record StudentUpsert(Student student, Outcome outcome) {
+
+    public enum Outcome {
+        CREATED, UPDATED, UNCHANGED
+    }
+}
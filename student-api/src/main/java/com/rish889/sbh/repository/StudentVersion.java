@@ -0,0 +1,16 @@
+package com.rish889.sbh.repository;
+
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.service.Versioned;
+
+import java.util.List;
+
+/**
+ * The id and version of a student, enough to tell whether a client's copy is current.
+ */
+public record StudentVersion(Long id, Long version) implements Versioned {
+
+    public static List<StudentVersion> of(List<Student> students) {
+        return students.stream().map(s -> new StudentVersion(s.getId(), s.getVersion())).toList();
+    }
+}
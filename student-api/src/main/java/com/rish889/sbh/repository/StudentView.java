@@ -0,0 +1,24 @@
+package com.rish889.sbh.repository;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.rish889.sbh.service.Versioned;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Read-only projection of a student carrying only the selected {@link StudentField}s; the rest are
+ * {@code null} and left out of the JSON. As read from the repository it also carries the version, which
+ * {@link #only} drops when it was not selected.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StudentView(Long id, String name, String email, Long version) implements Versioned {
+
+    public StudentView only(Set<StudentField> fields) {
+        return fields.contains(StudentField.VERSION) ? this : new StudentView(id, name, email, null);
+    }
+
+    public static List<StudentView> only(List<StudentView> views, Set<StudentField> fields) {
+        return fields.contains(StudentField.VERSION) ? views : views.stream().map(view -> view.only(fields)).toList();
+    }
+}
@@ -0,0 +1,18 @@
+package com.rish889.sbh.repository;
+
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Projections that select only the requested columns. The results are plain records, never entities,
+ * so they are not hydrated, dirty-checked or kept in the persistence context.
+ */
+public interface StudentViewRepository {
+
+    List<StudentView> findViewsByIdGreaterThan(Set<StudentField> fields, Long after, Limit limit);
+
+    Optional<StudentView> findViewById(Set<StudentField> fields, Long id);
+}
@@ -0,0 +1,65 @@
+package com.rish889.sbh.repository;
+
+import com.rish889.sbh.entity.Student;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+class StudentViewRepositoryImpl implements StudentViewRepository {
+
+    private final EntityManager entityManager;
+
+    StudentViewRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<StudentView> findViewsByIdGreaterThan(Set<StudentField> fields, Long after, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<StudentView> query = cb.createQuery(StudentView.class);
+        Root<Student> student = query.from(Student.class);
+        query.select(view(cb, student, fields))
+                .where(cb.greaterThan(student.get("id"), after))
+                .orderBy(cb.asc(student.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit.max())
+                .getResultList();
+    }
+
+    @Override
+    public Optional<StudentView> findViewById(Set<StudentField> fields, Long id) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<StudentView> query = cb.createQuery(StudentView.class);
+        Root<Student> student = query.from(Student.class);
+        query.select(view(cb, student, fields))
+                .where(cb.equal(student.get("id"), id));
+        return entityManager.createQuery(query).getResultStream().findFirst();
+    }
+
+    private static Selection<StudentView> view(CriteriaBuilder cb, Root<Student> student, Set<StudentField> fields) {
+        return cb.construct(StudentView.class,
+                column(cb, student, fields, StudentField.ID, Long.class),
+                column(cb, student, fields, StudentField.NAME, String.class),
+                column(cb, student, fields, StudentField.EMAIL, String.class),
+                // read whatever the selection: the ETag of a projection is computed from it
+                student.<Long>get(StudentField.VERSION.attribute()));
+    }
+
+    // unselected fields become a null literal, so the SQL only reads the requested columns
+    private static <T> Selection<T> column(CriteriaBuilder cb, Root<Student> student, Set<StudentField> fields,
+                                           StudentField field, Class<T> type) {
+        if (!fields.contains(field)) {
+            return cb.nullLiteral(type);
+        }
+        Path<T> path = student.get(field.attribute());
+        return path;
+    }
+}
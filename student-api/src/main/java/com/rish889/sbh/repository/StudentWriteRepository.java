@@ -0,0 +1,46 @@
+package com.rish889.sbh.repository;
+
+import com.rish889.sbh.entity.Student;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes that return the new row from the UPDATE itself instead of loading and merging the entity,
+ * so an update is a single round trip.
+ */
+public interface StudentWriteRepository {
+
+    /**
+     * Sets the non-null columns and increments the version.
+     *
+     * @param expectedVersion when not {@code null}, the row is only updated while it still has this version
+     * @return the updated row as a detached student, or empty when no row matched
+     */
+    Optional<Student> updateColumns(Long id, Long expectedVersion, String name, String email);
+
+    /**
+     * Inserts the student, or when the email is already taken updates that row's name, in a single
+     * statement. On PostgreSQL the email is claimed in {@code student_emails} with {@code INSERT ... ON CONFLICT},
+     * since the partitioned table cannot enforce unique emails itself. A conflicting row with the same
+     * name is left untouched.
+     */
+    StudentUpsert upsert(Student student);
+
+    /**
+     * Bulk {@link #upsert}: streams the students into a temporary staging table with {@code COPY FROM STDIN}
+     * (a JDBC batch on databases without COPY) and merges the staging table into {@code students} in one
+     * statement. Emails must be unique within the list.
+     *
+     * @return the created rows (version 0) and updated rows; students whose row already had the same name are not returned
+     */
+    List<Student> copyUpsert(List<Student> students);
+
+    /**
+     * Deletes the students in one statement, without loading them first.
+     *
+     * @return the number of students deleted
+     */
+    int deleteByIds(Collection<Long> ids);
+}
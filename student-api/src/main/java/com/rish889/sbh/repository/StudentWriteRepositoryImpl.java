@@ -0,0 +1,324 @@
+package com.rish889.sbh.repository;
+
+import com.rish889.sbh.entity.Student;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import org.hibernate.Session;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.postgresql.PGConnection;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+class StudentWriteRepositoryImpl implements StudentWriteRepository {
+
+    private static final String COLUMNS = "id, name, email, version, created_at, updated_at";
+
+    // students is partitioned and cannot carry UNIQUE (email), so the email is claimed in student_emails first:
+    // the claim either inserts this row's id or, locking it, returns the id of the student holding the email
+    private static final String POSTGRES_UPSERT = """
+            with claimed as (
+                insert into student_emails (email, student_id) values (:email, :id)
+                on conflict (email) do update set student_id = student_emails.student_id
+                returning student_id
+            ), inserted as (
+                insert into students (id, name, email, version, created_at, updated_at)
+                select :id, :name, :email, 0, :now, :now from claimed where student_id = :id
+                returning id, name, email, version, created_at, updated_at
+            ), updated as (
+                update students t set name = :name, version = t.version + 1, updated_at = :now
+                from claimed c where t.id = c.student_id and c.student_id <> :id and t.name <> :name
+                returning t.id, t.name, t.email, t.version, t.created_at, t.updated_at
+            )
+            select * from inserted union all select * from updated
+            """;
+
+    // H2 only supports ON CONFLICT DO NOTHING; MERGE with the same match rules is its equivalent
+    private static final String H2_UPSERT = """
+            select id, name, email, version, created_at, updated_at from final table (
+                merge into students t
+                using (values (cast(:id as bigint), cast(:name as varchar), cast(:email as varchar),
+                               cast(:now as timestamp with time zone))) s (id, name, email, now)
+                on t.email = s.email
+                when matched and t.name <> s.name then update set name = s.name, version = t.version + 1, updated_at = s.now
+                when not matched then insert (id, name, email, version, created_at, updated_at)
+                    values (s.id, s.name, s.email, 0, s.now, s.now))
+            """;
+
+    private static final String POSTGRES_STAGING = """
+            create temp table student_import_rows (id bigint, name varchar(100), email varchar(255)) on commit drop
+            """;
+
+    // TRANSACTIONAL keeps H2 from committing the open transaction on DDL
+    private static final String H2_STAGING = """
+            create local temporary table student_import_rows (id bigint, name varchar(100), email varchar(255))
+            on commit drop transactional
+            """;
+
+    // POSTGRES_UPSERT for every staged row. Only rows for emails nobody held got an id, so a claim returning
+    // it is a new student; any other claim, and the held emails of rows without id, name the student to update
+    private static final String POSTGRES_MERGE_STAGED = """
+            with claimed as (
+                insert into student_emails (email, student_id) select email, id from student_import_rows where id is not null
+                on conflict (email) do update set student_id = student_emails.student_id
+                returning email, student_id
+            ), held as (
+                select email, student_id from claimed
+                union all
+                select e.email, e.student_id from student_emails e
+                join student_import_rows s on s.email = e.email where s.id is null
+            ), inserted as (
+                insert into students (id, name, email, version, created_at, updated_at)
+                select s.id, s.name, s.email, 0, ?, ? from student_import_rows s
+                join claimed c on c.email = s.email and c.student_id = s.id
+                returning id, name, email, version, created_at, updated_at
+            ), updated as (
+                update students t set name = s.name, version = t.version + 1, updated_at = ?
+                from student_import_rows s join held c on c.email = s.email and c.student_id is distinct from s.id
+                where t.id = c.student_id and t.name <> s.name
+                returning t.id, t.name, t.email, t.version, t.created_at, t.updated_at
+            )
+            select * from inserted union all select * from updated
+            """;
+
+    private static final String H2_MERGE_STAGED = """
+            select id, name, email, version, created_at, updated_at from final table (
+                merge into students t
+                using student_import_rows s
+                on t.email = s.email
+                when matched and t.name <> s.name then update set name = s.name, version = t.version + 1, updated_at = ?
+                when not matched then insert (id, name, email, version, created_at, updated_at)
+                    values (s.id, s.name, s.email, 0, ?, ?))
+            """;
+
+    private final EntityManager entityManager;
+
+    StudentWriteRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public Optional<Student> updateColumns(Long id, Long expectedVersion, String name, String email) {
+        StringBuilder update = new StringBuilder("update students set version = version + 1, updated_at = :now");
+        if (name != null) {
+            update.append(", name = :name");
+        }
+        if (email != null) {
+            update.append(", email = :email");
+        }
+        update.append(" where id = :id");
+        if (expectedVersion != null) {
+            update.append(" and version = :version");
+        }
+        // H2 has no UPDATE ... RETURNING, its equivalent is selecting from the data change delta table
+        String sql = isH2()
+                ? "select " + COLUMNS + " from final table (" + update + ")"
+                : update + " returning " + COLUMNS;
+
+        Query query = entityManager.createNativeQuery(sql, Tuple.class)
+                .setParameter("id", id)
+                .setParameter("now", Instant.now());
+        if (name != null) {
+            query.setParameter("name", name);
+        }
+        if (email != null) {
+            query.setParameter("email", email);
+        }
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        List<Tuple> rows = query.getResultList();
+        // a copy already in the persistence context is now stale; getReference finds it without a query
+        entityManager.detach(entityManager.getReference(Student.class, id));
+        return rows.stream().findFirst().map(StudentWriteRepositoryImpl::toStudent);
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public StudentUpsert upsert(Student student) {
+        Long id = nextId(student);
+        List<Tuple> rows = entityManager.createNativeQuery(isH2() ? H2_UPSERT : POSTGRES_UPSERT, Tuple.class)
+                .setParameter("id", id)
+                .setParameter("name", student.getName())
+                .setParameter("email", student.getEmail())
+                .setParameter("now", Instant.now())
+                .getResultList();
+        if (rows.isEmpty()) {
+            Student existing = entityManager.createQuery("select s from Student s where s.email = :email", Student.class)
+                    .setParameter("email", student.getEmail())
+                    .getSingleResult();
+            return new StudentUpsert(existing, StudentUpsert.Outcome.UNCHANGED);
+        }
+        Student saved = toStudent(rows.getFirst());
+        if (saved.getId().equals(id)) {
+            return new StudentUpsert(saved, StudentUpsert.Outcome.CREATED);
+        }
+        entityManager.detach(entityManager.getReference(Student.class, saved.getId()));
+        return new StudentUpsert(saved, StudentUpsert.Outcome.UPDATED);
+    }
+
+    @Override
+    @Transactional
+    public List<Student> copyUpsert(List<Student> students) {
+        if (students.isEmpty()) {
+            return List.of();
+        }
+        boolean h2 = isH2();
+        // only rows for emails nobody holds yet are inserted, so only they draw an id from the sequence;
+        // updated rows keep their existing id
+        Set<String> taken = entityManager.unwrap(Session.class).doReturningWork(connection -> takenEmails(connection, h2, students));
+        students.forEach(student -> student.setId(taken.contains(student.getEmail()) ? null : nextId(student)));
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(h2 ? H2_STAGING : POSTGRES_STAGING);
+            }
+            if (h2) {
+                insertStaged(connection, students);
+            } else {
+                copyStaged(connection.unwrap(PGConnection.class), students);
+            }
+            String merge = h2 ? H2_MERGE_STAGED : POSTGRES_MERGE_STAGED;
+            try (PreparedStatement statement = connection.prepareStatement(merge)) {
+                for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                    statement.setObject(i, now);
+                }
+                List<Student> rows = new ArrayList<>();
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        rows.add(toStudent(result));
+                    }
+                }
+                return rows;
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public int deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int deleted = entityManager.createNativeQuery("delete from students where id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        // copies already in the persistence context are gone; getReference finds them without a query
+        ids.forEach(id -> entityManager.detach(entityManager.getReference(Student.class, id)));
+        return deleted;
+    }
+
+    private static Set<String> takenEmails(Connection connection, boolean h2, List<Student> students) throws SQLException {
+        String query = h2 ? "select email from students where email = any(?)" : "select email from student_emails where email = any(?)";
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setArray(1, connection.createArrayOf("varchar", students.stream().map(Student::getEmail).toArray()));
+            Set<String> taken = new HashSet<>();
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    taken.add(result.getString(1));
+                }
+            }
+            return taken;
+        }
+    }
+
+    // an empty unquoted CSV field is NULL
+    private static void copyStaged(PGConnection connection, List<Student> students) throws SQLException {
+        StringBuilder csv = new StringBuilder(students.size() * 64);
+        for (Student student : students) {
+            csv.append(student.getId() == null ? "" : student.getId()).append(',')
+                    .append(quote(student.getName())).append(',')
+                    .append(quote(student.getEmail())).append('\n');
+        }
+        try {
+            connection.getCopyAPI().copyIn("copy student_import_rows (id, name, email) from stdin (format csv)",
+                    new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new SQLException("COPY into student_import_rows failed", e);
+        }
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void insertStaged(Connection connection, List<Student> students) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into student_import_rows (id, name, email) values (?, ?, ?)")) {
+            for (Student student : students) {
+                statement.setObject(1, student.getId(), Types.BIGINT);
+                statement.setString(2, student.getName());
+                statement.setString(3, student.getEmail());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    // ids come from the entity's pooled sequence generator so they never collide with ids Hibernate hands out
+    private Long nextId(Student student) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Student.class).getGenerator();
+        return (Long) generator.generate(session, student, null, EventType.INSERT);
+    }
+
+    private boolean isH2() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof H2Dialect;
+    }
+
+    private static Student toStudent(Tuple row) {
+        Student student = new Student(row.get("name", String.class), row.get("email", String.class));
+        student.setId(((Number) row.get("id")).longValue());
+        student.setVersion(((Number) row.get("version")).longValue());
+        student.setCreatedAt(instant(row.get("created_at")));
+        student.setUpdatedAt(instant(row.get("updated_at")));
+        return student;
+    }
+
+    private static Student toStudent(ResultSet row) throws SQLException {
+        Student student = new Student(row.getString("name"), row.getString("email"));
+        student.setId(row.getLong("id"));
+        student.setVersion(row.getLong("version"));
+        student.setCreatedAt(row.getObject("created_at", OffsetDateTime.class).toInstant());
+        student.setUpdatedAt(row.getObject("updated_at", OffsetDateTime.class).toInstant());
+        return student;
+    }
+
+    // drivers hand back timestamptz as OffsetDateTime, older ones as Timestamp
+    static Instant instant(Object value) {
+        return switch (value) {
+            case null -> null;
+            case Instant instant -> instant;
+            case OffsetDateTime offsetDateTime -> offsetDateTime.toInstant();
+            case Timestamp timestamp -> timestamp.toInstant();
+            default -> throw new IllegalStateException("Unexpected timestamp type " + value.getClass());
+        };
+    }
+}
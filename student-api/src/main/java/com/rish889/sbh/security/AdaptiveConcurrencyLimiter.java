@@ -0,0 +1,108 @@
+package com.rish889.sbh.security;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps concurrent requests with a limit found by additive increase, multiplicative decrease: every
+ * request that finishes under the latency threshold while the limit is at least half used raises it by
+ * {@code 1 / limit}, about one per limit's worth of requests, and every slower one multiplies it by the
+ * backoff ratio. When the database saturates, latency rises and the limit shrinks until queueing stops,
+ * so excess load is turned away with 429 instead of waiting for a pool connection. Permits and the
+ * limit are plain atomics; acquiring and releasing never block.
+ */
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // a double, stored as its bits so it can be compare-and-set
+    private final AtomicLong limit;
+    private final LongAdder rejected = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter(StudentApiProperties.ConcurrencyLimit properties) {
+        if (properties.minLimit() < 1 || properties.maxLimit() < properties.minLimit()) {
+            throw new IllegalArgumentException("concurrency limit needs 1 <= min-limit <= max-limit");
+        }
+        this.minLimit = properties.minLimit();
+        this.maxLimit = properties.maxLimit();
+        this.latencyThresholdNanos = properties.latencyThreshold().toNanos();
+        this.backoffRatio = properties.backoffRatio();
+        int initial = Math.clamp(properties.initialLimit(), minLimit, maxLimit);
+        this.limit = new AtomicLong(Double.doubleToLongBits(initial));
+    }
+
+    /**
+     * @return whether a permit was taken; if so, {@link #release(long)} or {@link #release()} must follow
+     */
+    public boolean tryAcquire() {
+        int allowed = limit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns a permit and adjusts the limit by the request's latency.
+     */
+    public void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        while (true) {
+            long currentBits = limit.get();
+            double current = Double.longBitsToDouble(currentBits);
+            double next;
+            if (latencyNanos > latencyThresholdNanos) {
+                next = Math.max(minLimit, current * backoffRatio);
+            } else if (inFlightBefore * 2 >= current) {
+                next = Math.min(maxLimit, current + 1 / current);
+            } else {
+                // mostly idle: fast responses say nothing about how much more load would be tolerated
+                return;
+            }
+            if (next == current || limit.compareAndSet(currentBits, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns a permit without a latency sample, for requests that are long by design.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return (int) Double.longBitsToDouble(limit.get());
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("student.concurrency.limit", this, AdaptiveConcurrencyLimiter::limit)
+                .register(registry);
+        Gauge.builder("student.concurrency.in.flight", this, AdaptiveConcurrencyLimiter::inFlight)
+                .register(registry);
+        FunctionCounter.builder("student.concurrency.rejected", rejected, LongAdder::sum)
+                .register(registry);
+    }
+}
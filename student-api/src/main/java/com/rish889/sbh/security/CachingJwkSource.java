@@ -0,0 +1,290 @@
+package com.rish889.sbh.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * JWKS for the resource server that does not need the issuer to be reachable on the request path.
+ * <ul>
+ *     <li>Keys are loaded from a file in {@code cacheDirectory} on boot and written back after every
+ *     fetch, so a restarted node validates tokens before it has talked to the issuer. The file is named
+ *     after the issuer, and it is only trusted when it and the directory belong to the user running the
+ *     application and nobody else may write to them: whoever can replace it can mint tokens.</li>
+ *     <li>Once keys are known they are re-fetched in the background every {@code refreshInterval};
+ *     a failed refresh keeps the previous keys.</li>
+ *     <li>A token with an unknown {@code kid} triggers one fetch, shared by all concurrent callers and
+ *     throttled to one per {@code minRefetchInterval}.</li>
+ * </ul>
+ * Discovery and the first fetch are lazy, so nothing is requested at startup. Discovery checks that the
+ * metadata names the configured issuer, as {@code JwtDecoders.fromIssuerLocation} does.
+ */
+public class CachingJwkSource implements JWKSource<SecurityContext>, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingJwkSource.class);
+
+    private final String issuerUri;
+    private final Path cacheFile;
+    private final Duration refreshInterval;
+    private final Duration minRefetchInterval;
+    private final Clock clock;
+    private final RestClient restClient;
+
+    private final AtomicReference<CompletableFuture<JWKSet>> inFlight = new AtomicReference<>();
+    private volatile String jwkSetUri;
+    private volatile JWKSet keys = new JWKSet();
+    private volatile Instant fetchedAt = Instant.EPOCH;
+    private volatile Instant lastAttempt = Instant.EPOCH;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param jwkSetUri JWKS endpoint, or {@code null} to discover it from the issuer's metadata
+     * @param cacheDirectory where keys are persisted, or {@code null} to keep them in memory only
+     */
+    public CachingJwkSource(String issuerUri, String jwkSetUri, Path cacheDirectory,
+                            Duration refreshInterval, Duration minRefetchInterval) {
+        this(issuerUri, jwkSetUri, cacheDirectory, refreshInterval, minRefetchInterval, Clock.systemUTC());
+    }
+
+    CachingJwkSource(String issuerUri, String jwkSetUri, Path cacheDirectory,
+                     Duration refreshInterval, Duration minRefetchInterval, Clock clock) {
+        this.issuerUri = issuerUri;
+        this.jwkSetUri = jwkSetUri;
+        this.cacheFile = cacheDirectory == null ? null : cacheDirectory.toAbsolutePath().resolve(cacheFileName(issuerUri));
+        this.refreshInterval = refreshInterval;
+        this.minRefetchInterval = minRefetchInterval;
+        this.clock = clock;
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build());
+        requestFactory.setReadTimeout(Duration.ofSeconds(5));
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+        loadCacheFile();
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector selector, SecurityContext context) {
+        List<JWK> matches = selector.select(keys);
+        if (!matches.isEmpty()) {
+            return matches;
+        }
+        if (inFlight.get() == null && Duration.between(lastAttempt, clock.instant()).compareTo(minRefetchInterval) < 0) {
+            // a fetch may have completed since the first lookup
+            return selector.select(keys);
+        }
+        return selector.select(refresh());
+    }
+
+    /**
+     * Fetches the key set, or joins a fetch that is already running. Never throws: on failure the
+     * previous keys are kept and returned.
+     */
+    public JWKSet refresh() {
+        CompletableFuture<JWKSet> mine = new CompletableFuture<>();
+        CompletableFuture<JWKSet> running = inFlight.compareAndExchange(null, mine);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            lastAttempt = clock.instant();
+            JWKSet fetched = fetch();
+            keys = fetched;
+            fetchedAt = lastAttempt;
+            writeCacheFile(fetched);
+            mine.complete(fetched);
+        } catch (RuntimeException | ParseException e) {
+            log.warn("Could not refresh JWKS from {}, keeping {} cached key(s): {}", issuerUri, keys.size(), e.getMessage());
+            mine.complete(keys);
+        } finally {
+            inFlight.set(null);
+        }
+        return mine.join();
+    }
+
+    public Instant fetchedAt() {
+        return fetchedAt;
+    }
+
+    Path cacheFile() {
+        return cacheFile;
+    }
+
+    @Override
+    public synchronized void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("jwks-refresh").daemon().factory());
+        long initialDelay = keys.isEmpty()
+                ? refreshInterval.toMillis()
+                : Math.max(0, refreshInterval.minus(Duration.between(fetchedAt, clock.instant())).toMillis());
+        scheduler.scheduleWithFixedDelay(this::refreshInBackground, initialDelay, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private void refreshInBackground() {
+        // until the first token arrives there is nothing to keep warm, and no reason to reach the issuer
+        if (!keys.isEmpty()) {
+            refresh();
+        }
+    }
+
+    private JWKSet fetch() throws ParseException {
+        if (jwkSetUri == null) {
+            Map<String, Object> metadata = discover();
+            // a document naming another issuer must not decide which keys are trusted for this one
+            if (!issuerUri.equals(metadata.get("issuer"))) {
+                throw new IllegalStateException("issuer metadata names issuer " + metadata.get("issuer") + ", expected " + issuerUri);
+            }
+            if (!(metadata.get("jwks_uri") instanceof String uri)) {
+                throw new IllegalStateException("issuer metadata has no jwks_uri");
+            }
+            jwkSetUri = uri;
+        }
+        String body = restClient.get().uri(jwkSetUri).retrieve().body(String.class);
+        return JWKSet.parse(body);
+    }
+
+    /**
+     * The OpenID Provider configuration, or else the RFC 8414 authorization server metadata.
+     */
+    private Map<String, Object> discover() throws ParseException {
+        String issuer = issuerUri.replaceAll("/$", "");
+        String path = URI.create(issuer).getRawPath();
+        RuntimeException failure = null;
+        for (URI location : List.of(
+                URI.create(issuer + "/.well-known/openid-configuration"),
+                URI.create(issuer).resolve("/.well-known/oauth-authorization-server" + path))) {
+            try {
+                return JSONObjectUtils.parse(restClient.get().uri(location).retrieve().body(String.class));
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
+    private void loadCacheFile() {
+        if (cacheFile == null || !Files.isReadable(cacheFile)) {
+            return;
+        }
+        if (!isPrivate(cacheFile.getParent()) || !isPrivate(cacheFile)) {
+            log.warn("Ignoring JWKS cache file {}: it, or its directory, is a link, is not owned by {} or is writable by others",
+                    cacheFile, System.getProperty("user.name"));
+            return;
+        }
+        try {
+            keys = JWKSet.parse(Files.readString(cacheFile));
+            fetchedAt = Files.getLastModifiedTime(cacheFile).toInstant();
+            log.info("Loaded {} JWKS key(s) from {}", keys.size(), cacheFile);
+        } catch (IOException | ParseException e) {
+            log.warn("Ignoring unreadable JWKS cache file {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    private void writeCacheFile(JWKSet fetched) {
+        if (cacheFile == null) {
+            return;
+        }
+        try {
+            Path parent = cacheFile.getParent();
+            if (Files.notExists(parent)) {
+                createPrivateDirectory(parent);
+            }
+            if (!isPrivate(parent)) {
+                log.warn("Not writing JWKS cache file {}: its directory is shared with other users", cacheFile);
+                return;
+            }
+            // created owner-only on POSIX file systems
+            Path tmp = Files.createTempFile(parent, "jwks", ".tmp");
+            Files.writeString(tmp, fetched.toString(true));
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write JWKS cache file {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    private static void createPrivateDirectory(Path directory) throws IOException {
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } else {
+            Files.createDirectories(directory);
+        }
+    }
+
+    private static boolean isPrivate(Path path) {
+        try {
+            if (Files.isSymbolicLink(path)) {
+                return false;
+            }
+            UserPrincipal user = path.getFileSystem().getUserPrincipalLookupService()
+                    .lookupPrincipalByName(System.getProperty("user.name"));
+            if (!user.equals(Files.getOwner(path, LinkOption.NOFOLLOW_LINKS))) {
+                return false;
+            }
+            PosixFileAttributeView posix = Files.getFileAttributeView(path, PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+            if (posix == null) {
+                return true;
+            }
+            Set<PosixFilePermission> permissions = posix.readAttributes().permissions();
+            return !permissions.contains(PosixFilePermission.GROUP_WRITE) && !permissions.contains(PosixFilePermission.OTHERS_WRITE);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // one file per issuer, so a directory shared by several configurations never mixes their keys
+    private static String cacheFileName(String issuerUri) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(issuerUri.getBytes(StandardCharsets.UTF_8));
+            return "jwks-" + HexFormat.of().formatHex(digest, 0, 16) + ".json";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
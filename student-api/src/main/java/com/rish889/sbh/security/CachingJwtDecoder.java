@@ -0,0 +1,65 @@
+package com.rish889.sbh.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Remembers successfully decoded tokens so a client reusing its access token pays for signature
+ * verification and claim validation once, not on every request. An entry never outlives the token's
+ * {@code exp}; failures are not cached.
+ */
+public class CachingJwtDecoder implements JwtDecoder, MeterBinder {
+
+    private final JwtDecoder delegate;
+    private final Cache<String, Jwt> tokens;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maxSize, Duration maxTtl) {
+        this(delegate, maxSize, maxTtl, Clock.systemUTC());
+    }
+
+    CachingJwtDecoder(JwtDecoder delegate, long maxSize, Duration maxTtl, Clock clock) {
+        this.delegate = delegate;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((String token, Jwt jwt) -> timeToLive(jwt, maxTtl, clock)))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Jwt jwt = tokens.getIfPresent(token);
+        if (jwt != null) {
+            return jwt;
+        }
+        jwt = delegate.decode(token);
+        tokens.put(token, jwt);
+        return jwt;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, tokens, "jwt-tokens");
+    }
+
+    private static Duration timeToLive(Jwt jwt, Duration maxTtl, Clock clock) {
+        if (jwt.getExpiresAt() == null) {
+            return maxTtl;
+        }
+        Duration untilExpiry = Duration.between(clock.instant(), jwt.getExpiresAt());
+        if (untilExpiry.isNegative()) {
+            return Duration.ZERO;
+        }
+        return untilExpiry.compareTo(maxTtl) < 0 ? untilExpiry : maxTtl;
+    }
+}
@@ -0,0 +1,150 @@
+package com.rish889.sbh.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rish889.sbh.config.StudentApiProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket per client. Each bucket is a single {@code AtomicLong} holding the time its next token
+ * becomes available (the generic cell rate algorithm), so taking a token is one compare-and-set and no
+ * client ever waits on another. Clients are identified by JWT subject; limits are looked up by subject,
+ * then by client id, then fall back to the defaults.
+ */
+public class ClientRateLimiter implements MeterBinder {
+
+    private static final String DEFAULT_CLIENT = "default";
+
+    private final Limit defaultLimit;
+    private final Map<String, Limit> clientLimits = new HashMap<>();
+    private final Cache<String, Bucket> buckets;
+    private final LongSupplier nanoTime;
+
+    public ClientRateLimiter(StudentApiProperties.RateLimit properties) {
+        this(properties, System::nanoTime);
+    }
+
+    ClientRateLimiter(StudentApiProperties.RateLimit properties, LongSupplier nanoTime) {
+        this.defaultLimit = new Limit(DEFAULT_CLIENT, properties.requestsPerSecond(), properties.burst());
+        properties.clients().forEach((client, limit) ->
+                clientLimits.put(client, new Limit(client, limit.requestsPerSecond(), limit.burst())));
+        // a bucket left idle for burst / rate is full again, dropping it then loses nothing
+        long idleNanos = clientLimits.values().stream()
+                .mapToLong(Limit::refillNanos)
+                .reduce(defaultLimit.refillNanos(), Math::max);
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(Math.max(idleNanos, TimeUnit.SECONDS.toNanos(1))))
+                .maximumSize(properties.maxTrackedClients())
+                .recordStats()
+                .build();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Takes a token from the subject's bucket.
+     *
+     * @param subject  JWT subject the bucket belongs to
+     * @param clientId OAuth client the token was issued to, may be {@code null}
+     * @return {@code 0} if the request may proceed, otherwise the nanoseconds until it would be allowed
+     */
+    public long tryAcquire(String subject, String clientId) {
+        Limit limit = clientLimits.get(subject);
+        if (limit == null && clientId != null) {
+            limit = clientLimits.get(clientId);
+        }
+        if (limit == null) {
+            limit = defaultLimit;
+        }
+        Limit resolved = limit;
+        long wait = buckets.get(subject, ignored -> new Bucket(resolved)).tryAcquire(nanoTime.getAsLong());
+        if (wait > 0) {
+            resolved.rejected.increment();
+        }
+        return wait;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, buckets, "rate-limit-buckets");
+        bind(registry, defaultLimit);
+        clientLimits.values().forEach(limit -> bind(registry, limit));
+    }
+
+    private static void bind(MeterRegistry registry, Limit limit) {
+        Gauge.builder("student.ratelimit.requests.per.second", limit, Limit::requestsPerSecond)
+                .tag("client", limit.client)
+                .register(registry);
+        Gauge.builder("student.ratelimit.burst", limit, Limit::burst)
+                .tag("client", limit.client)
+                .register(registry);
+        FunctionCounter.builder("student.ratelimit.rejected", limit.rejected, LongAdder::sum)
+                .tag("client", limit.client)
+                .register(registry);
+    }
+
+    private static final class Limit {
+
+        private final String client;
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final LongAdder rejected = new LongAdder();
+
+        private Limit(String client, double requestsPerSecond, int burst) {
+            if (requestsPerSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("rate limit of " + client + " needs a positive rate and burst");
+            }
+            this.client = client;
+            this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond));
+            this.toleranceNanos = intervalNanos * burst;
+        }
+
+        private double requestsPerSecond() {
+            return (double) TimeUnit.SECONDS.toNanos(1) / intervalNanos;
+        }
+
+        private double burst() {
+            return (double) toleranceNanos / intervalNanos;
+        }
+
+        private long refillNanos() {
+            return toleranceNanos;
+        }
+    }
+
+    private static final class Bucket {
+
+        private final Limit limit;
+        // theoretical arrival time of the next request; the bucket is full whenever it lies in the past
+        private final AtomicLong nextFree = new AtomicLong(Long.MIN_VALUE);
+
+        private Bucket(Limit limit) {
+            this.limit = limit;
+        }
+
+        private long tryAcquire(long now) {
+            while (true) {
+                long current = nextFree.get();
+                long next = Math.max(current, now) + limit.intervalNanos;
+                long wait = next - now - limit.toleranceNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (nextFree.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.rish889.sbh.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the per-client rate limit and then the global concurrency limit to {@code /api/**}, answering
+ * 429 with {@code Retry-After} when either is exceeded. Runs after bearer token authentication so the
+ * client is known; unauthenticated requests are left to the authorization rules.
+ */
+public class RequestLimitFilter extends OncePerRequestFilter {
+
+    // streams and bulk transfers take as long as their payload, their latency says nothing about load.
+    // A count is not one of them: it competes for the same pool connections, and its latency shows it
+    private static final List<String> LONG_RUNNING_PATHS = List.of(
+            "/api/students/batch", "/api/students/changes", "/api/students/export", "/api/students/import");
+
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * @param rateLimiter        {@code null} to skip rate limiting
+     * @param concurrencyLimiter {@code null} to skip concurrency limiting
+     */
+    public RequestLimitFilter(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !path(request).startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (rateLimiter != null && authentication != null && authentication.isAuthenticated()) {
+            long waitNanos = rateLimiter.tryAcquire(authentication.getName(), clientId(authentication));
+            if (waitNanos > 0) {
+                tooManyRequests(response, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+                return;
+            }
+        }
+        if (concurrencyLimiter == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            tooManyRequests(response, 1);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // an async request has only started, the time so far is not its latency
+            if (request.isAsyncStarted() || isLongRunning(request)) {
+                concurrencyLimiter.release();
+            } else {
+                concurrencyLimiter.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static String clientId(Authentication authentication) {
+        if (authentication instanceof JwtAuthenticationToken jwt) {
+            return jwt.getToken().getClaimAsString("azp");
+        }
+        return null;
+    }
+
+    private static boolean isLongRunning(HttpServletRequest request) {
+        String path = path(request);
+        return LONG_RUNNING_PATHS.stream().anyMatch(path::startsWith);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static void tooManyRequests(HttpServletResponse response, long retryAfterSeconds) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    }
+}
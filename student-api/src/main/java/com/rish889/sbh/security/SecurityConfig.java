@@ -1,29 +1,38 @@
 package com.rish889.sbh.security;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-
+import com.rish889.sbh.config.StudentApiProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
+import org.springframework.util.StringUtils;
 
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import java.nio.file.Path;
+import java.util.EnumSet;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(StudentApiProperties.class)
 public class SecurityConfig {
 
     @Bean
-    SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                            ClientRateLimiter rateLimiter,
+                                            AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                            StudentApiProperties properties) throws Exception {
         http
                 .authorizeHttpRequests(auth -> auth
+                        // orchestrator probes carry no token; they only expose UP / OUT_OF_SERVICE
+                        .requestMatchers("/actuator/health/liveness", "/actuator/health/readiness").permitAll()
                         .requestMatchers("/api/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
@@ -31,31 +40,71 @@ public class SecurityConfig {
                         oauth2.jwt(jwt ->
                                 jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())
                         )
-                );
+                )
+                .addFilterAfter(new RequestLimitFilter(
+                        properties.rateLimit().enabled() ? rateLimiter : null,
+                        properties.concurrencyLimit().enabled() ? concurrencyLimiter : null
+                ), BearerTokenAuthenticationFilter.class);
 
         return http.build();
     }
 
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtGrantedAuthoritiesConverter converter = new JwtGrantedAuthoritiesConverter();
-        converter.setAuthoritiesClaimName("realm_access.roles");
-        converter.setAuthorityPrefix("ROLE_");
+    ClientRateLimiter clientRateLimiter(StudentApiProperties properties) {
+        return new ClientRateLimiter(properties.rateLimit());
+    }
 
-        JwtAuthenticationConverter jwtConverter = new JwtAuthenticationConverter();
-        jwtConverter.setJwtGrantedAuthoritiesConverter(jwt -> {
-            Map<String, Object> realmAccess = jwt.getClaim("realm_access");
-            if (realmAccess == null || realmAccess.get("roles") == null) {
-                return List.of();
-            }
-            @SuppressWarnings("unchecked")
-            List<String> roles = (List<String>) realmAccess.get("roles");
-            return roles.stream()
-                    .map(r -> new SimpleGrantedAuthority("ROLE_" + r))
-                    .collect(Collectors.toCollection(ArrayList::new));
-        });
+    @Bean
+    AdaptiveConcurrencyLimiter concurrencyLimiter(StudentApiProperties properties) {
+        return new AdaptiveConcurrencyLimiter(properties.concurrencyLimit());
+    }
+
+    @Bean
+    CachingJwkSource jwkSource(@Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+                               @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri:}") String jwkSetUri,
+                               StudentApiProperties properties) {
+        StudentApiProperties.Jwks jwks = properties.security().jwks();
+        return new CachingJwkSource(
+                issuerUri,
+                StringUtils.hasText(jwkSetUri) ? jwkSetUri : null,
+                StringUtils.hasText(jwks.cacheDirectory()) ? Path.of(jwks.cacheDirectory()) : null,
+                jwks.refreshInterval(),
+                jwks.minRefetchInterval());
+    }
+
+    /**
+     * Replaces the auto-configured decoder: keys come from {@link CachingJwkSource} instead of a
+     * startup-time discovery call, and decoded tokens are reused through {@link CachingJwtDecoder}.
+     * <p>
+     * Every asymmetric algorithm is listed; a token's {@code alg} still has to fit the type, and the
+     * declared {@code alg}, of the issuer key it names. That accepts what the issuer's keys can verify,
+     * which is what the auto-configured decoder discovers from the JWKS at startup.
+     */
+    @Bean
+    CachingJwtDecoder jwtDecoder(@Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+                                 CachingJwkSource jwkSource,
+                                 StudentApiProperties properties) {
+        StudentApiProperties.TokenCache tokenCache = properties.security().tokenCache();
+        return new CachingJwtDecoder(issuerDecoder(jwkSource, issuerUri), tokenCache.maxSize(), tokenCache.maxTtl());
+    }
+
+    static NimbusJwtDecoder issuerDecoder(CachingJwkSource jwkSource, String issuerUri) {
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withJwkSource(jwkSource)
+                .jwsAlgorithms(algorithms -> algorithms.addAll(EnumSet.allOf(SignatureAlgorithm.class)))
+                .build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return decoder;
+    }
 
+    @Bean
+    public RealmRoleAuthoritiesConverter realmRoleAuthoritiesConverter() {
+        return new RealmRoleAuthoritiesConverter();
+    }
+
+    @Bean
+    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtAuthenticationConverter jwtConverter = new JwtAuthenticationConverter();
+        jwtConverter.setJwtGrantedAuthoritiesConverter(realmRoleAuthoritiesConverter());
         return jwtConverter;
     }
 }
-
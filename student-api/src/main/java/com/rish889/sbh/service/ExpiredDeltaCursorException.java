@@ -0,0 +1,16 @@
+package com.rish889.sbh.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Changes after the cursor were already purged from the outbox, so some of them would be lost and the
+ * client has to sync from scratch.
+ */
+@ResponseStatus(HttpStatus.GONE)
+public class ExpiredDeltaCursorException extends RuntimeException {
+
+    public ExpiredDeltaCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,119 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Search engine for databases without pg_trgm (H2 in tests). The index is loaded from the table on
+ * first use and then kept current from {@link StudentChangedEvent}s, so rows written behind the
+ * services' back are only picked up by a restart.
+ */
+@Component
+@ConditionalOnProperty(name = "student-api.search.engine", havingValue = "memory")
+public class InMemoryStudentSearch implements StudentSearch {
+
+    private static final int LOAD_CHUNK = 1000;
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparing(hit -> hit.entry().id());
+
+    private final StudentRepository repository;
+    private final double threshold;
+    private final Duration budget;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public InMemoryStudentSearch(StudentRepository repository, StudentApiProperties properties) {
+        this.repository = repository;
+        this.threshold = properties.search().similarityThreshold();
+        this.budget = properties.search().budget();
+    }
+
+    @Override
+    public List<Student> search(String query, long offset, int limit) {
+        load();
+        long deadline = System.nanoTime() + budget.toNanos();
+        Set<String> trigrams = Trigrams.of(query);
+        List<Hit> hits = new ArrayList<>();
+        int scanned = 0;
+        for (Entry entry : entries.values()) {
+            if ((scanned++ & 255) == 0 && System.nanoTime() - deadline > 0) {
+                throw new SearchTimeoutException("Search exceeded its " + budget.toMillis() + "ms budget", null);
+            }
+            boolean prefix = entry.name().startsWith(query) || entry.email().startsWith(query);
+            double similarity = Math.max(Trigrams.wordSimilarity(trigrams, entry.nameTrigrams()),
+                    Trigrams.wordSimilarity(trigrams, entry.emailTrigrams()));
+            if (prefix || similarity >= threshold) {
+                hits.add(new Hit(entry, similarity + (prefix ? 1 : 0)));
+            }
+        }
+        return hits.stream()
+                .sorted(RANKING)
+                .skip(offset)
+                .limit(limit)
+                .map(hit -> hit.entry().student())
+                .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        if (event.type() == StudentChangedEvent.Type.DELETED) {
+            entries.remove(event.id());
+        } else {
+            entries.put(event.id(), Entry.of(event.student()));
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            long after = 0;
+            List<Student> chunk;
+            do {
+                chunk = repository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(LOAD_CHUNK));
+                for (Student student : chunk) {
+                    // events that arrived while loading are newer than the table snapshot
+                    entries.putIfAbsent(student.getId(), Entry.of(student));
+                    after = student.getId();
+                }
+            } while (chunk.size() == LOAD_CHUNK);
+            loaded = true;
+        }
+    }
+
+    private record Entry(Long id, String name, String email, Set<String> nameTrigrams, Set<String> emailTrigrams,
+                         Student student) {
+
+        static Entry of(Student student) {
+            Student copy = new Student(student.getName(), student.getEmail());
+            copy.setId(student.getId());
+            copy.setVersion(student.getVersion());
+            copy.setCreatedAt(student.getCreatedAt());
+            copy.setUpdatedAt(student.getUpdatedAt());
+            String name = student.getName().toLowerCase(Locale.ROOT);
+            String email = student.getEmail().toLowerCase(Locale.ROOT);
+            return new Entry(student.getId(), name, email, Trigrams.of(name), Trigrams.of(email), copy);
+        }
+    }
+
+    private record Hit(Entry entry, double score) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.entity.Student;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.QueryTimeoutException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Ranked search backed by the pg_trgm indexes from {@code V4__student_search_indexes.sql}. The
+ * budget is applied with a transaction-local {@code statement_timeout}, so an expensive query is
+ * cancelled by the server instead of holding a connection. The prefix goes into the SQL as an escaped
+ * literal rather than a bind parameter: only a known prefix lets the planner turn {@code like} into a
+ * range over the {@code text_pattern_ops} indexes, which a generic plan would not.
+ */
+@Component
+@ConditionalOnProperty(name = "student-api.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresStudentSearch implements StudentSearch {
+
+    private static final String SETTINGS = """
+            select set_config('statement_timeout', :timeout, true),
+                   set_config('pg_trgm.word_similarity_threshold', :threshold, true)
+            """;
+
+    private static final String SEARCH = """
+            select s.* from students s
+            where lower(s.name) like $prefix or lower(s.email) like $prefix
+               or :query <% lower(s.name) or :query <% lower(s.email)
+            order by case when lower(s.name) like $prefix or lower(s.email) like $prefix then 1 else 0 end
+                     + greatest(word_similarity(:query, lower(s.name)), word_similarity(:query, lower(s.email))) desc,
+                     s.id
+            offset :offset limit :limit
+            """;
+
+    private final EntityManager entityManager;
+    private final double threshold;
+    private final Duration budget;
+
+    public PostgresStudentSearch(EntityManager entityManager, StudentApiProperties properties) {
+        this.entityManager = entityManager;
+        this.threshold = properties.search().similarityThreshold();
+        this.budget = properties.search().budget();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public List<Student> search(String query, long offset, int limit) {
+        entityManager.createNativeQuery(SETTINGS)
+                .setParameter("timeout", String.valueOf(budget.toMillis()))
+                .setParameter("threshold", String.valueOf(threshold))
+                .getSingleResult();
+        try {
+            return entityManager.createNativeQuery(searchSql(query), Student.class)
+                    .setParameter("query", query)
+                    .setParameter("offset", offset)
+                    .setParameter("limit", limit)
+                    .getResultList();
+        } catch (QueryTimeoutException e) {
+            throw new SearchTimeoutException("Search exceeded its " + budget.toMillis() + "ms budget", e);
+        }
+    }
+
+    static String searchSql(String query) {
+        return SEARCH.replace("$prefix", prefixLiteral(query));
+    }
+
+    // like escapes first, then the quotes of the SQL literal; standard_conforming_strings keeps backslashes as they are
+    private static String prefixLiteral(String query) {
+        String like = query.replace("\0", "")
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "'" + like.replace("'", "''") + "%'";
+    }
+}
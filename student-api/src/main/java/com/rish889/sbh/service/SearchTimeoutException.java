@@ -0,0 +1,12 @@
+package com.rish889.sbh.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SearchTimeoutException extends RuntimeException {
+
+    public SearchTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,24 @@
+package com.rish889.sbh.service;
+
+/**
+ * Outcome of one item of a bulk request.
+ *
+ * @param index  zero-based position of the item in the request body
+ * @param id     id of the affected student, if known
+ * @param status what happened to the item
+ * @param error  why the item failed, only set for {@link Status#FAILED}
+ */
+public record StudentBatchResult(int index, Long id, Status status, String error) {
+
+    public enum Status {
+        CREATED, UPDATED, DELETED, NOT_FOUND, FAILED
+    }
+
+    static StudentBatchResult of(int index, Long id, Status status) {
+        return new StudentBatchResult(index, id, status, null);
+    }
+
+    static StudentBatchResult failed(int index, Long id, String error) {
+        return new StudentBatchResult(index, id, Status.FAILED, error);
+    }
+}
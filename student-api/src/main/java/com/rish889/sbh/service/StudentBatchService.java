@@ -0,0 +1,207 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.rish889.sbh.service.StudentBatchResult.Status.*;
+
+/**
+ * Bulk create/update/delete. Input is consumed in chunks of {@code student-api.batch.chunk-size} items,
+ * each written in one transaction so Hibernate can group the statements into JDBC batches. When a chunk
+ * fails as a whole it is replayed item by item, so one bad row only fails itself.
+ */
+@Service
+@Timed("student.service")
+public class StudentBatchService {
+
+    private final StudentRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache cache;
+    private final ApplicationEventPublisher events;
+    private final int chunkSize;
+
+    public StudentBatchService(StudentRepository repository,
+                               PlatformTransactionManager transactionManager,
+                               CacheManager cacheManager,
+                               ApplicationEventPublisher events,
+                               StudentApiProperties properties) {
+        this.repository = repository;
+        this.events = events;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // evictions are deferred until the chunk commits so readers cannot re-cache the old row
+        this.cache = new TransactionAwareCacheDecorator(cacheManager.getCache(StudentService.CACHE));
+        this.chunkSize = properties.batch().chunkSize();
+    }
+
+    public List<StudentBatchResult> createAll(Iterator<Student> students) {
+        return process(students, this::createChunk);
+    }
+
+    public List<StudentBatchResult> updateAll(Iterator<Student> students) {
+        return process(students, this::updateChunk);
+    }
+
+    public List<StudentBatchResult> deleteAll(Iterator<Long> ids) {
+        return process(ids, this::deleteChunk);
+    }
+
+    private <T> List<StudentBatchResult> process(Iterator<T> items, Function<List<Item<T>>, List<StudentBatchResult>> writer) {
+        List<StudentBatchResult> results = new ArrayList<>();
+        List<Item<T>> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        while (items.hasNext()) {
+            chunk.add(new Item<>(index++, items.next()));
+            if (chunk.size() == chunkSize || !items.hasNext()) {
+                results.addAll(writeChunk(chunk, writer));
+                chunk.clear();
+            }
+        }
+        return results;
+    }
+
+    private <T> List<StudentBatchResult> writeChunk(List<Item<T>> chunk, Function<List<Item<T>>, List<StudentBatchResult>> writer) {
+        try {
+            return transactionTemplate.execute(status -> writer.apply(chunk));
+        } catch (RuntimeException chunkFailure) {
+            if (chunk.size() == 1) {
+                Item<T> item = chunk.getFirst();
+                return List.of(StudentBatchResult.failed(item.index(), idOf(item.value()), rootMessage(chunkFailure)));
+            }
+            List<StudentBatchResult> results = new ArrayList<>(chunk.size());
+            for (Item<T> item : chunk) {
+                results.addAll(writeChunk(List.of(item), writer));
+            }
+            return results;
+        }
+    }
+
+    private List<StudentBatchResult> createChunk(List<Item<Student>> chunk) {
+        List<StudentBatchResult> results = new ArrayList<>(chunk.size());
+        List<Item<Student>> valid = new ArrayList<>(chunk.size());
+        for (Item<Student> item : chunk) {
+            String error = validate(item.value());
+            if (error != null) {
+                results.add(StudentBatchResult.failed(item.index(), null, error));
+            } else {
+                // ids always come from the sequence; a client-supplied id would turn the insert into a merge.
+                // A replay after a rolled-back chunk also drops the version the failed persist stamped, or
+                // Spring Data would take the entity for a detached one and merge a copy of it
+                item.value().setId(null);
+                item.value().setVersion(null);
+                valid.add(item);
+            }
+        }
+        repository.saveAll(valid.stream().map(Item::value).toList());
+        repository.flush();
+        for (Item<Student> item : valid) {
+            results.add(StudentBatchResult.of(item.index(), item.value().getId(), CREATED));
+            events.publishEvent(StudentChangedEvent.created(item.value()));
+        }
+        return results;
+    }
+
+    private List<StudentBatchResult> updateChunk(List<Item<Student>> chunk) {
+        List<Long> ids = chunk.stream().map(item -> item.value().getId()).filter(Objects::nonNull).toList();
+        Map<Long, Student> existing = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+
+        List<StudentBatchResult> results = new ArrayList<>(chunk.size());
+        // only students whose name or email actually changed are evicted and announced
+        Map<Long, Student> changed = new LinkedHashMap<>();
+        for (Item<Student> item : chunk) {
+            Student update = item.value();
+            String error = update.getId() == null ? "id is required" : validate(update);
+            Student target = existing.get(update.getId());
+            if (error != null) {
+                results.add(StudentBatchResult.failed(item.index(), update.getId(), error));
+            } else if (target == null) {
+                results.add(StudentBatchResult.of(item.index(), update.getId(), NOT_FOUND));
+            } else {
+                if (!update.getName().equals(target.getName()) || !update.getEmail().equals(target.getEmail())) {
+                    target.setName(update.getName());
+                    target.setEmail(update.getEmail());
+                    cache.evict(target.getId());
+                    changed.put(target.getId(), target);
+                }
+                results.add(StudentBatchResult.of(item.index(), target.getId(), UPDATED));
+            }
+        }
+        repository.flush();
+        changed.values().forEach(student -> events.publishEvent(StudentChangedEvent.updated(student)));
+        return results;
+    }
+
+    private List<StudentBatchResult> deleteChunk(List<Item<Long>> chunk) {
+        List<Long> ids = chunk.stream().map(Item::value).filter(Objects::nonNull).toList();
+        Set<Long> existing = ids.isEmpty() ? Set.of() : new HashSet<>(repository.findExistingIds(ids));
+        if (!existing.isEmpty()) {
+            repository.deleteByIds(existing);
+            existing.forEach(cache::evict);
+            existing.forEach(id -> events.publishEvent(StudentChangedEvent.deleted(id)));
+        }
+
+        List<StudentBatchResult> results = new ArrayList<>(chunk.size());
+        for (Item<Long> item : chunk) {
+            if (item.value() == null) {
+                results.add(StudentBatchResult.failed(item.index(), null, "id is required"));
+            } else {
+                results.add(StudentBatchResult.of(item.index(), item.value(), existing.contains(item.value()) ? DELETED : NOT_FOUND));
+            }
+        }
+        return results;
+    }
+
+    static String validate(Student student) {
+        if (student.getName() == null || student.getName().isBlank()) {
+            return "name is required";
+        }
+        if (student.getName().length() > 100) {
+            return "name must be at most 100 characters";
+        }
+        if (student.getEmail() == null || student.getEmail().isBlank()) {
+            return "email is required";
+        }
+        if (student.getEmail().length() > 255) {
+            return "email must be at most 255 characters";
+        }
+        return null;
+    }
+
+    private static Long idOf(Object value) {
+        if (value instanceof Student student) {
+            return student.getId();
+        }
+        return value instanceof Long id ? id : null;
+    }
+
+    static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private record Item<T>(int index, T value) {
+    }
+}
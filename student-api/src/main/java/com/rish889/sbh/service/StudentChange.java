@@ -0,0 +1,16 @@
+package com.rish889.sbh.service;
+
+/**
+ * One committed outbox row.
+ *
+ * @param offset position in the change stream, increasing with every write
+ * @param data   the change as pre-serialized JSON, sent as is to every subscriber
+ */
+public record StudentChange(long offset, StudentChangedEvent.Type type, Long studentId, String data) {
+
+    static StudentChange of(long offset, String type, Long studentId, String payload) {
+        String data = "{\"offset\":" + offset + ",\"type\":\"" + type + "\",\"id\":" + studentId
+                + ",\"student\":" + (payload == null ? "null" : payload) + "}";
+        return new StudentChange(offset, StudentChangedEvent.Type.valueOf(type), studentId, data);
+    }
+}
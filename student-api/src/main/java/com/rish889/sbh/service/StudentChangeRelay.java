@@ -0,0 +1,278 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Tails the {@code student_changes} outbox and publishes a gap-free offset up to which subscribers may
+ * read. Offsets are assigned at insert time but become visible at commit, so a lower offset can show up
+ * after a higher one; the relay holds back at such a gap until it is filled or can no longer be. On
+ * PostgreSQL that is once every transaction that was writing when the gap appeared has ended: the
+ * outbox row is inserted after the student row, so the transaction holding a missing offset already had
+ * an xid then, and a rolled back write only holds delivery back until its rollback. No offset is given up
+ * while its write can still commit, so every change is delivered under the offset it was written with.
+ * A gap held longer than {@code gap-timeout} is logged. Other databases expose no transaction status and
+ * the gap is skipped after {@code gap-timeout}; a write committing later keeps its offset and only
+ * reaches readers resuming below it.
+ * <p>
+ * The latest {@code buffer-size} changes are kept in memory, so subscribers near the head do not query
+ * the table; subscribers further behind catch up from it. On startup the head is the newest row at that
+ * moment. The offset up to which rows were purged is kept in {@code student_changes_watermark}, so it
+ * survives restarts and is shared by all instances.
+ */
+@Component
+public class StudentChangeRelay implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentChangeRelay.class);
+
+    private static final String SELECT = "select id, type, student_id, payload from student_changes ";
+    private static final RowMapper<StudentChange> ROW = (rs, rowNum) ->
+            StudentChange.of(rs.getLong("id"), rs.getString("type"), rs.getLong("student_id"), rs.getString("payload"));
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+    private static final String WRITERS = "select xid::text::bigint from pg_snapshot_xip(pg_current_snapshot()) as xid";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StudentApiProperties.Changes properties;
+    private final Clock clock;
+    private final ConcurrentSkipListMap<Long, StudentChange> recent = new ConcurrentSkipListMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition advanced = lock.newCondition();
+
+    private volatile long head;
+    private volatile long purgedThrough;
+    private boolean postgres;
+    // the offset poll is holding back at, null while there is no gap
+    private Gap gap;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public StudentChangeRelay(JdbcTemplate jdbcTemplate, StudentApiProperties properties) {
+        this(jdbcTemplate, properties, Clock.systemUTC());
+    }
+
+    StudentChangeRelay(JdbcTemplate jdbcTemplate, StudentApiProperties properties, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties.changes();
+        this.clock = clock;
+    }
+
+    /**
+     * Highest offset that is safe to deliver: every committed change up to it is readable.
+     */
+    public long head() {
+        return head;
+    }
+
+    /**
+     * Changes up to this offset may have been purged; a subscriber resuming below it has missed data.
+     */
+    public long purgedThrough() {
+        return purgedThrough;
+    }
+
+    /**
+     * Up to {@code max} changes after {@code offset} and not beyond {@link #head()}, in offset order.
+     */
+    public List<StudentChange> read(long offset, int max) {
+        long limit = head;
+        if (offset >= limit) {
+            return List.of();
+        }
+        if (!recent.isEmpty() && offset >= recent.firstKey() - 1) {
+            return recent.subMap(offset, false, limit, true).values().stream().limit(max).toList();
+        }
+        return jdbcTemplate.query(SELECT + "where id > ? and id <= ? order by id limit ?", ROW, offset, limit, max);
+    }
+
+    /**
+     * Waits until {@link #head()} moves past {@code offset}.
+     *
+     * @return whether it did before the timeout
+     */
+    public boolean awaitAfter(long offset, Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            while (head <= offset && remaining > 0) {
+                remaining = advanced.awaitNanos(remaining);
+            }
+            return head > offset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads committed rows past the head and advances it as far as there are no open gaps.
+     */
+    synchronized void poll() {
+        // checked before reading: a write that committed before its transaction was seen to end is read below
+        boolean writersEnded = gap != null && postgres && writersEnded(gap);
+        List<StudentChange> rows;
+        do {
+            rows = jdbcTemplate.query(SELECT + "where id > ? order by id limit ?", ROW, head, properties.batchSize());
+            List<StudentChange> accepted = new ArrayList<>(rows.size());
+            long expected = head + 1;
+            for (StudentChange row : rows) {
+                if (row.offset() > expected) {
+                    if (gap == null || gap.offset != expected) {
+                        gap = openGap(expected);
+                        writersEnded = false;
+                    }
+                    if (!canSkip(gap, writersEnded)) {
+                        break;
+                    }
+                    log.debug("Skipping outbox offsets {} to {}", expected, row.offset() - 1);
+                }
+                gap = null;
+                accepted.add(row);
+                expected = row.offset() + 1;
+            }
+            if (accepted.isEmpty()) {
+                return;
+            }
+            publish(accepted);
+            if (accepted.size() < rows.size()) {
+                return;
+            }
+        } while (rows.size() == properties.batchSize());
+    }
+
+    // taken after the read that found the gap: the write holding it had its xid by then
+    private Gap openGap(long offset) {
+        List<Long> writers = postgres ? jdbcTemplate.queryForList(WRITERS, Long.class) : List.of();
+        return new Gap(offset, writers);
+    }
+
+    private boolean canSkip(Gap gap, boolean writersEnded) {
+        boolean expired = System.nanoTime() - gap.since >= properties.gapTimeout().toNanos();
+        if (!postgres) {
+            return expired;
+        }
+        if (!writersEnded && expired && !gap.reported) {
+            gap.reported = true;
+            log.warn("Outbox offset {} has been held back for over {} by transactions {}",
+                    gap.offset, properties.gapTimeout(), gap.writers);
+        }
+        return writersEnded;
+    }
+
+    private boolean writersEnded(Gap gap) {
+        if (gap.writers.isEmpty()) {
+            return true;
+        }
+        String xids = gap.writers.stream().map(String::valueOf).collect(Collectors.joining(","));
+        Integer running = jdbcTemplate.queryForObject("select count(*) from unnest(array[" + xids + "]::bigint[]) as xid "
+                + "where pg_xact_status(xid::text::xid8) = 'in progress'", Integer.class);
+        return running == 0;
+    }
+
+    private void publish(List<StudentChange> changes) {
+        for (StudentChange change : changes) {
+            recent.put(change.offset(), change);
+        }
+        while (recent.size() > properties.bufferSize()) {
+            recent.pollFirstEntry();
+        }
+        lock.lock();
+        try {
+            head = changes.getLast().offset();
+            advanced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void purge() {
+        Timestamp cutoff = Timestamp.from(clock.instant().minus(properties.retention()));
+        Long through = jdbcTemplate.queryForObject("select max(id) from student_changes where created_at < ?", Long.class, cutoff);
+        if (through != null) {
+            // the watermark first: failing in between only answers 410 a little early
+            jdbcTemplate.update("update student_changes_watermark set purged_through = ? where id = 1 and purged_through < ?",
+                    through, through);
+            jdbcTemplate.update("delete from student_changes where id <= ?", through);
+        }
+        purgedThrough = loadPurgedThrough();
+    }
+
+    private long loadPurgedThrough() {
+        return jdbcTemplate.queryForObject("select purged_through from student_changes_watermark where id = 1", Long.class);
+    }
+
+    @Override
+    public synchronized void start() {
+        postgres = Boolean.TRUE.equals(jdbcTemplate.execute(
+                (ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(PGConnection.class)));
+        purgedThrough = loadPurgedThrough();
+        Long newest = jdbcTemplate.queryForObject("select max(id) from student_changes", Long.class);
+        // an outbox purged empty still continues after the offsets it had
+        head = Math.max(newest == null ? 0 : newest, purgedThrough);
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("student-change-relay").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, 0, properties.pollInterval().toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::purgeQuietly, PURGE_INTERVAL.toMillis(), PURGE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("Could not read the student change outbox", e);
+        }
+    }
+
+    private void purgeQuietly() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            log.warn("Could not purge the student change outbox", e);
+        }
+    }
+
+    private static final class Gap {
+
+        private final long offset;
+        private final long since = System.nanoTime();
+        // xids of the transactions in progress when the gap was found, PostgreSQL only
+        private final List<Long> writers;
+        private boolean reported;
+
+        private Gap(long offset, List<Long> writers) {
+            this.offset = offset;
+            this.writers = writers;
+        }
+    }
+}
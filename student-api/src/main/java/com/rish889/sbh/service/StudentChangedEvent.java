@@ -0,0 +1,28 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.entity.Student;
+
+/**
+ * Published by every write path after a student is created, updated or deleted. Listeners that
+ * must only see committed changes use {@code @TransactionalEventListener}.
+ *
+ * @param student the written state, {@code null} for {@link Type#DELETED}
+ */
+public record StudentChangedEvent(Type type, Long id, Student student) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static StudentChangedEvent created(Student student) {
+        return new StudentChangedEvent(Type.CREATED, student.getId(), student);
+    }
+
+    public static StudentChangedEvent updated(Student student) {
+        return new StudentChangedEvent(Type.UPDATED, student.getId(), student);
+    }
+
+    public static StudentChangedEvent deleted(Long id) {
+        return new StudentChangedEvent(Type.DELETED, id, null);
+    }
+}
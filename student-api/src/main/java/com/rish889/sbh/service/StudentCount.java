@@ -0,0 +1,7 @@
+package com.rish889.sbh.service;
+
+/**
+ * @param count number of students in the table
+ */
+public record StudentCount(long count) {
+}
@@ -0,0 +1,16 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.entity.Student;
+
+import java.util.List;
+
+/**
+ * One page of changes since a delta sync cursor.
+ *
+ * @param changed students created or updated since the cursor, oldest change first
+ * @param deleted ids of students deleted since the cursor
+ * @param next    cursor to pass as {@code since} on the next sync
+ * @param hasMore whether more changes are waiting; when {@code false} the client is caught up
+ */
+public record StudentDelta(List<Student> changed, List<Long> deleted, String next, boolean hasMore) {
+}
@@ -0,0 +1,47 @@
+package com.rish889.sbh.service;
+
+/**
+ * Position in delta sync: the outbox offset up to which the client has every change and, while a full
+ * sync still walks the table, the last student id it returned. Clients only see it as the opaque
+ * {@code next} token.
+ *
+ * @param offset         the client has all changes up to this outbox offset, or will once the scan is done
+ * @param scannedThrough last id returned by a full sync's table scan, {@code null} once it is done
+ */
+record StudentDeltaCursor(long offset, Long scannedThrough) {
+
+    static StudentDeltaCursor fullSync(long offset) {
+        return new StudentDeltaCursor(offset, 0L);
+    }
+
+    static StudentDeltaCursor after(long offset) {
+        return new StudentDeltaCursor(offset, null);
+    }
+
+    boolean scanning() {
+        return scannedThrough != null;
+    }
+
+    /**
+     * @throws IllegalArgumentException     when the token was not produced by {@link #toString()}
+     * @throws ExpiredDeltaCursorException when the token is a timestamp cursor of an earlier version
+     */
+    static StudentDeltaCursor parse(String token) {
+        if (token.matches("\\d+-\\d+")) {
+            throw new ExpiredDeltaCursorException("Cursor is from an earlier version, sync again without since");
+        }
+        int separator = token.indexOf(':');
+        try {
+            return separator < 0
+                    ? after(Long.parseLong(token))
+                    : new StudentDeltaCursor(Long.parseLong(token.substring(0, separator)), Long.parseLong(token.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid delta cursor: " + token);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return scanning() ? offset + ":" + scannedThrough : Long.toString(offset);
+    }
+}
@@ -0,0 +1,93 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.config.StudentCommonProperties;
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Incremental sync from the {@code student_changes} outbox: the cursor is an outbox offset, and only
+ * offsets up to {@link StudentChangeRelay#head()}, below which every write has committed, are read. The
+ * offsets are assigned by the database, so unlike a timestamp stamped by the application a write that
+ * commits late or on a host with a skewed clock cannot end up behind a cursor that already moved on.
+ * A sync without cursor first walks the table by id, then continues with the changes made since it started.
+ */
+@Service
+@Timed("student.service")
+public class StudentDeltaService {
+
+    private final StudentRepository repository;
+    private final StudentChangeRelay relay;
+    private final StudentCommonProperties.Pagination pagination;
+
+    public StudentDeltaService(StudentRepository repository, StudentChangeRelay relay, StudentApiProperties properties) {
+        this.repository = repository;
+        this.relay = relay;
+        this.pagination = properties.pagination();
+    }
+
+    /**
+     * @param since cursor from a previous sync's {@code next}, or {@code null} to start from the beginning
+     * @param limit most students or outbox changes read for the page; changes of the same student collapse
+     * @throws IllegalArgumentException     when {@code since} is not a cursor
+     * @throws ExpiredDeltaCursorException when changes after {@code since} were already purged from the outbox
+     */
+    // read-write on purpose: the students must be at least as new as the outbox offsets already read
+    @Transactional
+    public StudentDelta getDelta(String since, Integer limit) {
+        StudentDeltaCursor cursor = since == null ? StudentDeltaCursor.fullSync(relay.head()) : StudentDeltaCursor.parse(since);
+        if (cursor.offset() < relay.purgedThrough()) {
+            throw new ExpiredDeltaCursorException("Changes after " + cursor.offset() + " are no longer retained, sync again without since");
+        }
+        int size = limit == null ? pagination.defaultLimit() : Math.clamp(limit, 1, pagination.maxLimit());
+        return cursor.scanning() ? scan(cursor, size) : changesAfter(cursor.offset(), size);
+    }
+
+    // writes during the scan may show up in it and again in the changes after its offset; applying twice is harmless
+    private StudentDelta scan(StudentDeltaCursor cursor, int size) {
+        List<Student> students = repository.findByIdGreaterThanOrderByIdAsc(cursor.scannedThrough(), Limit.of(size + 1));
+        if (students.size() > size) {
+            List<Student> page = students.subList(0, size);
+            StudentDeltaCursor next = new StudentDeltaCursor(cursor.offset(), page.getLast().getId());
+            return new StudentDelta(page, List.of(), next.toString(), true);
+        }
+        return new StudentDelta(students, List.of(), StudentDeltaCursor.after(cursor.offset()).toString(),
+                relay.head() > cursor.offset());
+    }
+
+    // one past the page so hasMore needs no extra query
+    private StudentDelta changesAfter(long offset, int size) {
+        List<StudentChange> changes = relay.read(offset, size + 1);
+        List<StudentChange> page = changes.subList(0, Math.min(size, changes.size()));
+        // a student changed several times is reported once, in the order of its last change
+        SequencedSet<Long> ids = new LinkedHashSet<>();
+        page.forEach(change -> ids.addLast(change.studentId()));
+        Map<Long, Student> current = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+
+        List<Student> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (Long id : ids) {
+            Student student = current.get(id);
+            if (student != null) {
+                changed.add(student);
+            } else {
+                deleted.add(id);
+            }
+        }
+        long next = page.isEmpty() ? offset : page.getLast().offset();
+        return new StudentDelta(changed, deleted, StudentDeltaCursor.after(next).toString(), changes.size() > size);
+    }
+}
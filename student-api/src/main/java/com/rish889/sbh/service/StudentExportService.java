@@ -0,0 +1,257 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.entity.Student;
+import io.micrometer.core.annotation.Timed;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyOut;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+
+/**
+ * Full-table export in id order, written straight to an output stream. On PostgreSQL CSV is produced by
+ * {@code COPY ... TO STDOUT}, the same path {@code pg_dump} uses, so rows never pass through JDBC result
+ * sets. NDJSON, and CSV on other databases, is read through a forward-only cursor. Either way memory use
+ * does not depend on the table size. {@link #exportParallel} gives up the order to read the partitions of
+ * the table concurrently.
+ */
+@Service
+@Timed("student.service")
+public class StudentExportService {
+
+    private static final String CSV_HEADER = "id,name,email,version,created_at,updated_at";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SELECT = """
+            select id, name, email, version, created_at, updated_at from students where id > ? order by id
+            """;
+
+    // timestamps rendered as ISO-8601 UTC, the way the JSON API and the cursor path write them
+    private static final String COPY_COLUMNS = """
+            id, name, email, version,
+            to_char(created_at at time zone 'UTC', 'YYYY-MM-DD"T"HH24:MI:SS.US"Z"') as created_at,
+            to_char(updated_at at time zone 'UTC', 'YYYY-MM-DD"T"HH24:MI:SS.US"Z"') as updated_at
+            """;
+
+    private static final String COPY = "copy (select " + COPY_COLUMNS + " from students where id > %d order by id)"
+            + " to stdout (format csv%s)";
+
+    private static final String COPY_PARTITION = "copy (select " + COPY_COLUMNS + " from %s) to stdout (format csv)";
+
+    private static final String SELECT_PARTITION = "select id, name, email, version, created_at, updated_at from %s";
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StudentPartitions partitions;
+    private final ObjectWriter studentWriter;
+
+    public StudentExportService(JdbcTemplate jdbcTemplate, StudentPartitions partitions, JsonMapper jsonMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitions = partitions;
+        this.studentWriter = jsonMapper.writerFor(Student.class);
+    }
+
+    /**
+     * Writes every student with id greater than {@code after}. A CSV export from the start begins with a
+     * header row; a resumed one does not, so it can be appended to the interrupted file.
+     *
+     * @param after last id the client already has, or {@code null} to export everything
+     */
+    @Transactional(readOnly = true)
+    public void export(StudentFileFormat format, Long after, OutputStream out) {
+        long from = after == null ? 0L : after;
+        boolean header = after == null;
+        if (format == StudentFileFormat.NDJSON) {
+            exportNdjson(from, out);
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                try {
+                    connection.unwrap(PGConnection.class).getCopyAPI()
+                            .copyOut(COPY.formatted(from, header ? ", header" : ""), out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                exportCsv(from, header, out);
+            }
+            return null;
+        });
+    }
+
+    private void exportCsv(long from, boolean header, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            if (header) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            query(from, row -> {
+                try {
+                    writer.write(csvRow(row));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void exportNdjson(long from, OutputStream out) {
+        OutputStream buffered = new BufferedOutputStream(out);
+        try {
+            query(from, row -> {
+                try {
+                    buffered.write(ndjsonRow(row));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            buffered.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes every student like an {@link #export} from the start, but reads the partitions in parallel,
+     * all in one snapshot. Rows come in no particular order, so an interrupted file cannot be resumed
+     * with {@code after}.
+     */
+    public void exportParallel(StudentFileFormat format, OutputStream out) {
+        if (format == StudentFileFormat.CSV) {
+            try {
+                out.write((CSV_HEADER + '\n').getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        partitions.scan((connection, partition) -> {
+            exportPartition(connection, partition, format, out);
+            return null;
+        });
+    }
+
+    private void exportPartition(Connection connection, String partition, StudentFileFormat format, OutputStream out)
+            throws SQLException {
+        Chunk chunk = new Chunk(out);
+        if (format == StudentFileFormat.CSV && connection.isWrapperFor(PGConnection.class)) {
+            // one row per read, so rows are never split between chunks
+            CopyOut copy = connection.unwrap(PGConnection.class).getCopyAPI().copyOut(COPY_PARTITION.formatted(partition));
+            byte[] row;
+            while ((row = copy.readFromCopy()) != null) {
+                chunk.add(row);
+            }
+        } else {
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_PARTITION.formatted(partition),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(FETCH_SIZE);
+                try (ResultSet row = statement.executeQuery()) {
+                    while (row.next()) {
+                        chunk.add(format == StudentFileFormat.CSV
+                                ? csvRow(row).getBytes(StandardCharsets.UTF_8)
+                                : ndjsonRow(row));
+                    }
+                }
+            }
+        }
+        chunk.flush();
+    }
+
+    private static String csvRow(ResultSet row) throws SQLException {
+        return row.getLong("id") + "," + csv(row.getString("name")) + "," + csv(row.getString("email")) + ","
+                + row.getLong("version") + ","
+                + row.getObject("created_at", OffsetDateTime.class).toInstant() + ","
+                + row.getObject("updated_at", OffsetDateTime.class).toInstant() + "\n";
+    }
+
+    private byte[] ndjsonRow(ResultSet row) throws SQLException {
+        Student student = new Student(row.getString("name"), row.getString("email"));
+        student.setId(row.getLong("id"));
+        student.setVersion(row.getLong("version"));
+        student.setCreatedAt(row.getObject("created_at", OffsetDateTime.class).toInstant());
+        student.setUpdatedAt(row.getObject("updated_at", OffsetDateTime.class).toInstant());
+        byte[] json = studentWriter.writeValueAsBytes(student);
+        byte[] line = Arrays.copyOf(json, json.length + 1);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    // forward-only and fetched FETCH_SIZE rows at a time; PostgreSQL only honours the fetch size inside a transaction
+    private void query(long from, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setLong(1, from);
+            return statement;
+        }, handler);
+    }
+
+    // quoted only when needed, like COPY's CSV output
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Rows of one partition, handed to the shared stream a chunk at a time so workers rarely wait on each
+     * other and never interleave within a row.
+     */
+    private static final class Chunk {
+
+        private final OutputStream out;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(CHUNK_SIZE);
+
+        private Chunk(OutputStream out) {
+            this.out = out;
+        }
+
+        private void add(byte[] row) {
+            buffer.writeBytes(row);
+            if (buffer.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (buffer.size() == 0) {
+                return;
+            }
+            synchronized (out) {
+                try {
+                    buffer.writeTo(out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            buffer.reset();
+        }
+    }
+}
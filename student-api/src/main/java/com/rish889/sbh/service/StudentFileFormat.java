@@ -0,0 +1,18 @@
+package com.rish889.sbh.service;
+
+/**
+ * Line-oriented formats read by {@link StudentImportService} and written by {@link StudentExportService}.
+ */
+public enum StudentFileFormat {
+
+    /**
+     * Comma separated with a header row; imports need at least the {@code name} and {@code email} columns.
+     * Fields may be quoted; a quoted field cannot span lines.
+     */
+    CSV,
+
+    /**
+     * One student JSON object per line.
+     */
+    NDJSON
+}
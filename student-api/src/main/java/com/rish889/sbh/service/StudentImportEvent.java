@@ -0,0 +1,15 @@
+package com.rish889.sbh.service;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+/**
+ * What an import reports while it runs, serialized with a {@code type} of {@code rejected} or {@code summary}.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = StudentImportRejection.class, name = "rejected"),
+        @JsonSubTypes.Type(value = StudentImportSummary.class, name = "summary")
+})
+public sealed interface StudentImportEvent permits StudentImportRejection, StudentImportSummary {
+}
@@ -0,0 +1,11 @@
+package com.rish889.sbh.service;
+
+/**
+ * A row that was not imported, with the original line so it can be fixed and imported again.
+ *
+ * @param line    one-based line number in the input
+ * @param error   why the row was rejected
+ * @param content the line as it was read
+ */
+public record StudentImportRejection(long line, String error, String content) implements StudentImportEvent {
+}
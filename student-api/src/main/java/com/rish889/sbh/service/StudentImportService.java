@@ -0,0 +1,328 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Roster import for files too large for the batch endpoints. Input is read one line at a time and
+ * validated; valid rows are collected into chunks of {@code student-api.bulk-import.chunk-size}, each
+ * loaded with {@code COPY} and merged by email in its own transaction. Memory stays bounded by one chunk
+ * whatever the file size. Bad rows are reported as {@link StudentImportRejection}s, never abort the import:
+ * a chunk the database refuses as a whole is replayed row by row, so only the rows it still refuses are
+ * rejected.
+ */
+@Service
+@Timed("student.service")
+public class StudentImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentImportService.class);
+
+    private final StudentRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache cache;
+    private final ApplicationEventPublisher events;
+    private final JsonMapper jsonMapper;
+    private final int chunkSize;
+
+    public StudentImportService(StudentRepository repository,
+                                PlatformTransactionManager transactionManager,
+                                CacheManager cacheManager,
+                                ApplicationEventPublisher events,
+                                JsonMapper jsonMapper,
+                                StudentApiProperties properties) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cache = new TransactionAwareCacheDecorator(cacheManager.getCache(StudentService.CACHE));
+        this.events = events;
+        this.jsonMapper = jsonMapper;
+        this.chunkSize = properties.bulkImport().chunkSize();
+    }
+
+    /**
+     * @param listener receives every rejected row and a summary after each committed chunk
+     * @return the final summary
+     * @throws IllegalArgumentException when a CSV header lacks the {@code name} or {@code email} column
+     */
+    public StudentImportSummary importStudents(InputStream input, StudentFileFormat format,
+                                               Consumer<StudentImportEvent> listener) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        RowParser parser = format == StudentFileFormat.CSV ? new CsvRowParser() : new JsonRowParser(jsonMapper.readerFor(Student.class));
+        Totals totals = new Totals();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        Set<String> emails = new HashSet<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            totals.lines++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (parser.needsHeader()) {
+                parser.header(stripByteOrderMark(line));
+                continue;
+            }
+            Student student;
+            try {
+                student = parser.parse(totals.lines == 1 ? stripByteOrderMark(line) : line);
+            } catch (IllegalArgumentException | JacksonException e) {
+                reject(totals, new Row(totals.lines, line, null), e.getMessage(), listener);
+                continue;
+            }
+            String error = StudentBatchService.validate(student);
+            if (error != null) {
+                reject(totals, new Row(totals.lines, line, student), error, listener);
+                continue;
+            }
+            // one merge cannot touch a row twice: a repeated email starts a new chunk, so the later row wins
+            if (!emails.add(student.getEmail()) || chunk.size() == chunkSize) {
+                write(chunk, totals, listener);
+                emails.clear();
+                emails.add(student.getEmail());
+            }
+            chunk.add(new Row(totals.lines, line, student));
+        }
+        write(chunk, totals, listener);
+        StudentImportSummary summary = totals.summary(true);
+        listener.accept(summary);
+        return summary;
+    }
+
+    /**
+     * Command line variant: imports {@code file} (CSV unless it ends in {@code .ndjson} or {@code .jsonl}),
+     * logs progress, and writes rejected rows as NDJSON to {@code <file>.rejected.ndjson}.
+     */
+    public StudentImportSummary importFile(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        StudentFileFormat format = name.endsWith(".ndjson") || name.endsWith(".jsonl")
+                ? StudentFileFormat.NDJSON : StudentFileFormat.CSV;
+        Path deadLetters = file.resolveSibling(file.getFileName() + ".rejected.ndjson");
+        ObjectWriter writer = jsonMapper.writerFor(StudentImportEvent.class);
+        try (InputStream input = Files.newInputStream(file); DeadLetterFile rejected = new DeadLetterFile(deadLetters)) {
+            StudentImportSummary summary = importStudents(input, format, event -> {
+                switch (event) {
+                    case StudentImportRejection rejection -> rejected.write(writer.writeValueAsString(rejection));
+                    case StudentImportSummary progress -> log.info("Import of {}: {}", file, progress);
+                }
+            });
+            if (summary.rejected() > 0) {
+                log.warn("{} rows of {} were rejected, see {}", summary.rejected(), file, deadLetters);
+            }
+            return summary;
+        }
+    }
+
+    private void write(List<Row> chunk, Totals totals, Consumer<StudentImportEvent> listener) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        merge(chunk, totals, listener);
+        chunk.clear();
+        listener.accept(totals.summary(false));
+    }
+
+    private void merge(List<Row> rows, Totals totals, Consumer<StudentImportEvent> listener) {
+        List<Student> changed;
+        try {
+            changed = transactionTemplate.execute(status -> {
+                List<Student> merged = repository.copyUpsert(rows.stream().map(Row::student).toList());
+                for (Student row : merged) {
+                    if (row.getVersion() == 0) {
+                        events.publishEvent(StudentChangedEvent.created(row));
+                    } else {
+                        cache.evict(row.getId());
+                        events.publishEvent(StudentChangedEvent.updated(row));
+                    }
+                }
+                return merged;
+            });
+        } catch (RuntimeException chunkFailure) {
+            if (rows.size() == 1) {
+                reject(totals, rows.getFirst(), StudentBatchService.rootMessage(chunkFailure), listener);
+            } else {
+                rows.forEach(row -> merge(List.of(row), totals, listener));
+            }
+            return;
+        }
+        long created = changed.stream().filter(row -> row.getVersion() == 0).count();
+        totals.created += created;
+        totals.updated += changed.size() - created;
+        totals.unchanged += rows.size() - changed.size();
+    }
+
+    private static void reject(Totals totals, Row row, String error, Consumer<StudentImportEvent> listener) {
+        totals.rejected++;
+        listener.accept(new StudentImportRejection(row.line(), error, row.content()));
+    }
+
+    private static String stripByteOrderMark(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    /**
+     * @param student {@code null} when the line could not be parsed
+     */
+    private record Row(long line, String content, Student student) {
+    }
+
+    private static final class Totals {
+
+        private long lines;
+        private long created;
+        private long updated;
+        private long unchanged;
+        private long rejected;
+
+        private StudentImportSummary summary(boolean done) {
+            return new StudentImportSummary(lines, created, updated, unchanged, rejected, done);
+        }
+    }
+
+    private interface RowParser {
+
+        default boolean needsHeader() {
+            return false;
+        }
+
+        default void header(String line) {
+        }
+
+        /**
+         * @throws IllegalArgumentException when the line is malformed
+         */
+        Student parse(String line);
+    }
+
+    private record JsonRowParser(ObjectReader reader) implements RowParser {
+
+        @Override
+        public Student parse(String line) {
+            return reader.readValue(line);
+        }
+    }
+
+    private static final class CsvRowParser implements RowParser {
+
+        private int nameColumn = -1;
+        private int emailColumn = -1;
+
+        @Override
+        public boolean needsHeader() {
+            return nameColumn < 0;
+        }
+
+        @Override
+        public void header(String line) {
+            List<String> columns = fields(line.toLowerCase(Locale.ROOT));
+            if (!columns.contains("name") || !columns.contains("email")) {
+                throw new IllegalArgumentException("CSV header must name the name and email columns");
+            }
+            nameColumn = columns.indexOf("name");
+            emailColumn = columns.indexOf("email");
+        }
+
+        @Override
+        public Student parse(String line) {
+            List<String> fields = fields(line);
+            if (fields.size() <= Math.max(nameColumn, emailColumn)) {
+                throw new IllegalArgumentException("expected at least " + (Math.max(nameColumn, emailColumn) + 1) + " columns");
+            }
+            return new Student(emptyToNull(fields.get(nameColumn)), emptyToNull(fields.get(emailColumn)));
+        }
+
+        // RFC 4180 fields, without line breaks inside quotes
+        private static List<String> fields(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString().strip());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("unterminated quoted field");
+            }
+            fields.add(field.toString().strip());
+            return fields;
+        }
+
+        private static String emptyToNull(String value) {
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    // created on the first rejection, so a clean import leaves no file behind
+    private static final class DeadLetterFile implements AutoCloseable {
+
+        private final Path path;
+        private Writer writer;
+
+        private DeadLetterFile(Path path) {
+            this.path = path;
+        }
+
+        private void write(String line) {
+            try {
+                if (writer == null) {
+                    writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+                }
+                writer.write(line);
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+}
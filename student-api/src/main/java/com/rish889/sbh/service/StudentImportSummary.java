@@ -0,0 +1,15 @@
+package com.rish889.sbh.service;
+
+/**
+ * Running totals of an import, reported after every committed chunk.
+ *
+ * @param lines     input lines read so far
+ * @param created   students inserted
+ * @param updated   existing students (matched by email) whose name changed
+ * @param unchanged existing students that already had the same name
+ * @param rejected  rows that failed to parse or validate
+ * @param done      whether the whole input has been read and committed
+ */
+public record StudentImportSummary(long lines, long created, long updated, long unchanged, long rejected,
+                                   boolean done) implements StudentImportEvent {
+}
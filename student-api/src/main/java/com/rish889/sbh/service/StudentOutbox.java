@@ -0,0 +1,65 @@
+package com.rish889.sbh.service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes every {@link StudentChangedEvent} to the {@code student_changes} outbox in the transaction
+ * that produced it. Rows are collected per transaction and inserted as one JDBC batch just before
+ * commit, so a bulk chunk costs one extra round trip, not one per student.
+ */
+@Component
+public class StudentOutbox {
+
+    private static final String INSERT = "insert into student_changes (student_id, type, payload) values (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+
+    public StudentOutbox(JdbcTemplate jdbcTemplate, JsonMapper jsonMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @EventListener
+    @SuppressWarnings("unchecked")
+    public void record(StudentChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(List.of(event));
+            return;
+        }
+        List<StudentChangedEvent> pending = (List<StudentChangedEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<StudentChangedEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(StudentOutbox.this);
+                }
+            });
+            pending = events;
+        }
+        pending.add(event);
+    }
+
+    private void insert(List<StudentChangedEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT, events, events.size(), (statement, event) -> {
+            statement.setLong(1, event.id());
+            statement.setString(2, event.type().name());
+            statement.setString(3, event.student() == null ? null : jsonMapper.writeValueAsString(event.student()));
+        });
+    }
+}
@@ -0,0 +1,230 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a task once per partition of {@code students}, several partitions at a time. On PostgreSQL the
+ * table is hash partitioned by id; each worker reads its partitions on a connection of its own, and all
+ * of them import the snapshot a leader transaction exported, the way {@code pg_dump --jobs} does, so the
+ * partitions add up to one consistent table. Elsewhere the task runs once, on {@code students} itself.
+ * <p>
+ * A parallel scan holds up to {@code partitions.parallelism} + 1 pool connections, all to the primary, and
+ * parallel scans together hold at most half the pool, which must have room for at least one of them. A scan
+ * that finds no room for its workers reads the partitions one after another on its leader's connection, in
+ * the same snapshot, instead of queueing for connections that requests need. Called inside a transaction it
+ * reads them one after another on that transaction's connection, the only one that sees its writes.
+ */
+@Component
+public class StudentPartitions implements MeterBinder {
+
+    static final String TABLE = "students";
+
+    // HikariCP's maximum-pool-size when the pool is not a HikariDataSource bean
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private static final String LEAVES = """
+            select relid::text from pg_partition_tree('students') where isleaf order by relid::text
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int parallelism;
+    private final Semaphore parallelScans;
+    private final LongAdder sequentialScans = new LongAdder();
+
+    /**
+     * @param pool the primary's pool, which sizes how many scans may run in parallel
+     */
+    public StudentPartitions(JdbcTemplate jdbcTemplate, StudentApiProperties properties,
+                             ObjectProvider<HikariDataSource> pool) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.parallelism = properties.partitions().parallelism();
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("partitions.parallelism must be at least 1");
+        }
+        HikariDataSource primary = pool.getIfUnique();
+        int poolSize = primary != null ? primary.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+        int scans = poolSize / 2 / (parallelism + 1);
+        if (scans < 1) {
+            throw new IllegalArgumentException("partitions.parallelism " + parallelism + " needs a pool of at least "
+                    + 2 * (parallelism + 1) + " connections for one parallel scan, the pool has " + poolSize);
+        }
+        this.parallelScans = new Semaphore(scans);
+    }
+
+    /**
+     * The tables holding the rows of {@code students}: its leaf partitions, or the table itself when it is
+     * not partitioned.
+     */
+    public List<String> names() {
+        return jdbcTemplate.execute((ConnectionCallback<List<String>>) StudentPartitions::leaves);
+    }
+
+    /**
+     * @return each partition's result, in the order of {@link #names()}
+     */
+    public <T> List<T> scan(PartitionTask<T> task) {
+        return jdbcTemplate.execute((ConnectionCallback<List<T>>) leader -> {
+            List<String> partitions = leaves(leader);
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                return scanSequentially(leader, partitions, task);
+            }
+            // in a transaction even when alone, PostgreSQL only honours a fetch size inside one
+            int isolation = begin(leader);
+            try {
+                if (partitions.size() == 1) {
+                    return scanSequentially(leader, partitions, task);
+                }
+                if (!parallelScans.tryAcquire()) {
+                    sequentialScans.increment();
+                    return scanSequentially(leader, partitions, task);
+                }
+                try {
+                    // the exported snapshot can be imported as long as the leader's transaction stays open
+                    String snapshot;
+                    try (Statement statement = leader.createStatement();
+                         ResultSet result = statement.executeQuery("select pg_export_snapshot()")) {
+                        result.next();
+                        snapshot = result.getString(1);
+                    }
+                    return scan(partitions, snapshot, task);
+                } finally {
+                    parallelScans.release();
+                }
+            } finally {
+                end(leader, isolation);
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("student.partitions.sequential.scans", sequentialScans, LongAdder::sum)
+                .register(registry);
+    }
+
+    private static <T> List<T> scanSequentially(Connection connection, List<String> partitions, PartitionTask<T> task)
+            throws SQLException {
+        List<T> results = new ArrayList<>(partitions.size());
+        for (String partition : partitions) {
+            results.add(task.run(connection, partition));
+        }
+        return results;
+    }
+
+    private <T> List<T> scan(List<String> partitions, String snapshot, PartitionTask<T> task) throws SQLException {
+        Object[] results = new Object[partitions.size()];
+        ConcurrentLinkedQueue<Integer> pending = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < partitions.size(); i++) {
+            pending.add(i);
+        }
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<?>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < Math.min(parallelism, partitions.size()); i++) {
+                workers.add(executor.submit(() -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                    int isolation = begin(connection);
+                    try {
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("set transaction snapshot '" + snapshot + "'");
+                        }
+                        Integer next;
+                        while (!failed.get() && (next = pending.poll()) != null) {
+                            results[next] = task.run(connection, partitions.get(next));
+                        }
+                        return null;
+                    } catch (RuntimeException | SQLException e) {
+                        failed.set(true);
+                        throw e;
+                    } finally {
+                        end(connection, isolation);
+                    }
+                })));
+            }
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while scanning partitions", e);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        List<T> list = (List<T>) Arrays.asList(results);
+        return list;
+    }
+
+    private static List<String> leaves(Connection connection) throws SQLException {
+        if (!connection.isWrapperFor(PGConnection.class)) {
+            return List.of(TABLE);
+        }
+        List<String> leaves = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(LEAVES)) {
+            while (result.next()) {
+                leaves.add(result.getString(1));
+            }
+        }
+        // pg_partition_tree has no rows for a table that is not partitioned
+        return leaves.isEmpty() ? List.of(TABLE) : leaves;
+    }
+
+    /**
+     * @return the isolation level to restore once the transaction ended
+     */
+    private static int begin(Connection connection) throws SQLException {
+        int isolation = connection.getTransactionIsolation();
+        connection.setAutoCommit(false);
+        connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        connection.setReadOnly(true);
+        return isolation;
+    }
+
+    // only read, so ending the transaction by rolling back loses nothing
+    private static void end(Connection connection, int isolation) throws SQLException {
+        connection.rollback();
+        connection.setReadOnly(false);
+        connection.setTransactionIsolation(isolation);
+        connection.setAutoCommit(true);
+    }
+
+    /**
+     * Work on one partition, given as a table name that may be used in SQL as is.
+     */
+    @FunctionalInterface
+    public interface PartitionTask<T> {
+
+        T run(Connection connection, String partition) throws SQLException;
+    }
+}
@@ -0,0 +1,7 @@
+package com.rish889.sbh.service;
+
+/**
+ * Partial update of a student; {@code null} fields are left unchanged.
+ */
+public record StudentPatch(String name, String email) {
+}
@@ -0,0 +1,146 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.datasource.ReadYourWrites;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single-flight for page reads: while a query for a page is running, callers asking for the same one wait
+ * for its result instead of sending their own. A herd of requests after a cache flush costs one query per
+ * page. Single students need none of this, the {@code students} cache loads each key once
+ * ({@code @Cacheable(sync = true)}). Waiters get their own copy of the result, the leader's entities
+ * belong to its persistence context.
+ * <p>
+ * A caller waits at most {@code single-flight.max-wait} and then fails with 503 rather than adding another
+ * query to a database that is already too slow; the flight stays, and callers arriving later wait for it
+ * too. A write committed on this node ends every flight: callers arriving after it start a new query
+ * instead of sharing one that may have read the row before the write. A caller inside a read-write
+ * transaction always queries alone, it may see writes of its own that no one else can.
+ */
+@Component
+public class StudentReadCoalescer implements MeterBinder {
+
+    private final boolean enabled;
+    private final Duration maxWait;
+    private final Flights<PageKey, Object> pages = new Flights<>("page");
+
+    public StudentReadCoalescer(StudentApiProperties properties) {
+        StudentApiProperties.SingleFlight singleFlight = properties.singleFlight();
+        this.enabled = singleFlight.enabled();
+        this.maxWait = singleFlight.maxWait();
+    }
+
+    /**
+     * @param after cursor of the page, {@code null} for the unpaginated list
+     * @param size  rows on the page, {@code null} for the unpaginated list
+     * @param copy  detaches a copy of the loaded page for a waiter
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T page(Long after, Integer size, Supplier<T> loader, UnaryOperator<T> copy) {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.get();
+        }
+        // a caller pinned to the primary must not be handed a page read from a lagging replica
+        return (T) pages.run(new PageKey(after, size, ReadYourWrites.isPinned()), (Supplier<Object>) loader,
+                (UnaryOperator<Object>) copy, maxWait);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(StudentChangedEvent event) {
+        pages.forgetAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        pages.bindTo(registry);
+    }
+
+    private static final class Flights<K, V> {
+
+        private final String query;
+        private final ConcurrentHashMap<K, CompletableFuture<V>> running = new ConcurrentHashMap<>();
+        private final LongAdder led = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+
+        private Flights(String query) {
+            this.query = query;
+        }
+
+        private V run(K key, Supplier<V> loader, UnaryOperator<V> copy, Duration maxWait) {
+            CompletableFuture<V> flight = new CompletableFuture<>();
+            CompletableFuture<V> leader = running.putIfAbsent(key, flight);
+            if (leader == null) {
+                led.increment();
+                try {
+                    V value = loader.get();
+                    flight.complete(value);
+                    return value;
+                } catch (RuntimeException | Error e) {
+                    flight.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    running.remove(key, flight);
+                }
+            }
+            try {
+                V value = leader.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+                coalesced.increment();
+                return copy.apply(value);
+            } catch (TimeoutException e) {
+                timedOut.increment();
+                throw new ReadCoalescingTimeoutException("A concurrent " + query + " query took longer than " + maxWait);
+            } catch (ExecutionException e) {
+                coalesced.increment();
+                // the leader's failure is every waiter's answer
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw (Error) e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a concurrent " + query + " query", e);
+            }
+        }
+
+        private void forgetAll() {
+            running.clear();
+        }
+
+        private void bindTo(MeterRegistry registry) {
+            bind(registry, "leader", led);
+            bind(registry, "coalesced", coalesced);
+            bind(registry, "timeout", timedOut);
+            Gauge.builder("student.singleflight.in.flight", running, ConcurrentHashMap::size)
+                    .tag("query", query)
+                    .register(registry);
+        }
+
+        private void bind(MeterRegistry registry, String outcome, LongAdder counter) {
+            FunctionCounter.builder("student.singleflight.requests", counter, LongAdder::sum)
+                    .tag("query", query)
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+    }
+
+    private record PageKey(Long after, Integer size, boolean primary) {
+    }
+}
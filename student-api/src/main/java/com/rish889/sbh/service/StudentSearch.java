@@ -0,0 +1,18 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.entity.Student;
+
+import java.util.List;
+
+/**
+ * Ranked prefix and fuzzy lookup over student name and email. Prefix matches rank above fuzzy ones,
+ * ties are broken by trigram word similarity and then by id.
+ */
+public interface StudentSearch {
+
+    /**
+     * @param query lower-cased, stripped search text
+     * @throws SearchTimeoutException when the search does not finish within the configured budget
+     */
+    List<Student> search(String query, long offset, int limit);
+}
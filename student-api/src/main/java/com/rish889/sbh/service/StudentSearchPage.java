@@ -0,0 +1,8 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.entity.Student;
+
+import java.util.List;
+
+public record StudentSearchPage(List<Student> items, boolean hasNext) {
+}
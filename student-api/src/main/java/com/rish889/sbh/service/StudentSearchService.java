@@ -0,0 +1,42 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.entity.Student;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+
+@Service
+@Timed("student.service")
+public class StudentSearchService {
+
+    private final StudentSearch search;
+    private final StudentApiProperties.Search properties;
+
+    public StudentSearchService(StudentSearch search, StudentApiProperties properties) {
+        this.search = search;
+        this.properties = properties.search();
+    }
+
+    /**
+     * Returns one page of ranked matches. Results past {@code max-results} are never served, so a
+     * client cannot force the database to rank and skip an unbounded number of rows.
+     */
+    public StudentSearchPage search(String query, int page, Integer size) {
+        int pageSize = pageSize(size);
+        long offset = (long) Math.max(page, 0) * pageSize;
+        if (offset >= properties.maxResults()) {
+            return new StudentSearchPage(List.of(), false);
+        }
+        int limit = (int) Math.min(pageSize, properties.maxResults() - offset);
+        List<Student> rows = search.search(query.strip().toLowerCase(Locale.ROOT), offset, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        return new StudentSearchPage(hasNext ? rows.subList(0, limit) : rows, hasNext);
+    }
+
+    public int pageSize(Integer size) {
+        return size == null ? properties.defaultSize() : Math.clamp(size, 1, properties.maxSize());
+    }
+}
@@ -1,42 +1,271 @@
 package com.rish889.sbh.service;
 
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.config.StudentCommonProperties;
 import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentField;
 import com.rish889.sbh.repository.StudentRepository;
+import com.rish889.sbh.repository.StudentUpsert;
+import com.rish889.sbh.repository.StudentVersion;
+import com.rish889.sbh.repository.StudentView;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
+@Timed("student.service")
 public class StudentService {
 
+    /**
+     * Read-through cache of single students by id, invalidated by every write path.
+     */
+    public static final String CACHE = "students";
+
     private final StudentRepository repository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher events;
+    private final StudentPartitions partitions;
+    private final StudentReadCoalescer coalescer;
+    private final StudentCommonProperties.Pagination pagination;
 
-    public StudentService(StudentRepository repository) {
+    public StudentService(StudentRepository repository, EntityManager entityManager,
+                          ApplicationEventPublisher events, StudentPartitions partitions,
+                          StudentReadCoalescer coalescer, StudentApiProperties properties) {
         this.repository = repository;
+        this.entityManager = entityManager;
+        this.events = events;
+        this.partitions = partitions;
+        this.coalescer = coalescer;
+        this.pagination = properties.pagination();
     }
 
+    /**
+     * Upserts by email, so a retried create returns the existing row instead of adding a duplicate.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CACHE, key = "#result.id")
     public Student create(Student student) {
-        return repository.save(student);
+        StudentUpsert upsert = repository.upsert(student);
+        switch (upsert.outcome()) {
+            case CREATED -> events.publishEvent(StudentChangedEvent.created(upsert.student()));
+            case UPDATED -> events.publishEvent(StudentChangedEvent.updated(upsert.student()));
+            case UNCHANGED -> {
+            }
+        }
+        return upsert.student();
     }
 
+    /**
+     * Compatibility path for the unpaginated list: returns at most {@code max-limit} students. Concurrent
+     * calls share one query.
+     */
+    @Transactional(readOnly = true)
     public List<Student> getAll() {
-        return repository.findAll();
+        return coalescer.page(null, null,
+                () -> repository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(pagination.maxLimit())),
+                students -> students.stream().map(Student::copy).toList());
+    }
+
+    /**
+     * Concurrent calls for the same page share one query.
+     */
+    @Transactional(readOnly = true)
+    public StudentPage<Student> getPage(Long after, Integer limit) {
+        int size = pageSize(limit);
+        long from = after == null ? 0L : after;
+        return coalescer.page(from, size, () -> {
+            // fetch one extra row to learn whether another page exists without a count query
+            List<Student> rows = repository.findByIdGreaterThanOrderByIdAsc(from, Limit.of(size + 1));
+            return page(rows, size, Student::getId);
+        }, page -> new StudentPage<>(page.items().stream().map(Student::copy).toList(), page.nextAfter()));
+    }
+
+    /**
+     * {@link #getAll()} reading only the selected columns.
+     */
+    @Transactional(readOnly = true)
+    public List<StudentView> getAllViews(Set<StudentField> fields) {
+        return repository.findViewsByIdGreaterThan(fields, 0L, Limit.of(pagination.maxLimit()));
+    }
+
+    /**
+     * {@link #getPage} reading only the selected columns.
+     */
+    @Transactional(readOnly = true)
+    public StudentPage<StudentView> getViewPage(Set<StudentField> fields, Long after, Integer limit) {
+        int size = pageSize(limit);
+        List<StudentView> rows = repository.findViewsByIdGreaterThan(fields, after == null ? 0L : after, Limit.of(size + 1));
+        return page(rows, size, StudentView::id);
+    }
+
+    private static <T> StudentPage<T> page(List<T> rows, int size, Function<T, Long> id) {
+        if (rows.size() <= size) {
+            return new StudentPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new StudentPage<>(items, id.apply(items.getLast()));
+    }
+
+    /**
+     * Tag of what {@link #getAll()} would return, computed from ids and versions only. Read from the
+     * same kind of connection as the list itself: a replica, or the primary for a pinned client.
+     */
+    @Transactional(readOnly = true)
+    public String getAllTag() {
+        return StudentTags.ofVersions(repository.findVersionsByIdGreaterThan(0L, Limit.of(pagination.maxLimit())), false);
+    }
+
+    /**
+     * Tag of what {@link #getPage} would return, computed from ids and versions only, routed like
+     * {@link #getPage}.
+     */
+    @Transactional(readOnly = true)
+    public String getPageTag(Long after, Integer limit) {
+        int size = pageSize(limit);
+        List<StudentVersion> rows = repository.findVersionsByIdGreaterThan(after == null ? 0L : after, Limit.of(size + 1));
+        return rows.size() <= size
+                ? StudentTags.ofVersions(rows, false)
+                : StudentTags.ofVersions(rows.subList(0, size), true);
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null ? pagination.defaultLimit() : Math.clamp(limit, 1, pagination.maxLimit());
+    }
+
+    /**
+     * Exact number of students, counted one partition per connection and summed, or one partition after
+     * another while other scans hold the connections parallel scans may use.
+     */
+    public long count() {
+        return partitions.scan((connection, partition) -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery("select count(*) from " + partition)) {
+                result.next();
+                return result.getLong(1);
+            }
+        }).stream().mapToLong(Long::longValue).sum();
     }
 
+    /**
+     * Hands every student with id greater than {@code after} to {@code action}, in id order, from a
+     * server-side cursor. Each entity is detached once consumed so memory stays flat for any table size.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Long after, Consumer<Student> action) {
+        try (Stream<Student> students = repository.streamByIdGreaterThan(after == null ? 0L : after)) {
+            students.forEach(student -> {
+                action.accept(student);
+                entityManager.detach(student);
+            });
+        }
+    }
+
+    // fills the cache from the primary: a lagging replica could re-cache the row a write just evicted.
+    // Read-write on purpose, repository reads alone run read-only and would go to a replica;
+    // concurrent misses for the same id share one query. A caller inside a transaction reads past the cache:
+    // a synchronized load is stored at once, while evictions of the caller's own writes wait for its commit
+    @Transactional
+    @Cacheable(cacheNames = CACHE, key = "#id", sync = true, condition = "!T(org.springframework.transaction"
+            + ".support.TransactionSynchronizationManager).isActualTransactionActive()")
     public Student getById(Long id) {
         return repository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Student not found"));
     }
 
+    /**
+     * Reads only the selected columns and bypasses the entity cache.
+     */
+    @Transactional(readOnly = true)
+    public StudentView getViewById(Set<StudentField> fields, Long id) {
+        return repository.findViewById(fields, id)
+                .orElseThrow(() -> new RuntimeException("Student not found"));
+    }
+
+    /**
+     * Version that validates {@link #getById}'s body, so it is read from the primary like that body; a
+     * lagging replica would answer 304 for a version the student no longer has.
+     */
+    @Transactional
+    public Optional<Long> getVersion(Long id) {
+        return repository.findVersionById(id);
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CACHE, key = "#id")
     public Student update(Long id, Student updatedStudent) {
-        Student existing = getById(id);
-        existing.setName(updatedStudent.getName());
-        existing.setEmail(updatedStudent.getEmail());
-        return repository.save(existing);
+        return write(id, null, updatedStudent.getName(), updatedStudent.getEmail());
+    }
+
+    /**
+     * Replaces name and email in a single {@code UPDATE ... RETURNING} round trip.
+     *
+     * @param expectedVersion version from the client's {@code If-Match}, or {@code null} to update unconditionally
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CACHE, key = "#id")
+    public Student update(Long id, Long expectedVersion, Student updatedStudent) {
+        return write(id, expectedVersion, updatedStudent.getName(), updatedStudent.getEmail());
+    }
+
+    /**
+     * Writes only the columns present in the patch, in the same single round trip as {@link #update}.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CACHE, key = "#id")
+    public Student patch(Long id, Long expectedVersion, StudentPatch patch) {
+        if (patch.name() == null && patch.email() == null) {
+            return getById(id);
+        }
+        return write(id, expectedVersion, patch.name(), patch.email());
+    }
+
+    private Student write(Long id, Long expectedVersion, String name, String email) {
+        Student saved;
+        try {
+            saved = repository.updateColumns(id, expectedVersion, name, email)
+                    .orElseThrow(() -> notUpdated(id, expectedVersion));
+        } catch (DataIntegrityViolationException e) {
+            if (DuplicateEmailException.isCauseOf(e)) {
+                throw new DuplicateEmailException("Email " + email + " belongs to another student");
+            }
+            throw e;
+        }
+        events.publishEvent(StudentChangedEvent.updated(saved));
+        return saved;
+    }
+
+    // no row matched: only a conditional update needs the extra lookup to tell "gone" from "stale"
+    private RuntimeException notUpdated(Long id, Long expectedVersion) {
+        if (expectedVersion != null && repository.findVersionById(id).isPresent()) {
+            return new StaleStudentException("Student was modified");
+        }
+        return new RuntimeException("Student not found");
     }
 
+    /**
+     * Delta sync and the change stream learn about the delete from its outbox row. Deleting a student
+     * that does not exist changes nothing and publishes nothing.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CACHE, key = "#id")
     public void delete(Long id) {
-        repository.deleteById(id);
+        if (repository.deleteByIds(List.of(id)) > 0) {
+            events.publishEvent(StudentChangedEvent.deleted(id));
+        }
     }
 }
-
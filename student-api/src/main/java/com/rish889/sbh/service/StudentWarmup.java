@@ -0,0 +1,90 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentField;
+import com.rish889.sbh.repository.StudentVersion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exercises the hot read paths once the context is up: the JPA metamodel, the page, projection, tag
+ * and version queries through the service proxies, and JSON in both directions. Runs from the
+ * application's {@code CommandLineRunner}, and Spring Boot only reports readiness after the runners
+ * finished, so the first requests a pod receives hit warm connections, statement caches and compiled
+ * code. Only reads; the single-student cache is left untouched.
+ */
+@Component
+public class StudentWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentWarmup.class);
+    private static final int PAGE_SIZE = 20;
+    private static final Set<StudentField> ALL_FIELDS = EnumSet.allOf(StudentField.class);
+
+    private final StudentService service;
+    private final EntityManager entityManager;
+    private final JsonMapper jsonMapper;
+    private final StudentApiProperties.Warmup warmup;
+
+    public StudentWarmup(StudentService service, EntityManager entityManager, JsonMapper jsonMapper,
+                         StudentApiProperties properties) {
+        this.service = service;
+        this.entityManager = entityManager;
+        this.jsonMapper = jsonMapper;
+        this.warmup = properties.warmup();
+    }
+
+    /**
+     * Runs until the configured iterations are done or the budget is spent. A failing read ends the
+     * warmup early but never the startup.
+     *
+     * @return iterations completed
+     */
+    public int run() {
+        if (!warmup.enabled()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        long deadline = start + warmup.budget().toNanos();
+        int iterations = 0;
+        try {
+            touchMetamodel();
+            while (iterations < warmup.iterations() && System.nanoTime() - deadline < 0) {
+                exercise();
+                iterations++;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Warmup stopped after {} iterations: {}", iterations, e.getMessage());
+        }
+        log.info("Warmed up with {} iterations in {} ms", iterations,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return iterations;
+    }
+
+    // resolves every entity's attributes, which Hibernate otherwise does on the first query touching them
+    private void touchMetamodel() {
+        for (EntityType<?> entity : entityManager.getMetamodel().getEntities()) {
+            entity.getAttributes();
+        }
+    }
+
+    private void exercise() {
+        StudentPage<Student> page = service.getPage(null, PAGE_SIZE);
+        service.getPageTag(null, PAGE_SIZE);
+        jsonMapper.writeValueAsBytes(service.getViewPage(ALL_FIELDS, null, PAGE_SIZE).items());
+        if (!page.items().isEmpty()) {
+            service.getVersion(page.items().getFirst().getId());
+        }
+        byte[] json = jsonMapper.writeValueAsBytes(page.items());
+        jsonMapper.readValue(json, Student[].class);
+        StudentTags.ofVersions(StudentVersion.of(page.items()), page.nextAfter() != null);
+    }
+}
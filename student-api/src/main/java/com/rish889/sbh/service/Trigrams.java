@@ -0,0 +1,49 @@
+package com.rish889.sbh.service;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Trigram extraction following pg_trgm: every run of letters and digits is padded with two leading
+ * blanks and one trailing blank before being cut into three-character pieces.
+ */
+final class Trigrams {
+
+    private Trigrams() {
+    }
+
+    static Set<String> of(String text) {
+        Set<String> trigrams = new HashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String padded = "  " + text.substring(start, i) + " ";
+                for (int j = 0; j + 3 <= padded.length(); j++) {
+                    trigrams.add(padded.substring(j, j + 3));
+                }
+                start = -1;
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * Share of the query's trigrams found in the target, the in-memory counterpart of
+     * {@code word_similarity(query, target)}.
+     */
+    static double wordSimilarity(Set<String> query, Set<String> target) {
+        if (query.isEmpty()) {
+            return 0;
+        }
+        int common = 0;
+        for (String trigram : query) {
+            if (target.contains(trigram)) {
+                common++;
+            }
+        }
+        return (double) common / query.size();
+    }
+}
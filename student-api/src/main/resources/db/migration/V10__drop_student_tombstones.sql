@@ -0,0 +1,5 @@
+-- Delta sync reads deletes from the student_changes outbox now, in commit order, so the tombstones and
+-- the (updated_at, id) cursor index have no readers left.
+DROP TABLE student_tombstones;
+
+DROP INDEX IF EXISTS students_updated_at_idx;
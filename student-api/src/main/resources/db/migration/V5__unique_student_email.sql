@@ -0,0 +1,19 @@
+-- Retried creates left duplicate rows behind. The oldest row per email stays; the others are moved to
+-- student_email_duplicates rather than dropped, so they can be reviewed, and merged back by hand if needed.
+CREATE TABLE student_email_duplicates (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    version BIGINT NOT NULL,
+    kept_id BIGINT NOT NULL,
+    archived_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO student_email_duplicates (id, name, email, version, kept_id)
+SELECT s.id, s.name, s.email, s.version, (SELECT MIN(k.id) FROM students k WHERE k.email = s.email)
+FROM students s
+WHERE EXISTS (SELECT 1 FROM students d WHERE d.email = s.email AND d.id < s.id);
+
+DELETE FROM students WHERE id IN (SELECT id FROM student_email_duplicates);
+
+ALTER TABLE students ADD CONSTRAINT students_email_key UNIQUE (email);
@@ -0,0 +1,11 @@
+-- Transactional outbox: one row per student write, committed together with it. The id is the change
+-- offset consumers resume from.
+CREATE TABLE student_changes (
+    id BIGSERIAL PRIMARY KEY,
+    student_id BIGINT NOT NULL,
+    type VARCHAR(16) NOT NULL,
+    payload VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX student_changes_created_at_idx ON student_changes (created_at);
@@ -0,0 +1,14 @@
+-- Existing rows get the migration time; the constant default does not rewrite the table on PostgreSQL.
+ALTER TABLE students ADD COLUMN created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE students ADD COLUMN updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- (updated_at, id) is the delta sync cursor
+CREATE INDEX students_updated_at_idx ON students (updated_at, id);
+
+-- One row per deleted student so delta sync can report deletes; purged after the tombstone retention.
+CREATE TABLE student_tombstones (
+    student_id BIGINT PRIMARY KEY,
+    deleted_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX student_tombstones_deleted_at_idx ON student_tombstones (deleted_at, student_id);
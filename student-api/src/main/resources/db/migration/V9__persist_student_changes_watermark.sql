@@ -0,0 +1,8 @@
+-- Highest outbox offset purged so far. It outlives the process, so a subscriber that resumes below it
+-- after a restart is answered with 410 instead of silently missing the purged changes.
+CREATE TABLE student_changes_watermark (
+    id SMALLINT PRIMARY KEY,
+    purged_through BIGINT NOT NULL
+);
+
+INSERT INTO student_changes_watermark (id, purged_through) VALUES (1, 0);
@@ -0,0 +1,61 @@
+package com.rish889.sbh;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A PostgreSQL server started from the embedded binaries once per test JVM, for what H2 cannot stand in
+ * for. Contexts pointed at it run the PostgreSQL migrations, so tests sharing it must clean up after themselves.
+ */
+public final class EmbeddedPostgresDatabase {
+
+    private static EmbeddedPostgres postgres;
+
+    private EmbeddedPostgresDatabase() {
+    }
+
+    /**
+     * Points the test profile's datasource and dialect at the embedded server, starting it on first use.
+     */
+    public static void register(DynamicPropertyRegistry registry) {
+        properties().forEach((name, value) -> registry.add(name, () -> value));
+    }
+
+    /**
+     * The same properties, for contexts started without the test framework.
+     */
+    public static Map<String, String> properties() {
+        EmbeddedPostgres server = server();
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", server.getJdbcUrl("postgres", "postgres"));
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.postgresql.Driver");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        return properties;
+    }
+
+    private static synchronized EmbeddedPostgres server() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Embedded PostgreSQL did not start", e);
+            }
+            EmbeddedPostgres started = postgres;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    started.close();
+                } catch (IOException ignored) {
+                    // the JVM is exiting, the data directory is temporary
+                }
+            }));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,172 @@
+package com.rish889.sbh;
+
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares throughput and p99 latency of the platform-thread and virtual-thread modes. Not part of the
+ * regular build; run with
+ * {@code mvn test -Dtest=VirtualThreadLoadTest -Dload-test=true [-Dload-test.clients=400] [-Dload-test.seconds=20]}.
+ * Client and server share the JVM, so use a machine with spare cores for meaningful numbers.
+ * Both modes run against {@link EmbeddedPostgresDatabase}, whose JDBC calls really block, unlike in-memory H2;
+ * pass {@code -Dload-test.datasource-url=jdbc:postgresql://...} to measure against another database.
+ * Every response other than 200 counts as an error, is part of the p99 and fails the run.
+ */
+@EnabledIfSystemProperty(named = "load-test", matches = "true")
+class VirtualThreadLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("load-test.clients", 400);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("load-test.warmup-seconds", 5));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load-test.seconds", 20));
+    private static final String TOKEN = "load-test-token";
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadLoadTest.class);
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        log.info("{}", platform);
+        log.info("{}", virtual);
+
+        assertThat(platform.requests()).isPositive();
+        assertThat(virtual.requests()).isPositive();
+        assertThat(platform.errors()).as("failed requests in %s", platform).isZero();
+        assertThat(virtual.errors()).as("failed requests in %s", virtual).isZero();
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=test" + (virtualThreads ? ",virtual-threads" : ""),
+                "--server.port=0",
+                // LoadTestSecurity replaces the issuer-backed decoder
+                "--spring.main.allow-bean-definition-overriding=true",
+                "--student-api.concurrency-limit.enabled=false"));
+        String datasourceUrl = System.getProperty("load-test.datasource-url");
+        if (datasourceUrl != null) {
+            args.add("--spring.datasource.url=" + datasourceUrl);
+        } else {
+            EmbeddedPostgresDatabase.properties().forEach((name, value) -> args.add("--" + name + "=" + value));
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(StudentApiApplication.class, LoadTestSecurity.class)
+                .run(args.toArray(String[]::new))) {
+            StudentRepository repository = context.getBean(StudentRepository.class);
+            repository.saveAll(IntStream.range(0, 500)
+                    .mapToObj(i -> new Student("Student " + i, "student" + i + "@example.com"))
+                    .toList());
+
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            // the page endpoint always reaches the database, unlike the cached single-student read
+            URI uri = URI.create("http://localhost:" + port + "/api/students?limit=20");
+            try {
+                drive(mode, uri, WARMUP);
+                return drive(mode, uri, DURATION);
+            } finally {
+                // both modes share the database
+                repository.deleteAllInBatch();
+            }
+        }
+    }
+
+    private Result drive(String mode, URI uri, Duration duration) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", "Bearer " + TOKEN).build();
+        Instant deadline = Instant.now().plus(duration);
+
+        List<Future<ClientRun>> clients = new ArrayList<>(CLIENTS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    long errors = 0;
+                    while (Instant.now().isBefore(deadline)) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors++;
+                            }
+                        } catch (IOException e) {
+                            errors++;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return new ClientRun(Arrays.copyOf(latencies, count), errors);
+                }));
+            }
+        }
+
+        List<ClientRun> runs = clients.stream().map(Future::resultNow).toList();
+        long[] all = runs.stream().map(ClientRun::latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        long errors = runs.stream().mapToLong(ClientRun::errors).sum();
+        double throughput = all.length / (double) duration.toSeconds();
+        long p99 = all.length == 0 ? 0 : all[(int) Math.ceil(all.length * 0.99) - 1];
+        return new Result(mode, all.length, errors, throughput, Duration.ofNanos(p99));
+    }
+
+    private record ClientRun(long[] latencies, long errors) {
+    }
+
+    record Result(String mode, long requests, long errors, double throughput, Duration p99) {
+
+        double errorRate() {
+            return requests == 0 ? 0 : errors / (double) requests;
+        }
+
+        @Override
+        public String toString() {
+            return "%-8s requests=%d errors=%d (%.2f%%) throughput=%.0f req/s p99=%d ms"
+                    .formatted(mode, requests, errors, errorRate() * 100, throughput, p99.toMillis());
+        }
+    }
+
+    /**
+     * Accepts a fixed bearer token as an ADMIN so the run needs no identity provider.
+     */
+    @Configuration
+    static class LoadTestSecurity {
+
+        @Bean
+        JwtDecoder jwtDecoder() {
+            return token -> Jwt.withTokenValue(token)
+                    .header("alg", "none")
+                    .subject("load-test")
+                    .claim("realm_access", Map.of("roles", List.of("ADMIN")))
+                    .build();
+        }
+    }
+}
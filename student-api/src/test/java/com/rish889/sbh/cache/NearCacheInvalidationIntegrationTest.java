@@ -0,0 +1,80 @@
+package com.rish889.sbh.cache;
+
+import com.rish889.sbh.StudentApiApplication;
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import com.rish889.sbh.service.StudentService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+// a second application context on the same in-memory database plays the other node
+@SpringBootTest
+@ActiveProfiles("test")
+class NearCacheInvalidationIntegrationTest {
+
+    private static ConfigurableApplicationContext otherNode;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @BeforeAll
+    static void startOtherNode() {
+        otherNode = new SpringApplicationBuilder(StudentApiApplication.class)
+                .profiles("test")
+                .run("--server.port=0");
+    }
+
+    @AfterAll
+    static void stopOtherNode() {
+        otherNode.close();
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void shouldEvictCachedStudentWhenAnotherNodeUpdatesIt() {
+        // given
+        Student saved = studentService.create(new Student("Alice Smith", "alice@example.com"));
+        assertThat(studentService.getById(saved.getId()).getName()).isEqualTo("Alice Smith");
+
+        // when
+        otherNode.getBean(StudentService.class).update(saved.getId(), new Student("Alicia Smith", "alice@example.com"));
+
+        // then
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> studentService.getById(saved.getId()).getName().equals("Alicia Smith"));
+    }
+
+    @Test
+    void shouldEvictCachedStudentWhenAnotherNodeDeletesIt() {
+        // given
+        Student saved = studentService.create(new Student("Bob Jones", "bob@example.com"));
+        studentService.getById(saved.getId());
+
+        // when
+        otherNode.getBean(StudentService.class).delete(saved.getId());
+
+        // then
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThatThrownBy(() -> studentService.getById(saved.getId())).hasMessage("Student not found"));
+    }
+}
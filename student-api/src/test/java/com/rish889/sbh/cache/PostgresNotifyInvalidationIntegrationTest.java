@@ -0,0 +1,155 @@
+package com.rish889.sbh.cache;
+
+import com.rish889.sbh.EmbeddedPostgresDatabase;
+import com.rish889.sbh.StudentApiApplication;
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import com.rish889.sbh.service.StudentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+// LISTEN/NOTIFY only exists on PostgreSQL; a second application context on the same server plays the other node
+@SpringBootTest(properties = {
+        "student-api.cache-invalidation.transport=notify",
+        "student-api.cache-invalidation.reconnect-interval=100ms"
+})
+@ActiveProfiles("test")
+class PostgresNotifyInvalidationIntegrationTest {
+
+    private static ConfigurableApplicationContext otherNode;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresDatabase.register(registry);
+    }
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void startOtherNode() {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--student-api.cache-invalidation.transport=notify",
+                "--student-api.cache-invalidation.reconnect-interval=100ms"));
+        EmbeddedPostgresDatabase.properties().forEach((name, value) -> args.add("--" + name + "=" + value));
+        otherNode = new SpringApplicationBuilder(StudentApiApplication.class)
+                .profiles("test")
+                .run(args.toArray(String[]::new));
+    }
+
+    @AfterAll
+    static void stopOtherNode() {
+        otherNode.close();
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void shouldEvictCachedStudentOnceAnotherNodeCommitsAnUpdate() {
+        // given
+        Student saved = studentService.create(new Student("Alice Smith", "alice@example.com"));
+        studentService.getById(saved.getId());
+
+        // when
+        otherNode.getBean(StudentService.class).update(saved.getId(), new Student("Alicia Smith", "alice@example.com"));
+
+        // then
+        await().atMost(Duration.ofSeconds(5)).until(() -> students().get(saved.getId()) == null);
+        assertThat(studentService.getById(saved.getId()).getName()).isEqualTo("Alicia Smith");
+    }
+
+    @Test
+    void shouldNotEvictForAnUpdateAnotherNodeRolledBack() {
+        // given
+        Student kept = studentService.create(new Student("Bob Jones", "bob@example.com"));
+        Student updated = studentService.create(new Student("Carol White", "carol@example.com"));
+        studentService.getById(kept.getId());
+        double evictions = evictions();
+        StudentService other = otherNode.getBean(StudentService.class);
+
+        // when
+        otherNode.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            other.update(kept.getId(), new Student("Robert Jones", "bob@example.com"));
+            status.setRollbackOnly();
+        });
+        other.update(updated.getId(), new Student("Caroline White", "carol@example.com"));
+
+        // then: notifications arrive in commit order, so the rolled back one would have come first
+        await().atMost(Duration.ofSeconds(5)).until(() -> evictions() == evictions + 1);
+        assertThat(students().get(kept.getId())).isNotNull();
+        assertThat(studentService.getById(kept.getId()).getName()).isEqualTo("Bob Jones");
+    }
+
+    @Test
+    void shouldClearTheCacheAndListenAgainAfterLosingTheListenerConnection() {
+        // given
+        Student saved = studentService.create(new Student("Dave Brown", "dave@example.com"));
+        studentService.getById(saved.getId());
+        double clears = clears();
+
+        // when: both nodes' listeners are cut off
+        jdbcTemplate.query("select pg_terminate_backend(pid) from pg_stat_activity where query = 'LISTEN student_cache'",
+                rs -> null);
+
+        // then: messages may have been missed while reconnecting
+        await().atMost(Duration.ofSeconds(5)).until(() -> clears() > clears);
+        assertThat(students().get(saved.getId())).isNull();
+
+        // when
+        studentService.getById(saved.getId());
+        otherNode.getBean(StudentService.class).update(saved.getId(), new Student("David Brown", "dave@example.com"));
+
+        // then
+        await().atMost(Duration.ofSeconds(5)).until(() -> students().get(saved.getId()) == null);
+        assertThat(studentService.getById(saved.getId()).getName()).isEqualTo("David Brown");
+    }
+
+    private Cache students() {
+        return cacheManager.getCache(StudentService.CACHE);
+    }
+
+    private double evictions() {
+        return meterRegistry.get("student.cache.remote.invalidations").tag("scope", "student").functionCounter().count();
+    }
+
+    private double clears() {
+        return meterRegistry.get("student.cache.remote.invalidations").tag("scope", "all").functionCounter().count();
+    }
+}
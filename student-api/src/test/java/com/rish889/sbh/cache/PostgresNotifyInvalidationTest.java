@@ -0,0 +1,72 @@
+package com.rish889.sbh.cache;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.config.TestStudentApiProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostgresNotifyInvalidationTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NearCacheInvalidator invalidator;
+
+    private PostgresNotifyInvalidation invalidation;
+
+    @BeforeEach
+    void setUp() {
+        invalidation = new PostgresNotifyInvalidation(jdbcTemplate, new DataSourceProperties(), invalidator,
+                properties("student_cache"));
+    }
+
+    @Test
+    void shouldNameStudentsUpToLimitAndEverythingBeyond() {
+        assertThat(PostgresNotifyInvalidation.message("node-1", List.of(1L, 2L), 2)).isEqualTo("node-1 1,2");
+        assertThat(PostgresNotifyInvalidation.message("node-1", List.of(1L, 2L, 3L), 2)).isEqualTo("node-1 *");
+    }
+
+    @Test
+    void shouldEvictStudentsNamedByAnotherNode() {
+        // when
+        invalidation.receive("node-2 7,9");
+
+        // then
+        verify(invalidator).evict(7L);
+        verify(invalidator).evict(9L);
+        verifyNoMoreInteractions(invalidator);
+    }
+
+    @Test
+    void shouldEvictEverythingWhenAnotherNodeWroteTooManyToName() {
+        // when
+        invalidation.receive("node-2 *");
+
+        // then
+        verify(invalidator).evictAll();
+    }
+
+    @Test
+    void shouldRejectChannelThatIsNotAnIdentifier() {
+        assertThatThrownBy(() -> new PostgresNotifyInvalidation(jdbcTemplate, new DataSourceProperties(), invalidator,
+                properties("student-cache; drop table students")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static StudentApiProperties properties(String channel) {
+        return TestStudentApiProperties.with("student-api.cache-invalidation.channel=" + channel);
+    }
+}
@@ -0,0 +1,29 @@
+package com.rish889.sbh.config;
+
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.service.StudentImportSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StudentApiRuntimeHintsTest {
+
+    @Test
+    void shouldRegisterJsonTypesAndVendorMigrations() {
+        // given
+        RuntimeHints hints = new RuntimeHints();
+
+        // when
+        new StudentApiRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // then
+        assertThat(RuntimeHintsPredicates.reflection().onType(Student.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(StudentImportSummary.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/vendor/postgresql/V4__student_search_indexes.sql"))
+                .accepts(hints);
+    }
+}
@@ -0,0 +1,35 @@
+package com.rish889.sbh.config;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link StudentApiProperties} bound the way the application binds them, for tests that build their
+ * beans by hand: every section gets its {@code @DefaultValue}s and a test overrides only the keys it is
+ * about, written like {@code @SpringBootTest(properties = ...)}.
+ */
+public final class TestStudentApiProperties {
+
+    private TestStudentApiProperties() {
+    }
+
+    public static StudentApiProperties defaults() {
+        return with();
+    }
+
+    /**
+     * @param properties {@code key=value} pairs, e.g. {@code "student-api.changes.gap-timeout=50ms"}
+     */
+    public static StudentApiProperties with(String... properties) {
+        Map<String, String> source = new LinkedHashMap<>();
+        for (String property : properties) {
+            int separator = property.indexOf('=');
+            source.put(property.substring(0, separator), property.substring(separator + 1));
+        }
+        return new Binder(new MapConfigurationPropertySource(source))
+                .bindOrCreate("student-api", StudentApiProperties.class);
+    }
+}
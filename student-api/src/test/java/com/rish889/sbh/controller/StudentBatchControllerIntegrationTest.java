@@ -0,0 +1,177 @@
+package com.rish889.sbh.controller;
+
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// not @Transactional: the batch service commits one transaction per chunk
+@SpringBootTest(properties = "student-api.batch.chunk-size=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StudentBatchControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldCreateStudentsFromJsonArrayAcrossChunks() throws Exception {
+        mockMvc.perform(post("/api/students/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"name":"Alice Smith","email":"alice@example.com"},
+                                 {"name":"Bob Johnson","email":"bob@example.com"},
+                                 {"name":"Carol White","email":"carol@example.com"}]
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[*].status", everyItem(is("CREATED"))))
+                .andExpect(jsonPath("$[2].index", is(2)))
+                .andExpect(jsonPath("$[2].id", notNullValue()));
+
+        assertThat(studentRepository.findAll()).extracting(Student::getName)
+                .containsExactlyInAnyOrder("Alice Smith", "Bob Johnson", "Carol White");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldReportInvalidItemsWithoutFailingTheRest() throws Exception {
+        mockMvc.perform(post("/api/students/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"name":"Alice Smith","email":"alice@example.com"}
+                                {"name":"No Email"}
+                                {"name":"Bob Johnson","email":"bob@example.com"}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[?(@.index == 0)].status", contains("CREATED")))
+                .andExpect(jsonPath("$[?(@.index == 1)].status", contains("FAILED")))
+                .andExpect(jsonPath("$[?(@.index == 1)].error", contains("email is required")))
+                .andExpect(jsonPath("$[?(@.index == 2)].status", contains("CREATED")));
+
+        assertThat(studentRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldReplayFailedChunkItemByItem() throws Exception {
+        // the duplicate email rolls back the whole first chunk, which is then written one item at a time
+        mockMvc.perform(post("/api/students/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"name":"Alice Smith","email":"alice@example.com"},
+                                 {"name":"Alice Again","email":"alice@example.com"},
+                                 {"name":"Bob Johnson","email":"bob@example.com"}]
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].status", is("CREATED")))
+                .andExpect(jsonPath("$[0].id", notNullValue()))
+                .andExpect(jsonPath("$[1].status", is("FAILED")))
+                .andExpect(jsonPath("$[2].status", is("CREATED")));
+
+        Student alice = studentRepository.findAll().stream()
+                .filter(student -> student.getEmail().equals("alice@example.com"))
+                .findFirst().orElseThrow();
+        assertThat(alice.getName()).isEqualTo("Alice Smith");
+        assertThat(studentRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldUpdateExistingStudentsAndReportMissingOnes() throws Exception {
+        Student saved = studentRepository.save(new Student("Old Name", "old@example.com"));
+
+        mockMvc.perform(put("/api/students/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":" + saved.getId() + ",\"name\":\"New Name\",\"email\":\"new@example.com\"},"
+                                + "{\"id\":999999,\"name\":\"Ghost\",\"email\":\"ghost@example.com\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("UPDATED")))
+                .andExpect(jsonPath("$[1].status", is("NOT_FOUND")));
+
+        assertThat(studentRepository.findById(saved.getId())).get()
+                .extracting(Student::getName).isEqualTo("New Name");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldOnlyPublishChangesForStudentsWhoseValuesChanged() throws Exception {
+        Student same = studentRepository.save(new Student("Same Name", "same@example.com"));
+        Student invalid = studentRepository.save(new Student("Kept Name", "kept@example.com"));
+        Student renamed = studentRepository.save(new Student("Old Name", "renamed@example.com"));
+
+        mockMvc.perform(put("/api/students/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":" + same.getId() + ",\"name\":\"Same Name\",\"email\":\"same@example.com\"},"
+                                + "{\"id\":" + invalid.getId() + ",\"name\":\"\",\"email\":\"kept@example.com\"},"
+                                + "{\"id\":" + renamed.getId() + ",\"name\":\"New Name\",\"email\":\"renamed@example.com\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("UPDATED")))
+                .andExpect(jsonPath("$[1].status", is("FAILED")))
+                .andExpect(jsonPath("$[2].status", is("UPDATED")));
+
+        assertThat(jdbcTemplate.queryForList("select student_id from student_changes where type = 'UPDATED' and student_id in (?, ?, ?)",
+                Long.class, same.getId(), invalid.getId(), renamed.getId()))
+                .containsExactly(renamed.getId());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldDeleteStudentsFromNdjsonIds() throws Exception {
+        Student first = studentRepository.save(new Student("To Delete", "delete@example.com"));
+        Student second = studentRepository.save(new Student("To Keep", "keep@example.com"));
+
+        mockMvc.perform(delete("/api/students/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(first.getId() + "\n999999\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("DELETED")))
+                .andExpect(jsonPath("$[1].status", is("NOT_FOUND")));
+
+        assertThat(studentRepository.findAll()).extracting(Student::getId).containsExactly(second.getId());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldReturn403WhenNotAdmin() throws Exception {
+        mockMvc.perform(post("/api/students/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,107 @@
+package com.rish889.sbh.controller;
+
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.service.StudentChangeRelay;
+import com.rish889.sbh.service.StudentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// not @Transactional: outbox rows only reach the relay once committed
+@SpringBootTest(properties = "student-api.changes.poll-interval=20ms")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StudentChangesControllerIntegrationTest {
+
+    private static final Pattern EVENT = Pattern.compile("id:(\\d+)\\nevent:change\\ndata:\\{\"offset\":\\d+,\"type\":\"(\\w+)\"");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentChangeRelay relay;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldStreamCommittedChangesInOrderAndResumeFromAnOffset() throws Exception {
+        long since = relay.head();
+        Student created = studentService.create(new Student("Change Stream", "changes@example.com"));
+        studentService.update(created.getId(), new Student("Change Streamed", "changes@example.com"));
+        studentService.delete(created.getId());
+
+        MvcResult all = mockMvc.perform(get("/api/students/changes").param("since", Long.toString(since)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        await().atMost(Duration.ofSeconds(5)).until(() -> events(all).split(",").length == 3);
+        assertThat(events(all)).matches("\\d+:CREATED,\\d+:UPDATED,\\d+:DELETED");
+
+        long afterCreate = Long.parseLong(events(all).split(":")[0]);
+        MvcResult resumed = mockMvc.perform(get("/api/students/changes").header("Last-Event-ID", afterCreate))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        await().atMost(Duration.ofSeconds(5)).until(() -> events(resumed).split(",").length == 2);
+        assertThat(events(resumed)).matches("\\d+:UPDATED,\\d+:DELETED");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldNotWriteOutboxRowForDeleteOfMissingStudent() {
+        Integer before = jdbcTemplate.queryForObject("select count(*) from student_changes", Integer.class);
+
+        studentService.delete(Long.MAX_VALUE);
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from student_changes", Integer.class)).isEqualTo(before);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldNotWriteOutboxRowForRolledBackWrite() {
+        Integer before = jdbcTemplate.queryForObject("select count(*) from student_changes", Integer.class);
+
+        try {
+            studentService.update(Long.MAX_VALUE, new Student("Nobody", "nobody@example.com"));
+        } catch (RuntimeException expected) {
+            // not found
+        }
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from student_changes", Integer.class)).isEqualTo(before);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldRejectOffsetsThatWereAlreadyPurged() throws Exception {
+        mockMvc.perform(get("/api/students/changes").param("since", "-1"))
+                .andExpect(status().isGone());
+    }
+
+    private static String events(MvcResult result) throws Exception {
+        Matcher matcher = EVENT.matcher(result.getResponse().getContentAsString());
+        StringBuilder events = new StringBuilder();
+        while (matcher.find()) {
+            events.append(events.isEmpty() ? "" : ",").append(matcher.group(1)).append(':').append(matcher.group(2));
+        }
+        return events.toString();
+    }
+}
@@ -12,8 +12,10 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -53,6 +55,31 @@ class StudentControllerIntegrationTest {
                 .andExpect(jsonPath("$.email", is("john.doe@example.com")));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldUpsertByEmailInsteadOfCreatingDuplicates() throws Exception {
+        Student saved = studentRepository.saveAndFlush(new Student("John Doe", "john.doe@example.com"));
+
+        mockMvc.perform(post("/api/students")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Student("John Doe", "john.doe@example.com"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(saved.getId().intValue())))
+                .andExpect(jsonPath("$.version", is(0)));
+
+        mockMvc.perform(post("/api/students")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Student("Johnny Doe", "john.doe@example.com"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(saved.getId().intValue())))
+                .andExpect(jsonPath("$.name", is("Johnny Doe")))
+                .andExpect(jsonPath("$.version", is(1)));
+
+        assertThat(studentRepository.count()).isEqualTo(1);
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void shouldGetAllStudents() throws Exception {
@@ -66,6 +93,38 @@ class StudentControllerIntegrationTest {
                 .andExpect(jsonPath("$[1].name", is("Bob Johnson")));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldCountStudents() throws Exception {
+        // counted over JDBC, which does not flush pending entities
+        studentRepository.saveAndFlush(new Student("Alice Smith", "alice@example.com"));
+        studentRepository.saveAndFlush(new Student("Bob Johnson", "bob@example.com"));
+
+        mockMvc.perform(get("/api/students/count"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count", is(2)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldPageStudentsByCursor() throws Exception {
+        Student first = studentRepository.save(new Student("Alice Smith", "alice@example.com"));
+        Student second = studentRepository.save(new Student("Bob Johnson", "bob@example.com"));
+        studentRepository.save(new Student("Carol White", "carol@example.com"));
+
+        mockMvc.perform(get("/api/students").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link", "</api/students?after=" + second.getId() + "&limit=2>; rel=\"next\""))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(first.getId().intValue())));
+
+        mockMvc.perform(get("/api/students").param("after", second.getId().toString()).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Link"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("Carol White")));
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void shouldGetStudentById() throws Exception {
@@ -78,6 +137,105 @@ class StudentControllerIntegrationTest {
                 .andExpect(jsonPath("$.email", is("jane@example.com")));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldReturnOnlySelectedFields() throws Exception {
+        Student first = studentRepository.save(new Student("Alice Smith", "alice@example.com"));
+        Student second = studentRepository.save(new Student("Bob Johnson", "bob@example.com"));
+
+        mockMvc.perform(get("/api/students").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(first.getId().intValue())))
+                .andExpect(jsonPath("$[0].name", is("Alice Smith")))
+                .andExpect(jsonPath("$[0].email").doesNotExist())
+                .andExpect(jsonPath("$[0].version").doesNotExist());
+
+        mockMvc.perform(get("/api/students").param("fields", "id,email").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link",
+                        "</api/students?after=" + first.getId() + "&limit=1&fields=id%2Cemail>; rel=\"next\""))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].email", is("alice@example.com")))
+                .andExpect(jsonPath("$[0].name").doesNotExist());
+
+        mockMvc.perform(get("/api/students/{id}", second.getId()).param("fields", "email,version"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.id", is(second.getId().intValue())))
+                .andExpect(jsonPath("$.email", is("bob@example.com")))
+                .andExpect(jsonPath("$.version", is(0)))
+                .andExpect(jsonPath("$.name").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldTagSparseRepresentationsSeparately() throws Exception {
+        Student saved = studentRepository.saveAndFlush(new Student("Jane Doe", "jane@example.com"));
+
+        String full = mockMvc.perform(get("/api/students/{id}", saved.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+        String sparse = mockMvc.perform(get("/api/students/{id}", saved.getId()).param("fields", "name"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/students/{id}", saved.getId()).param("fields", "name").header("If-None-Match", full))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/students/{id}", saved.getId()).param("fields", "name").header("If-None-Match", sparse))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldRejectUnknownField() throws Exception {
+        mockMvc.perform(get("/api/students").param("fields", "id,password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldReturn304ForUnchangedStudentAndNewETagAfterUpdate() throws Exception {
+        Student saved = studentRepository.saveAndFlush(new Student("Jane Doe", "jane@example.com"));
+
+        String etag = mockMvc.perform(get("/api/students/{id}", saved.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/students/{id}", saved.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/api/students/{id}", saved.getId())
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Student("Jane Updated", "jane@example.com"))))
+                .andExpect(status().isOk());
+        studentRepository.flush();
+
+        mockMvc.perform(get("/api/students/{id}", saved.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.name", is("Jane Updated")));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldReturn304ForUnchangedListUntilAStudentIsAdded() throws Exception {
+        studentRepository.saveAndFlush(new Student("Alice Smith", "alice@example.com"));
+
+        MvcResult first = mockMvc.perform(get("/api/students").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/students").param("limit", "10").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        studentRepository.saveAndFlush(new Student("Bob Johnson", "bob@example.com"));
+
+        mockMvc.perform(get("/api/students").param("limit", "10").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void shouldUpdateStudent() throws Exception {
@@ -94,6 +252,73 @@ class StudentControllerIntegrationTest {
                 .andExpect(jsonPath("$.email", is("new@example.com")));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldPatchOnlyGivenFields() throws Exception {
+        Student saved = studentRepository.save(new Student("Old Name", "old@example.com"));
+
+        mockMvc.perform(patch("/api/students/{id}", saved.getId())
+                        .with(csrf())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"name\":\"New Name\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.name", is("New Name")))
+                .andExpect(jsonPath("$.email", is("old@example.com")))
+                .andExpect(jsonPath("$.version", is(1)));
+
+        mockMvc.perform(get("/api/students/{id}", saved.getId()))
+                .andExpect(jsonPath("$.name", is("New Name")))
+                .andExpect(jsonPath("$.email", is("old@example.com")));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldReturn409WhenUpdatedEmailBelongsToAnotherStudent() throws Exception {
+        studentRepository.saveAndFlush(new Student("Alice Smith", "alice@example.com"));
+        Student bob = studentRepository.saveAndFlush(new Student("Bob Johnson", "bob@example.com"));
+
+        mockMvc.perform(put("/api/students/{id}", bob.getId())
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Student("Bob Johnson", "alice@example.com"))))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldReturn409WhenPatchedEmailBelongsToAnotherStudent() throws Exception {
+        studentRepository.saveAndFlush(new Student("Alice Smith", "alice@example.com"));
+        Student bob = studentRepository.saveAndFlush(new Student("Bob Johnson", "bob@example.com"));
+
+        mockMvc.perform(patch("/api/students/{id}", bob.getId())
+                        .with(csrf())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"email\":\"alice@example.com\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldRejectUpdateWithStaleIfMatch() throws Exception {
+        Student saved = studentRepository.saveAndFlush(new Student("Old Name", "old@example.com"));
+
+        mockMvc.perform(put("/api/students/{id}", saved.getId())
+                        .with(csrf())
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Student("New Name", "new@example.com"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        mockMvc.perform(put("/api/students/{id}", saved.getId())
+                        .with(csrf())
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Student("Lost Update", "lost@example.com"))))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void shouldDeleteStudent() throws Exception {
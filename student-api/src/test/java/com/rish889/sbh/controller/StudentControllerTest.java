@@ -3,6 +3,7 @@ package com.rish889.sbh.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rish889.sbh.entity.Student;
 import com.rish889.sbh.security.SecurityConfig;
+import com.rish889.sbh.service.StudentPage;
 import com.rish889.sbh.service.StudentService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,20 +13,25 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(StudentController.class)
-@Import(SecurityConfig.class)
+// the service is a fresh mock in every test, cached bodies would outlive it
+@WebMvcTest(controllers = StudentController.class, properties = "student-api.response-cache.enabled=false")
+@Import({SecurityConfig.class, IdempotencyStore.class, StudentPayloadCache.class})
 class StudentControllerTest {
 
     @Autowired
@@ -60,6 +66,57 @@ class StudentControllerTest {
         verify(studentService, times(1)).create(any(Student.class));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void create_ShouldReplayResponseForRepeatedIdempotencyKey() throws Exception {
+        // Given
+        Student savedStudent = new Student("John Doe", "john@example.com");
+        savedStudent.setId(1L);
+        when(studentService.create(any(Student.class))).thenReturn(savedStudent);
+        String body = objectMapper.writeValueAsString(new Student("John Doe", "john@example.com"));
+
+        // When & Then
+        mockMvc.perform(post("/api/students")
+                        .with(csrf())
+                        .header("Idempotency-Key", "create-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        mockMvc.perform(post("/api/students")
+                        .with(csrf())
+                        .header("Idempotency-Key", "create-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id", is(1)));
+
+        verify(studentService, times(1)).create(any(Student.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void create_ShouldRejectIdempotencyKeyReusedForDifferentPayload() throws Exception {
+        // Given
+        when(studentService.create(any(Student.class))).thenReturn(new Student("John Doe", "john@example.com"));
+        mockMvc.perform(post("/api/students")
+                        .with(csrf())
+                        .header("Idempotency-Key", "create-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Student("John Doe", "john@example.com"))))
+                .andExpect(status().isOk());
+
+        // When & Then
+        mockMvc.perform(post("/api/students")
+                        .with(csrf())
+                        .header("Idempotency-Key", "create-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Student("Jane Doe", "jane@example.com"))))
+                .andExpect(status().isUnprocessableContent());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void getAll_ShouldReturnListOfStudents() throws Exception {
@@ -100,6 +157,66 @@ class StudentControllerTest {
         verify(studentService, times(1)).getAll();
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getAll_WithCursor_ShouldReturnPageAndNextLink() throws Exception {
+        // Given
+        Student student = new Student("John Doe", "john@example.com");
+        student.setId(11L);
+
+        when(studentService.getPage(10L, 1)).thenReturn(new StudentPage<>(List.of(student), 11L));
+
+        // When & Then
+        mockMvc.perform(get("/api/students").param("after", "10").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link", "</api/students?after=11&limit=1>; rel=\"next\""))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(11)));
+
+        verify(studentService, never()).getAll();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getAll_OnLastPage_ShouldNotSendNextLink() throws Exception {
+        // Given
+        when(studentService.getPage(isNull(), eq(50))).thenReturn(new StudentPage<>(List.of(), null));
+
+        // When & Then
+        mockMvc.perform(get("/api/students").param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Link"))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @SuppressWarnings("unchecked")
+    void streamAll_ShouldWriteNdjson() throws Exception {
+        // Given
+        Student student1 = new Student("John Doe", "john@example.com");
+        student1.setId(1L);
+        Student student2 = new Student("Jane Smith", "jane@example.com");
+        student2.setId(2L);
+
+        doAnswer(invocation -> {
+            Consumer<Student> action = invocation.getArgument(1);
+            action.accept(student1);
+            action.accept(student2);
+            return null;
+        }).when(studentService).streamAll(isNull(), any(Consumer.class));
+
+        // When & Then
+        MvcResult result = mockMvc.perform(get("/api/students").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(matchesPattern("\\{[^\n]*\"id\":1[^\n]*}\n\\{[^\n]*\"id\":2[^\n]*}")));
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void getById_ShouldReturnStudent() throws Exception {
@@ -119,6 +236,69 @@ class StudentControllerTest {
         verify(studentService, times(1)).getById(1L);
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getById_ShouldSendVersionETag() throws Exception {
+        // Given
+        Student student = new Student("John Doe", "john@example.com");
+        student.setId(1L);
+        student.setVersion(3L);
+
+        when(studentService.getById(1L)).thenReturn(student);
+
+        // When & Then
+        mockMvc.perform(get("/api/students/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.version", is(3)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getById_ShouldReturn304WithoutLoadingWhenVersionMatches() throws Exception {
+        // Given
+        when(studentService.getVersion(1L)).thenReturn(Optional.of(3L));
+
+        // When & Then
+        mockMvc.perform(get("/api/students/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+
+        verify(studentService, never()).getById(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getById_ShouldReturnBodyWhenVersionChanged() throws Exception {
+        // Given
+        Student student = new Student("John Doe", "john@example.com");
+        student.setId(1L);
+        student.setVersion(4L);
+
+        when(studentService.getVersion(1L)).thenReturn(Optional.of(4L));
+        when(studentService.getById(1L)).thenReturn(student);
+
+        // When & Then
+        mockMvc.perform(get("/api/students/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.name", is("John Doe")));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getAll_ShouldReturn304WithoutLoadingWhenListTagMatches() throws Exception {
+        // Given
+        when(studentService.getAllTag()).thenReturn("W/\"2-abc\"");
+
+        // When & Then
+        mockMvc.perform(get("/api/students").header("If-None-Match", "W/\"2-abc\""))
+                .andExpect(status().isNotModified());
+
+        verify(studentService, never()).getAll();
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void update_ShouldReturnUpdatedStudent() throws Exception {
@@ -126,7 +306,7 @@ class StudentControllerTest {
         Student updatedStudent = new Student("John Updated", "john.updated@example.com");
         updatedStudent.setId(1L);
 
-        when(studentService.update(eq(1L), any(Student.class))).thenReturn(updatedStudent);
+        when(studentService.update(eq(1L), isNull(), any(Student.class))).thenReturn(updatedStudent);
 
         // When & Then
         mockMvc.perform(put("/api/students/1")
@@ -138,7 +318,7 @@ class StudentControllerTest {
                 .andExpect(jsonPath("$.name", is("John Updated")))
                 .andExpect(jsonPath("$.email", is("john.updated@example.com")));
 
-        verify(studentService, times(1)).update(eq(1L), any(Student.class));
+        verify(studentService, times(1)).update(eq(1L), isNull(), any(Student.class));
     }
 
     @Test
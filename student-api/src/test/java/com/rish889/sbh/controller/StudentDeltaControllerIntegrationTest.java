@@ -0,0 +1,148 @@
+package com.rish889.sbh.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import com.rish889.sbh.service.StudentChangeRelay;
+import com.rish889.sbh.service.StudentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// not @Transactional: each sync reads what earlier requests committed and the relay has seen
+@SpringBootTest(properties = "student-api.changes.poll-interval=20ms")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StudentDeltaControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentChangeRelay relay;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.findAll().forEach(student -> studentService.delete(student.getId()));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldReturnOnlyChangesAndDeletesSinceCursorInPages() throws Exception {
+        String since = catchUp();
+        Student alice = studentService.create(new Student("Alice Delta", "alice.delta@example.com"));
+        Student bob = studentService.create(new Student("Bob Delta", "bob.delta@example.com"));
+        studentService.create(new Student("Carol Delta", "carol.delta@example.com"));
+        studentService.update(alice.getId(), new Student("Alice Renamed", "alice.delta@example.com"));
+        studentService.delete(bob.getId());
+        awaitRelay();
+
+        // the first three outbox changes are the creates; each student is reported as it is now
+        String first = mockMvc.perform(get("/api/students/delta").param("since", since).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed[*].name", contains("Alice Renamed", "Carol Delta")))
+                .andExpect(jsonPath("$.changed[0].updatedAt").exists())
+                .andExpect(jsonPath("$.deleted", contains(bob.getId().intValue())))
+                .andExpect(jsonPath("$.hasMore", is(true)))
+                .andReturn().getResponse().getContentAsString();
+
+        String second = mockMvc.perform(get("/api/students/delta").param("since", next(first)).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed[*].name", contains("Alice Renamed")))
+                .andExpect(jsonPath("$.deleted", contains(bob.getId().intValue())))
+                .andExpect(jsonPath("$.hasMore", is(false)))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/students/delta").param("since", next(second)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed", empty()))
+                .andExpect(jsonPath("$.deleted", empty()));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldStartFullSyncWithoutCursorAndContinueWithLaterChanges() throws Exception {
+        studentService.create(new Student("Dave Delta", "dave.delta@example.com"));
+
+        String full = mockMvc.perform(get("/api/students/delta").param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed[*].name", hasItem("Dave Delta")))
+                .andExpect(jsonPath("$.next").isString())
+                .andReturn().getResponse().getContentAsString();
+        studentService.create(new Student("Erin Delta", "erin.delta@example.com"));
+        awaitRelay();
+
+        mockMvc.perform(get("/api/students/delta").param("since", next(full)).param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed[*].name", hasItem("Erin Delta")));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldRejectMalformedCursor() throws Exception {
+        mockMvc.perform(get("/api/students/delta").param("since", "yesterday"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldAnswerGoneForCursorWhoseChangesWerePurged() throws Exception {
+        mockMvc.perform(get("/api/students/delta").param("since", "-1"))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldAnswerGoneForTimestampCursorOfEarlierVersion() throws Exception {
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now().minus(1, ChronoUnit.DAYS));
+
+        mockMvc.perform(get("/api/students/delta").param("since", micros + "-0"))
+                .andExpect(status().isGone());
+    }
+
+    // until the relay's head covers every committed outbox row
+    private void awaitRelay() {
+        long newest = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from student_changes", Long.class);
+        await().atMost(Duration.ofSeconds(5)).until(() -> relay.head() >= newest);
+    }
+
+    // follows next until the client is caught up with everything earlier tests left behind
+    private String catchUp() throws Exception {
+        awaitRelay();
+        String body = mockMvc.perform(get("/api/students/delta").param("limit", "1000"))
+                .andReturn().getResponse().getContentAsString();
+        while (JsonPath.<Boolean>read(body, "$.hasMore")) {
+            body = mockMvc.perform(get("/api/students/delta").param("since", next(body)).param("limit", "1000"))
+                    .andReturn().getResponse().getContentAsString();
+        }
+        return next(body);
+    }
+
+    private static String next(String body) {
+        return JsonPath.read(body, "$.next");
+    }
+}
@@ -0,0 +1,146 @@
+package com.rish889.sbh.controller;
+
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StudentExportControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private List<Student> students;
+
+    @BeforeEach
+    void setUp() {
+        students = studentRepository.saveAll(List.of(
+                new Student("Smith, Alice", "alice@example.com"),
+                new Student("Bob Johnson", "bob@example.com"),
+                new Student("Carol White", "carol@example.com")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldExportGzippedCsvWithHeader() throws Exception {
+        MvcResult result = export("/api/students/export", "gzip, deflate");
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"students.csv\""));
+
+        List<String> lines = gunzip(result.getResponse().getContentAsByteArray()).lines().toList();
+        assertThat(lines).hasSize(4);
+        assertThat(lines.getFirst()).isEqualTo("id,name,email,version,created_at,updated_at");
+        assertThat(lines.get(1)).startsWith(students.get(0).getId() + ",\"Smith, Alice\",alice@example.com,0,");
+        assertThat(lines.get(3)).startsWith(students.get(2).getId() + ",Carol White,carol@example.com,0,");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldResumeCsvAfterAnIdWithoutHeader() throws Exception {
+        MvcResult result = export("/api/students/export?after=" + students.get(0).getId(), null);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+
+        assertThat(result.getResponse().getContentAsString().lines())
+                .extracting(line -> line.substring(0, line.indexOf(',')))
+                .containsExactly(students.get(1).getId().toString(), students.get(2).getId().toString());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldExportNdjson() throws Exception {
+        MvcResult result = export("/api/students/export?format=ndjson", null);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"));
+
+        List<String> lines = result.getResponse().getContentAsString().lines().toList();
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(1)).contains("\"id\":" + students.get(1).getId(),
+                "\"name\":\"Bob Johnson\"", "\"email\":\"bob@example.com\"", "\"createdAt\":");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldExportEveryPartitionInParallel() throws Exception {
+        MvcResult result = export("/api/students/export?parallel=true", null);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        List<String> lines = result.getResponse().getContentAsString().lines().toList();
+        assertThat(lines.getFirst()).isEqualTo("id,name,email,version,created_at,updated_at");
+        assertThat(lines.subList(1, lines.size()))
+                .extracting(line -> Long.valueOf(line.substring(0, line.indexOf(','))))
+                .containsExactlyInAnyOrderElementsOf(students.stream().map(Student::getId).toList());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldRejectResumingParallelExport() throws Exception {
+        mockMvc.perform(get("/api/students/export?parallel=true&after=1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldRejectUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/students/export?format=parquet"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MvcResult export(String url, String acceptEncoding) throws Exception {
+        var request = get(url);
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static String gunzip(byte[] body) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
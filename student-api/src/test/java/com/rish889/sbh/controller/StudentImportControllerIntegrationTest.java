@@ -0,0 +1,146 @@
+package com.rish889.sbh.controller;
+
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import com.rish889.sbh.service.StudentImportService;
+import com.rish889.sbh.service.StudentImportSummary;
+import com.rish889.sbh.service.StudentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// not @Transactional: the import commits one transaction per chunk
+@SpringBootTest(properties = "student-api.bulk-import.chunk-size=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StudentImportControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentImportService importService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldImportCsvInChunksAndReportRejectedRows() throws Exception {
+        String response = mockMvc.perform(post("/api/students/import")
+                        .with(csrf())
+                        .contentType("text/csv")
+                        .content("""
+                                email,name,extra
+                                alice@example.com,"Smith, Alice",x
+                                bob@example.com,Bob Johnson
+                                ,No Email
+                                carol@example.com,Carol White
+                                alice@example.com,Alice Renamed
+                                "broken,Broken
+                                """))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(response.lines()).containsExactly(
+                "{\"type\":\"rejected\",\"line\":4,\"error\":\"email is required\",\"content\":\",No Email\"}",
+                "{\"type\":\"summary\",\"lines\":5,\"created\":2,\"updated\":0,\"unchanged\":0,\"rejected\":1,\"done\":false}",
+                "{\"type\":\"rejected\",\"line\":7,\"error\":\"unterminated quoted field\",\"content\":\"\\\"broken,Broken\"}",
+                "{\"type\":\"summary\",\"lines\":7,\"created\":3,\"updated\":1,\"unchanged\":0,\"rejected\":2,\"done\":false}",
+                "{\"type\":\"summary\",\"lines\":7,\"created\":3,\"updated\":1,\"unchanged\":0,\"rejected\":2,\"done\":true}");
+        assertThat(studentRepository.findAll()).extracting(Student::getName)
+                .containsExactlyInAnyOrder("Alice Renamed", "Bob Johnson", "Carol White");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldImportNdjsonAndLeaveMatchingRowsUnchanged() throws Exception {
+        Student dan = studentService.create(new Student("Dan Brown", "dan@example.com"));
+
+        String response = mockMvc.perform(post("/api/students/import")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"name":"Dan Brown","email":"dan@example.com"}
+                                {not json
+                                {"name":"Eve Adams","email":"eve@example.com"}
+                                """))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(response.lines().toList().getLast()).isEqualTo(
+                "{\"type\":\"summary\",\"lines\":3,\"created\":1,\"updated\":0,\"unchanged\":1,\"rejected\":1,\"done\":true}");
+        assertThat(studentService.getById(dan.getId()).getVersion()).isEqualTo(dan.getVersion());
+        assertThat(studentRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldRejectCsvWithoutRequiredColumns() throws Exception {
+        mockMvc.perform(post("/api/students/import")
+                        .with(csrf())
+                        .contentType("text/csv")
+                        .content("name,phone\nAlice,123\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldImportFileAndWriteDeadLetters(@TempDir Path directory) throws Exception {
+        Path roster = directory.resolve("roster.csv");
+        Files.writeString(roster, "name,email\nFrank Ocean,frank@example.com\nNo Email,\n");
+
+        StudentImportSummary summary = importService.importFile(roster);
+
+        assertThat(summary).isEqualTo(new StudentImportSummary(3, 1, 0, 0, 1, true));
+        assertThat(Files.readAllLines(directory.resolve("roster.csv.rejected.ndjson"))).containsExactly(
+                "{\"type\":\"rejected\",\"line\":3,\"error\":\"email is required\",\"content\":\"No Email,\"}");
+    }
+
+    @Test
+    void shouldReplayChunkTheDatabaseRefusesRowByRow(@TempDir Path directory) throws Exception {
+        Path roster = directory.resolve("roster.csv");
+        Files.writeString(roster, "name,email\nGrace Hopper,grace@example.com\nRefused Row,refused@example.com\nHedy Lamarr,hedy@example.com\n");
+        jdbcTemplate.execute("alter table students add constraint students_import_refused check (name <> 'Refused Row')");
+        StudentImportSummary summary;
+        try {
+            summary = importService.importFile(roster);
+        } finally {
+            jdbcTemplate.execute("alter table students drop constraint students_import_refused");
+        }
+
+        assertThat(summary).isEqualTo(new StudentImportSummary(4, 2, 0, 0, 1, true));
+        assertThat(studentRepository.findAll()).extracting(Student::getName)
+                .containsExactlyInAnyOrder("Grace Hopper", "Hedy Lamarr");
+        assertThat(Files.readAllLines(directory.resolve("roster.csv.rejected.ndjson"))).singleElement().satisfies(line -> assertThat(line)
+                .startsWith("{\"type\":\"rejected\",\"line\":3,")
+                .containsIgnoringCase("students_import_refused")
+                .endsWith("\"content\":\"Refused Row,refused@example.com\"}"));
+    }
+}
@@ -0,0 +1,170 @@
+package com.rish889.sbh.controller;
+
+import com.rish889.sbh.datasource.ReadYourWrites;
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import com.rish889.sbh.service.StudentPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// not @Transactional: invalidation listens for committed writes
+@SpringBootTest(properties = {
+        "student-api.response-cache.enabled=true",
+        "student-api.response-cache.min-compress-size=0"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StudentPayloadCacheIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StudentPayloadCache payloadCache;
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldServeTheCachedBodyUntilAWriteThroughTheServiceCommits() throws Exception {
+        Student saved = studentRepository.save(new Student("Alice Smith", "alice@example.com"));
+        mockMvc.perform(get("/api/students/{id}", saved.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Alice Smith")));
+
+        // behind the application's back: the cached body does not see it
+        jdbcTemplate.update("update students set name = 'Changed Directly' where id = ?", saved.getId());
+        mockMvc.perform(get("/api/students/{id}", saved.getId()))
+                .andExpect(jsonPath("$.name", is("Alice Smith")));
+
+        mockMvc.perform(put("/api/students/{id}", saved.getId())
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Alice Renamed\",\"email\":\"alice@example.com\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/students/{id}", saved.getId()))
+                .andExpect(jsonPath("$.name", is("Alice Renamed")))
+                .andExpect(jsonPath("$.version", is(1)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldSendThePrecompressedPageToClientsThatAcceptGzip() throws Exception {
+        List<Student> saved = studentRepository.saveAll(List.of(
+                new Student("Bob Johnson", "bob@example.com"),
+                new Student("Carol White", "carol@example.com"),
+                new Student("Dan Brown", "dan@example.com")));
+        String after = String.valueOf(saved.getFirst().getId() - 1);
+
+        String plain = mockMvc.perform(get("/api/students").param("after", after).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().string(HttpHeaders.LINK, "</api/students?after=" + saved.get(1).getId() + "&limit=2>; rel=\"next\""))
+                .andReturn().getResponse().getContentAsString();
+
+        MvcResult compressed = mockMvc.perform(get("/api/students").param("after", after).param("limit", "2")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.LINK, "</api/students?after=" + saved.get(1).getId() + "&limit=2>; rel=\"next\""))
+                .andReturn();
+
+        assertThat(gunzip(compressed.getResponse().getContentAsByteArray())).isEqualTo(plain);
+        assertThat(compressed.getResponse().getHeader(HttpHeaders.ETAG))
+                .isNotNull()
+                .isEqualTo(mockMvc.perform(get("/api/students").param("after", after).param("limit", "2"))
+                        .andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+        assertThat(plain).contains("Bob Johnson", "Carol White").doesNotContain("Dan Brown");
+
+        mockMvc.perform(get("/api/students").param("after", after).param("limit", "2")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldTagTheCompressedStudentBodyApartFromThePlainOne() throws Exception {
+        Student saved = studentRepository.save(new Student("Erin Green", "erin@example.com"));
+
+        mockMvc.perform(get("/api/students/{id}", saved.getId()))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+        mockMvc.perform(get("/api/students/{id}", saved.getId()).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0-gzip\""));
+
+        mockMvc.perform(get("/api/students/{id}", saved.getId()).header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0-gzip\""))
+                .andExpect(status().isNotModified());
+        // the compressed tag does not validate the plain body
+        mockMvc.perform(get("/api/students/{id}", saved.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0-gzip\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+
+        mockMvc.perform(put("/api/students/{id}", saved.getId())
+                        .with(csrf())
+                        .header(HttpHeaders.IF_MATCH, "\"0-gzip\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Erin Renamed\",\"email\":\"erin@example.com\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldNotServePagesCachedForUnpinnedClientsToPinnedOnes() {
+        // given: a page read from a replica that has not seen the client's write yet
+        payloadCache.page(-1L, 1, () -> new StudentPage<>(List.of(new Student("Stale Replica", "stale@example.com")), null));
+
+        // when
+        ReadYourWrites.pin();
+        StudentPayloadCache.Payload pinned;
+        try {
+            pinned = payloadCache.page(-1L, 1, () -> new StudentPage<>(List.of(new Student("Fresh Primary", "fresh@example.com")), null));
+        } finally {
+            ReadYourWrites.unpin();
+        }
+
+        // then
+        assertThat(new String(pinned.json(), StandardCharsets.UTF_8)).contains("Fresh Primary");
+        assertThat(new String(payloadCache.page(-1L, 1, () -> new StudentPage<>(List.of(), null)).json(), StandardCharsets.UTF_8)).contains("Stale Replica");
+    }
+
+    private static String gunzip(byte[] body) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
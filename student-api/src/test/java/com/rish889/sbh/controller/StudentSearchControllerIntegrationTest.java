@@ -0,0 +1,93 @@
+package com.rish889.sbh.controller;
+
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import com.rish889.sbh.service.StudentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// not @Transactional: the in-memory search index follows committed change events
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StudentSearchControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @BeforeEach
+    void setUp() {
+        studentService.create(new Student("Alice Smith", "alice@example.com"));
+        studentService.create(new Student("Smith Jones", "sj@example.com"));
+        studentService.create(new Student("Bob Johnson", "bob@example.com"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.findAll().forEach(student -> studentService.delete(student.getId()));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldReturnRankedMatches() throws Exception {
+        mockMvc.perform(get("/api/students/search").param("q", "Smi"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name", is("Smith Jones")))
+                .andExpect(jsonPath("$[1].name", is("Alice Smith")))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldAdvertiseNextPage() throws Exception {
+        mockMvc.perform(get("/api/students/search").param("q", "smith").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().string(HttpHeaders.LINK,
+                        "</api/students/search?q=smith&page=1&size=1>; rel=\"next\""));
+
+        mockMvc.perform(get("/api/students/search").param("q", "smith").param("page", "1").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldNotReturnDeletedStudents() throws Exception {
+        Long bob = studentRepository.findAll().stream()
+                .filter(student -> student.getName().equals("Bob Johnson"))
+                .findFirst().orElseThrow().getId();
+        studentService.delete(bob);
+
+        mockMvc.perform(get("/api/students/search").param("q", "bob"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", empty()));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldRejectTooShortQuery() throws Exception {
+        mockMvc.perform(get("/api/students/search").param("q", " a "))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,159 @@
+package com.rish889.sbh.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica1;
+    private EmbeddedDatabase replica2;
+    private SwitchableDataSource replica1Switch;
+    private SwitchableDataSource replica2Switch;
+    private ReplicaDataSource replicas;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = node("primary");
+        replica1 = node("replica1");
+        replica2 = node("replica2");
+        replica1Switch = new SwitchableDataSource(replica1);
+        replica2Switch = new SwitchableDataSource(replica2);
+        replicas = new ReplicaDataSource(List.of(replica1Switch, replica2Switch));
+        LazyConnectionDataSourceProxy dataSource =
+                new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primary, replicas));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.unpin();
+        primary.shutdown();
+        replica1.shutdown();
+        replica2.shutdown();
+    }
+
+    @Test
+    void shouldSpreadReadOnlyTransactionsOverReplicas() {
+        // when
+        List<String> nodes = List.of(readOnlyNode(), readOnlyNode(), readOnlyNode(), readOnlyNode());
+
+        // then
+        assertThat(nodes).containsExactlyInAnyOrder("replica1", "replica1", "replica2", "replica2");
+    }
+
+    @Test
+    void shouldSendWritesAndNonTransactionalWorkToPrimary() {
+        // when & then
+        String node = readWrite.execute(status -> currentNode());
+        assertThat(node).isEqualTo("primary");
+        assertThat(currentNode()).isEqualTo("primary");
+    }
+
+    @Test
+    void shouldKeepPinnedThreadOnPrimary() {
+        // given
+        ReadYourWrites.pin();
+
+        // when & then
+        assertThat(readOnlyNode()).isEqualTo("primary");
+    }
+
+    @Test
+    void shouldSkipFailedReplicaUntilHealthCheckPasses() {
+        // given
+        replica2Switch.down = true;
+
+        // when
+        List<String> whileDown = List.of(readOnlyNode(), readOnlyNode(), readOnlyNode());
+        replica2Switch.down = false;
+        List<String> beforeCheck = List.of(readOnlyNode(), readOnlyNode());
+        replicas.checkHealth();
+        List<String> afterCheck = List.of(readOnlyNode(), readOnlyNode());
+
+        // then
+        assertThat(whileDown).containsOnly("replica1");
+        assertThat(beforeCheck).containsOnly("replica1");
+        assertThat(afterCheck).containsExactlyInAnyOrder("replica1", "replica2");
+        assertThat(replicas.healthyReplicas()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenNoReplicaIsHealthy() {
+        // given
+        replica1Switch.down = true;
+        replica2Switch.down = true;
+
+        // when & then
+        assertThat(List.of(readOnlyNode(), readOnlyNode())).containsOnly("primary");
+    }
+
+    @Test
+    void shouldConnectToReplicasWithGivenCredentials() throws SQLException {
+        // when
+        try (Connection connection = replicas.getConnection("sa", "")) {
+
+            // then
+            assertThat(new JdbcTemplate(new SingleConnectionDataSource(connection, true))
+                    .queryForObject("select name from node", String.class)).startsWith("replica");
+        }
+    }
+
+    private String readOnlyNode() {
+        return readOnly.execute(status -> currentNode());
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static EmbeddedDatabase node(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        new JdbcTemplate(database).execute("create table node (name varchar(16))");
+        new JdbcTemplate(database).update("insert into node values (?)", name);
+        return database;
+    }
+
+    private static final class SwitchableDataSource extends DelegatingDataSource {
+
+        private volatile boolean down;
+
+        private SwitchableDataSource(EmbeddedDatabase target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.rish889.sbh.datasource;
+
+import com.rish889.sbh.repository.StudentRepository;
+import com.rish889.sbh.service.StudentService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// two in-memory H2 databases stand in for the replicas; they only hold a row the primary does not have
+@SpringBootTest(properties = {
+        "student-api.replicas.urls[0]=" + ReplicaRoutingIntegrationTest.REPLICA_1,
+        "student-api.replicas.urls[1]=" + ReplicaRoutingIntegrationTest.REPLICA_2,
+        "student-api.replicas.username=sa",
+        "student-api.replicas.read-your-writes-window=1m"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicaRoutingIntegrationTest {
+
+    static final String REPLICA_1 = "jdbc:h2:mem:replica1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_2 = "jdbc:h2:mem:replica2;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @BeforeAll
+    static void createReplicas() {
+        for (String url : new String[]{REPLICA_1, REPLICA_2}) {
+            DriverManagerDataSource replica = new DriverManagerDataSource(url, "sa", "");
+            Flyway.configure()
+                    .dataSource(replica)
+                    .locations("classpath:db/migration", "classpath:db/vendor/h2")
+                    .load()
+                    .migrate();
+            new JdbcTemplate(replica).update("""
+                    merge into students (id, name, email, version) key (id)
+                    values (1000000, 'Replica Only', 'replica.only@example.com', 0)
+                    """);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.findAll().forEach(student -> studentService.delete(student.getId()));
+    }
+
+    @Test
+    void shouldReadFromReplicasUntilClientWrites() throws Exception {
+        mockMvc.perform(get("/api/students").with(admin("reader")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", hasItem("Replica Only")));
+
+        mockMvc.perform(post("/api/students")
+                        .with(admin("writer"))
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Written Now\",\"email\":\"written.now@example.com\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/students").with(admin("writer")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", hasItem("Written Now")))
+                .andExpect(jsonPath("$[*].name", not(hasItem("Replica Only"))));
+
+        mockMvc.perform(get("/api/students").with(admin("reader")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", hasItem("Replica Only")));
+    }
+
+    @Test
+    void shouldReadStudentBodiesAndTheirVersionsFromThePrimary() {
+        // when & then
+        assertThat(studentService.getVersion(1000000L)).isEmpty();
+        assertThatThrownBy(() -> studentService.getById(1000000L)).hasMessage("Student not found");
+    }
+
+    private static RequestPostProcessor admin(String name) {
+        return user(name).roles("ADMIN");
+    }
+}
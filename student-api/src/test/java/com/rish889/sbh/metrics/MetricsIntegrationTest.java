@@ -0,0 +1,103 @@
+package com.rish889.sbh.metrics;
+
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "student-api.metrics.max-statements-per-request=1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldTimeServiceAndRepositoryAndCountStatementsPerRequest() throws Exception {
+        studentRepository.save(new Student("Alice Smith", "alice@example.com"));
+
+        mockMvc.perform(get("/api/students").param("limit", "10"))
+                .andExpect(status().isOk());
+
+        assertThat(registry.get("student.service").tag("method", "getPage").timer().count()).isEqualTo(1);
+        assertThat(registry.get("spring.data.repository.invocations")
+                .tag("method", "findByIdGreaterThanOrderByIdAsc").timer().count()).isPositive();
+        assertThat(registry.get("jpa.statements.per.request").tag("uri", "/api/students").tag("method", "GET")
+                .summary().totalAmount()).isEqualTo(1);
+        assertThat(registry.get("hikaricp.connections.active").gauge()).isNotNull();
+        assertThat(registry.find("jpa.statements.excessive").tag("uri", "/api/students").counter()).isNull();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldCountRequestsOverTheStatementThreshold() throws Exception {
+        Student saved = studentRepository.save(new Student("Alice Smith", "alice@example.com"));
+
+        // version lookup for the stale tag, then the student itself
+        mockMvc.perform(get("/api/students/{id}", saved.getId()).header("If-None-Match", "\"99\""))
+                .andExpect(status().isOk());
+
+        assertThat(registry.get("jpa.statements.excessive").tag("uri", "/api/students/{id}").tag("method", "GET")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldReadSparseRepresentationsAndTheirTagInOneStatement() throws Exception {
+        Student saved = studentRepository.save(new Student("Alice Smith", "alice@example.com"));
+        double before = excessive("/api/students/{id}");
+
+        mockMvc.perform(get("/api/students/{id}", saved.getId()).param("fields", "name").header("If-None-Match", "\"99\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/students").param("fields", "name").header("If-None-Match", "W/\"0-0\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/students").param("fields", "name").param("limit", "10"))
+                .andExpect(status().isOk());
+
+        assertThat(excessive("/api/students/{id}")).isEqualTo(before);
+        assertThat(excessive("/api/students")).isZero();
+    }
+
+    @Test
+    void shouldAnswerProbesWithoutTokenButNotFullHealth() throws Exception {
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+        mockMvc.perform(get("/actuator/health/liveness"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private double excessive(String uri) {
+        Counter counter = registry.find("jpa.statements.excessive").tag("uri", uri).tag("method", "GET").counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,249 @@
+package com.rish889.sbh.repository;
+
+import com.rish889.sbh.EmbeddedPostgresDatabase;
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.service.DuplicateEmailException;
+import com.rish889.sbh.service.StudentExportService;
+import com.rish889.sbh.service.StudentFileFormat;
+import com.rish889.sbh.service.StudentPartitions;
+import com.rish889.sbh.service.StudentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// the partitioned table, its email triggers and COPY only exist on PostgreSQL
+@SpringBootTest(properties = "student-api.partitions.parallelism=3")
+@ActiveProfiles("test")
+class PartitionedStudentsIntegrationTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresDatabase.register(registry);
+    }
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentPartitions partitions;
+
+    @Autowired
+    private StudentExportService exportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void shouldSpreadStudentsOverHashPartitions() {
+        // given
+        saveStudents(200);
+
+        // when
+        List<String> names = partitions.names();
+
+        // then
+        assertThat(names).hasSize(16).allMatch(name -> name.startsWith("students_p"));
+        long populated = names.stream()
+                .filter(name -> jdbcTemplate.queryForObject("select count(*) from " + name, Long.class) > 0)
+                .count();
+        assertThat(populated).isGreaterThan(8);
+    }
+
+    @Test
+    void shouldPruneToOnePartitionWhenLookingUpById() {
+        // when
+        String plan = String.join("\n", jdbcTemplate.queryForList("explain select * from students where id = 42", String.class));
+
+        // then
+        assertThat(Pattern.compile("students_p\\d+").matcher(plan).results().map(MatchResult::group).distinct())
+                .hasSize(1);
+    }
+
+    @Test
+    void shouldCountAcrossPartitions() {
+        // given
+        saveStudents(120);
+
+        // when
+        long count = studentService.count();
+
+        // then
+        assertThat(count).isEqualTo(120);
+    }
+
+    @Test
+    void shouldCountSequentiallyWhileAParallelScanHoldsItsShareOfThePool() throws Exception {
+        // given: a pool of 10 leaves room for one parallel scan of 3 workers, and it is busy
+        saveStudents(60);
+        double sequentialBefore = registry.get("student.partitions.sequential.scans").functionCounter().count();
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<List<Object>> busy = executor.submit(() -> partitions.scan((connection, partition) -> {
+                scanning.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            try {
+                scanning.await();
+
+                // when
+                long count = studentService.count();
+
+                // then
+                assertThat(count).isEqualTo(60);
+                assertThat(registry.get("student.partitions.sequential.scans").functionCounter().count())
+                        .isEqualTo(sequentialBefore + 1);
+            } finally {
+                release.countDown();
+            }
+            assertThat(busy.get()).hasSize(16);
+        }
+    }
+
+    @Test
+    void shouldUpsertByEmailWithoutUniqueConstraintOnTable() {
+        // given
+        Student created = studentService.create(new Student("Alice Smith", "alice@example.com"));
+
+        // when
+        Student renamed = studentService.create(new Student("Alicia Smith", "alice@example.com"));
+        Student unchanged = studentService.create(new Student("Alicia Smith", "alice@example.com"));
+
+        // then
+        assertThat(renamed.getId()).isEqualTo(created.getId());
+        assertThat(renamed.getName()).isEqualTo("Alicia Smith");
+        assertThat(renamed.getVersion()).isEqualTo(1);
+        assertThat(unchanged.getId()).isEqualTo(created.getId());
+        assertThat(unchanged.getVersion()).isEqualTo(1);
+        assertThat(studentRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectEmailTakenByStudentInAnotherPartition() {
+        // given
+        Student alice = studentService.create(new Student("Alice Smith", "alice@example.com"));
+        Student bob = studentService.create(new Student("Bob Jones", "bob@example.com"));
+
+        // when & then
+        assertThatThrownBy(() -> studentService.update(bob.getId(), new Student("Bob Jones", "alice@example.com")))
+                .isInstanceOf(DuplicateEmailException.class);
+        assertThatThrownBy(() -> studentRepository.saveAndFlush(new Student("Other Alice", "alice@example.com")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(studentService.getById(bob.getId()).getEmail()).isEqualTo("bob@example.com");
+
+        // a deleted student's email is free again
+        studentService.delete(alice.getId());
+        Student moved = studentService.update(bob.getId(), new Student("Bob Jones", "alice@example.com"));
+        assertThat(moved.getEmail()).isEqualTo("alice@example.com");
+        assertThat(jdbcTemplate.queryForList("select email from student_emails order by email", String.class))
+                .containsExactly("alice@example.com");
+    }
+
+    @Test
+    void shouldCopyUpsertIntoPartitionedTable() {
+        // given
+        Student existing = studentService.create(new Student("Alice Smith", "alice@example.com"));
+        studentService.create(new Student("Bob Jones", "bob@example.com"));
+
+        Student renamed = new Student("Alicia Smith", "alice@example.com");
+        Student unchanged = new Student("Bob Jones", "bob@example.com");
+
+        // when
+        List<Student> changed = studentRepository.copyUpsert(new ArrayList<>(List.of(
+                renamed,
+                unchanged,
+                new Student("Carol White", "carol@example.com"))));
+
+        // then: rows for taken emails drew no id from the sequence
+        assertThat(renamed.getId()).isNull();
+        assertThat(unchanged.getId()).isNull();
+        assertThat(changed).extracting(Student::getEmail).containsExactlyInAnyOrder("alice@example.com", "carol@example.com");
+        assertThat(changed).filteredOn(student -> student.getEmail().equals("alice@example.com"))
+                .singleElement()
+                .satisfies(student -> {
+                    assertThat(student.getId()).isEqualTo(existing.getId());
+                    assertThat(student.getVersion()).isEqualTo(1);
+                });
+        assertThat(studentRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldExportEveryPartitionInParallel() {
+        // given
+        List<Long> ids = saveStudents(150);
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+
+        // when
+        exportService.exportParallel(StudentFileFormat.CSV, csv);
+        exportService.exportParallel(StudentFileFormat.NDJSON, ndjson);
+
+        // then
+        String[] csvLines = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(csvLines[0]).isEqualTo("id,name,email,version,created_at,updated_at");
+        assertThat(IntStream.range(1, csvLines.length).mapToObj(i -> Long.parseLong(csvLines[i].split(",")[0])))
+                .containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(ndjson.toString(StandardCharsets.UTF_8).split("\n")).hasSize(150)
+                .allMatch(line -> line.startsWith("{") && line.endsWith("}"));
+    }
+
+    @Test
+    void shouldKeepIdOrderInRegularExport() {
+        // given
+        List<Long> ids = saveStudents(50);
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+
+        // when
+        exportService.export(StudentFileFormat.CSV, null, csv);
+
+        // then
+        String[] lines = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(IntStream.range(1, lines.length).mapToObj(i -> Long.parseLong(lines[i].split(",")[0])))
+                .containsExactlyElementsOf(ids.stream().sorted().toList());
+    }
+
+    private List<Long> saveStudents(int count) {
+        List<Student> students = IntStream.range(0, count)
+                .mapToObj(i -> new Student("Student " + i, "student" + i + "@example.com"))
+                .toList();
+        return studentRepository.saveAll(students).stream().map(Student::getId).toList();
+    }
+}
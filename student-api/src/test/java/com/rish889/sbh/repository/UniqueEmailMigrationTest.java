@@ -0,0 +1,60 @@
+package com.rish889.sbh.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UniqueEmailMigrationTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void shouldArchiveDuplicateEmailsInsteadOfDroppingThem() {
+        // given
+        migrate("3");
+        jdbcTemplate.update("insert into students (id, name, email) values (1, 'Alice', 'alice@example.com')");
+        jdbcTemplate.update("insert into students (id, name, email) values (2, 'Alice Retry', 'alice@example.com')");
+        jdbcTemplate.update("insert into students (id, name, email) values (3, 'Bob', 'bob@example.com')");
+
+        // when
+        migrate("5");
+
+        // then
+        assertThat(jdbcTemplate.queryForList("select id from students order by id", Long.class)).containsExactly(1L, 3L);
+        assertThat(jdbcTemplate.queryForMap("select id, name, kept_id from student_email_duplicates"))
+                .containsEntry("ID", 2L)
+                .containsEntry("NAME", "Alice Retry")
+                .containsEntry("KEPT_ID", 1L);
+    }
+
+    private void migrate(String target) {
+        Flyway.configure()
+                .dataSource(database)
+                .locations("classpath:db/migration", "classpath:db/vendor/h2")
+                .target(target)
+                .load()
+                .migrate();
+    }
+}
@@ -0,0 +1,93 @@
+package com.rish889.sbh.security;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void shouldRejectOnceTheLimitIsInFlight() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = limiter(2);
+
+        // when & then
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        // when
+        limiter.release();
+
+        // then
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void shouldGrowByAboutOneAfterALimitsWorthOfFastRequestsUnderLoad() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = limiter(4);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire();
+        }
+
+        // when: three requests stay in flight, one finishing as the next starts
+        for (int i = 0; i < 5; i++) {
+            limiter.release(FAST);
+            limiter.tryAcquire();
+        }
+
+        // then
+        assertThat(limiter.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldNotGrowWhileMostlyIdle() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST);
+        }
+
+        // then
+        assertThat(limiter.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldBackOffOnSlowRequestsDownToTheMinimum() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        // when
+        limiter.tryAcquire();
+        limiter.release(SLOW);
+
+        // then
+        assertThat(limiter.limit()).isEqualTo(5);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(SLOW);
+        }
+
+        // then
+        assertThat(limiter.limit()).isEqualTo(2);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(new StudentApiProperties.ConcurrencyLimit(true, initialLimit, 2, 100,
+                Duration.ofMillis(500), 0.5));
+    }
+}
@@ -0,0 +1,270 @@
+package com.rish889.sbh.security;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class CachingJwkSourceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer issuer;
+    private String issuerUri;
+    private final AtomicInteger jwksRequests = new AtomicInteger();
+    private volatile CountDownLatch jwksGate = new CountDownLatch(0);
+    private volatile JWKSet published;
+    private volatile String metadataIssuer;
+
+    private RSAKey firstKey;
+    private RSAKey rotatedKey;
+    private CachingJwkSource source;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        firstKey = new RSAKeyGenerator(2048).keyID("first").generate();
+        rotatedKey = new RSAKeyGenerator(2048).keyID("rotated").generate();
+        published = new JWKSet(firstKey);
+
+        issuer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        issuerUri = "http://localhost:" + issuer.getAddress().getPort() + "/realms/test";
+        metadataIssuer = issuerUri;
+        issuer.createContext("/realms/test/.well-known/openid-configuration", exchange -> {
+            byte[] body = ("{\"issuer\":\"" + metadataIssuer + "\",\"jwks_uri\":\"" + issuerUri + "/certs\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        issuer.createContext("/realms/test/certs", exchange -> {
+            jwksRequests.incrementAndGet();
+            try {
+                jwksGate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = published.toString(true).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        issuer.setExecutor(Executors.newCachedThreadPool());
+        issuer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (source != null) {
+            source.stop();
+        }
+        issuer.stop(0);
+    }
+
+    @Test
+    void shouldNotContactIssuerUntilFirstToken() {
+        // when
+        source = newSource(null, Duration.ofSeconds(30));
+
+        // then
+        assertThat(jwksRequests.get()).isZero();
+    }
+
+    @Test
+    void shouldFetchOnceForConcurrentTokensWithUnknownKid() throws Exception {
+        // given
+        source = newSource(null, Duration.ofSeconds(30));
+        JwtDecoder decoder = decoder(source);
+        String token = sign(firstKey);
+        jwksGate = new CountDownLatch(1);
+
+        // when
+        List<Future<Jwt>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> decoder.decode(token)));
+            }
+            await().until(() -> jwksRequests.get() == 1);
+            Thread.sleep(100);
+            jwksGate.countDown();
+        }
+
+        // then
+        for (Future<Jwt> result : results) {
+            assertThat(result.get().getSubject()).isEqualTo("john");
+        }
+        assertThat(jwksRequests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldValidateFromCacheFileWhileIssuerIsDown() {
+        // given
+        Path cacheDirectory = tempDir.resolve("jwks");
+        source = newSource(cacheDirectory, Duration.ofSeconds(30));
+        decoder(source).decode(sign(firstKey));
+        issuer.stop(0);
+
+        // when
+        CachingJwkSource restarted = newSource(cacheDirectory, Duration.ofSeconds(30));
+
+        // then
+        assertThat(decoder(restarted).decode(sign(firstKey)).getSubject()).isEqualTo("john");
+        assertThat(restarted.fetchedAt()).isNotEqualTo(Instant.EPOCH);
+        assertThat(restarted.cacheFile().getFileName().toString()).startsWith("jwks-").endsWith(".json");
+    }
+
+    @Test
+    void shouldIgnoreCacheFileOthersCanWrite() throws Exception {
+        // given
+        Path cacheDirectory = tempDir.resolve("jwks");
+        source = newSource(cacheDirectory, Duration.ofSeconds(30));
+        decoder(source).decode(sign(firstKey));
+        Files.setPosixFilePermissions(source.cacheFile(), PosixFilePermissions.fromString("rw-rw-rw-"));
+        issuer.stop(0);
+
+        // when
+        CachingJwkSource restarted = newSource(cacheDirectory, Duration.ofSeconds(30));
+
+        // then
+        assertThat(restarted.fetchedAt()).isEqualTo(Instant.EPOCH);
+        assertThatThrownBy(() -> decoder(restarted).decode(sign(firstKey))).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void shouldRejectMetadataOfAnotherIssuer() {
+        // given
+        metadataIssuer = "http://localhost:1/realms/other";
+        source = newSource(null, Duration.ofSeconds(30));
+
+        // when & then
+        assertThatThrownBy(() -> decoder(source).decode(sign(firstKey))).isInstanceOf(JwtException.class);
+        assertThat(jwksRequests.get()).isZero();
+    }
+
+    @Test
+    void shouldAcceptEveryAlgorithmTheIssuersKeysSupport() throws Exception {
+        // given
+        ECKey ecKey = new ECKeyGenerator(Curve.P_256).keyID("ec").generate();
+        published = new JWKSet(List.of(firstKey, ecKey));
+        source = newSource(null, Duration.ofSeconds(30));
+        JwtDecoder decoder = decoder(source);
+
+        // when & then
+        assertThat(decoder.decode(sign(ecKey, SignatureAlgorithm.ES256)).getSubject()).isEqualTo("john");
+        assertThat(decoder.decode(sign(firstKey, SignatureAlgorithm.PS256)).getSubject()).isEqualTo("john");
+    }
+
+    @Test
+    void shouldPickUpRotatedKeyOnUnknownKid() {
+        // given
+        source = newSource(null, Duration.ZERO);
+        JwtDecoder decoder = decoder(source);
+        decoder.decode(sign(firstKey));
+
+        // when
+        published = new JWKSet(List.of(firstKey, rotatedKey));
+
+        // then
+        assertThat(decoder.decode(sign(rotatedKey)).getSubject()).isEqualTo("john");
+        assertThat(jwksRequests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldThrottleRefetchesForUnknownKid() throws Exception {
+        // given
+        source = newSource(null, Duration.ofMinutes(1));
+        JwtDecoder decoder = decoder(source);
+        decoder.decode(sign(firstKey));
+        RSAKey foreignKey = new RSAKeyGenerator(2048).keyID("foreign").generate();
+
+        // when & then
+        assertThatThrownBy(() -> decoder.decode(sign(foreignKey))).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> decoder.decode(sign(foreignKey))).isInstanceOf(JwtException.class);
+        assertThat(jwksRequests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRefreshKnownKeysInBackground() {
+        // given
+        source = new CachingJwkSource(issuerUri, null, null, Duration.ofMillis(100), Duration.ofSeconds(30));
+        decoder(source).decode(sign(firstKey));
+
+        // when
+        source.start();
+
+        // then
+        await().atMost(Duration.ofSeconds(5)).until(() -> jwksRequests.get() >= 3);
+    }
+
+    @Test
+    void shouldKeepKeysWhenBackgroundRefreshFails() {
+        // given
+        source = newSource(null, Duration.ofSeconds(30));
+        JwtDecoder decoder = decoder(source);
+        decoder.decode(sign(firstKey));
+        issuer.stop(0);
+
+        // when
+        JWKSet afterFailure = source.refresh();
+
+        // then
+        assertThat(afterFailure.getKeyByKeyId("first")).isNotNull();
+        assertThat(decoder.decode(sign(firstKey)).getSubject()).isEqualTo("john");
+    }
+
+    private CachingJwkSource newSource(Path cacheDirectory, Duration minRefetchInterval) {
+        return new CachingJwkSource(issuerUri, null, cacheDirectory, Duration.ofMinutes(10), minRefetchInterval);
+    }
+
+    private JwtDecoder decoder(CachingJwkSource jwkSource) {
+        return SecurityConfig.issuerDecoder(jwkSource, issuerUri);
+    }
+
+    private String sign(RSAKey key) {
+        return sign(key, SignatureAlgorithm.RS256);
+    }
+
+    private String sign(JWK key, SignatureAlgorithm algorithm) {
+        JwtEncoder encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(key)));
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(issuerUri)
+                .subject("john")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(300))
+                .build();
+        JwsHeader header = JwsHeader.with(algorithm).keyId(key.getKeyID()).build();
+        return encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+}
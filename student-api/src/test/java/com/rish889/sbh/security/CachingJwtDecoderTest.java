@@ -0,0 +1,84 @@
+package com.rish889.sbh.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T10:00:00Z");
+
+    @Mock
+    private JwtDecoder delegate;
+
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        decoder = new CachingJwtDecoder(delegate, 100, Duration.ofMinutes(5), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void shouldDecodeEachTokenOnce() {
+        // given
+        Jwt jwt = jwt("token-a", NOW.plusSeconds(60));
+        when(delegate.decode("token-a")).thenReturn(jwt);
+
+        // when
+        Jwt first = decoder.decode("token-a");
+        Jwt second = decoder.decode("token-a");
+
+        // then
+        assertThat(first).isSameAs(jwt);
+        assertThat(second).isSameAs(jwt);
+        verify(delegate, times(1)).decode("token-a");
+    }
+
+    @Test
+    void shouldNotCacheRejectedTokens() {
+        // given
+        when(delegate.decode("bad")).thenThrow(new BadJwtException("invalid signature"));
+
+        // when & then
+        assertThatThrownBy(() -> decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+        verify(delegate, times(2)).decode("bad");
+    }
+
+    @Test
+    void shouldNotReuseTokenThatIsAlreadyExpired() {
+        // given
+        when(delegate.decode("stale")).thenReturn(jwt("stale", NOW.minusSeconds(1)));
+
+        // when
+        decoder.decode("stale");
+        decoder.decode("stale");
+
+        // then
+        verify(delegate, times(2)).decode("stale");
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("john")
+                .issuedAt(NOW.minusSeconds(10))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.rish889.sbh.security;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private ClientRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        StudentApiProperties.RateLimit properties = new StudentApiProperties.RateLimit(true, 10, 3,
+                Map.of("reporting-job", new StudentApiProperties.ClientLimit(1, 1),
+                        "vip", new StudentApiProperties.ClientLimit(100, 50)),
+                1000);
+        limiter = new ClientRateLimiter(properties, now::get);
+    }
+
+    @Test
+    void shouldAllowBurstThenRejectWithTimeUntilNextToken() {
+        // when
+        long first = limiter.tryAcquire("alice", null);
+        long second = limiter.tryAcquire("alice", null);
+        long third = limiter.tryAcquire("alice", null);
+        long fourth = limiter.tryAcquire("alice", null);
+
+        // then
+        assertThat(first).isZero();
+        assertThat(second).isZero();
+        assertThat(third).isZero();
+        assertThat(fourth).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void shouldRefillAtTheConfiguredRate() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice", null);
+        }
+
+        // when
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        // then
+        assertThat(limiter.tryAcquire("alice", null)).isZero();
+        assertThat(limiter.tryAcquire("alice", null)).isPositive();
+    }
+
+    @Test
+    void shouldKeepSeparateBucketsPerSubject() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice", null);
+        }
+
+        // when & then
+        assertThat(limiter.tryAcquire("alice", null)).isPositive();
+        assertThat(limiter.tryAcquire("bob", null)).isZero();
+    }
+
+    @Test
+    void shouldApplyLimitsBySubjectThenByClientId() {
+        // when
+        long subjectOverride = limiter.tryAcquire("vip", "reporting-job");
+        long clientOverride = limiter.tryAcquire("service-account-1", "reporting-job");
+        long clientOverrideAgain = limiter.tryAcquire("service-account-1", "reporting-job");
+
+        // then
+        assertThat(subjectOverride).isZero();
+        assertThat(clientOverride).isZero();
+        assertThat(clientOverrideAgain).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,61 @@
+package com.rish889.sbh.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "student-api.rate-limit.enabled=true",
+        "student-api.rate-limit.requests-per-second=0.1",
+        "student-api.rate-limit.burst=2",
+        "student-api.rate-limit.clients.batch-user.requests-per-second=0.1",
+        "student-api.rate-limit.clients.batch-user.burst=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestLimitIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    @WithMockUser(username = "alice", roles = "ADMIN")
+    void shouldAnswer429WithRetryAfterOnceTheBurstIsUsed() throws Exception {
+        mockMvc.perform(get("/api/students")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/students")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/students"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+
+        assertThat(registry.get("student.ratelimit.rejected").tag("client", "default").functionCounter().count())
+                .isPositive();
+    }
+
+    @Test
+    @WithMockUser(username = "batch-user", roles = "ADMIN")
+    void shouldApplyPerClientLimits() throws Exception {
+        mockMvc.perform(get("/api/students")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/students"))
+                .andExpect(status().isTooManyRequests());
+
+        assertThat(registry.get("student.ratelimit.burst").tag("client", "batch-user").gauge().value())
+                .isEqualTo(1);
+        assertThat(registry.get("student.concurrency.limit").gauge().value()).isPositive();
+    }
+}
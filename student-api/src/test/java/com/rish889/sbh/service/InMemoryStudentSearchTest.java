@@ -0,0 +1,104 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.config.TestStudentApiProperties;
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryStudentSearchTest {
+
+    @Mock
+    private StudentRepository repository;
+
+    private InMemoryStudentSearch search;
+
+    @BeforeEach
+    void setUp() {
+        search = new InMemoryStudentSearch(repository, properties(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void shouldRankPrefixMatchesAboveFuzzyMatches() {
+        // given
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(
+                student(1L, "Alice Smith", "alice@example.com"),
+                student(2L, "Smith Jones", "sj@example.com"),
+                student(3L, "Bob Johnson", "bob@example.com")));
+
+        // when
+        List<Student> result = search.search("smi", 0, 10);
+
+        // then
+        assertThat(result).extracting(Student::getId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void shouldMatchEmailPrefixAndPage() {
+        // given
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(
+                student(1L, "Carol White", "team@example.com"),
+                student(2L, "Dave Black", "team@example.com"),
+                student(3L, "Erin Green", "erin@example.com")));
+
+        // when
+        List<Student> result = search.search("team", 1, 10);
+
+        // then
+        assertThat(result).extracting(Student::getId).containsExactly(2L);
+    }
+
+    @Test
+    void shouldApplyChangeEventsAfterLoading() {
+        // given
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(student(1L, "Alice Smith", "alice@example.com")));
+        search.search("alice", 0, 10);
+
+        // when
+        search.onStudentChanged(StudentChangedEvent.created(student(2L, "Alicia Keys", "alicia@example.com")));
+        search.onStudentChanged(StudentChangedEvent.deleted(1L));
+
+        // then
+        assertThat(search.search("ali", 0, 10)).extracting(Student::getName).containsExactly("Alicia Keys");
+        verify(repository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class));
+    }
+
+    @Test
+    void shouldFailWhenBudgetIsExceeded() {
+        // given
+        search = new InMemoryStudentSearch(repository, properties(Duration.ZERO));
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(student(1L, "Alice Smith", "alice@example.com")));
+
+        // when & then
+        assertThatThrownBy(() -> search.search("alice", 0, 10))
+                .isInstanceOf(SearchTimeoutException.class);
+    }
+
+    private static StudentApiProperties properties(Duration budget) {
+        return TestStudentApiProperties.with("student-api.search.engine=memory", "student-api.search.budget=" + budget);
+    }
+
+    private static Student student(Long id, String name, String email) {
+        Student student = new Student(name, email);
+        student.setId(id);
+        student.setVersion(0L);
+        return student;
+    }
+}
@@ -0,0 +1,117 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.EmbeddedPostgresDatabase;
+import com.rish889.sbh.config.TestStudentApiProperties;
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// pg_trgm, statement_timeout and the search indexes only exist on PostgreSQL
+@SpringBootTest(properties = "student-api.search.engine=postgres")
+@ActiveProfiles("test")
+class PostgresStudentSearchIntegrationTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresDatabase.register(registry);
+    }
+
+    @Autowired
+    private StudentSearch search;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void shouldRankPrefixMatchesAboveFuzzyMatches() {
+        // given
+        Student alice = studentRepository.save(new Student("Alice Smith", "alice@example.com"));
+        Student smith = studentRepository.save(new Student("Smith Jones", "sj@example.com"));
+        studentRepository.save(new Student("Bob Johnson", "bob@example.com"));
+
+        // when
+        List<Student> result = search.search("smi", 0, 10);
+
+        // then
+        assertThat(search).isInstanceOf(PostgresStudentSearch.class);
+        assertThat(result).extracting(Student::getId).containsExactly(smith.getId(), alice.getId());
+    }
+
+    @Test
+    void shouldMatchQuotesAndLikeWildcardsLiterally() {
+        // given
+        Student miles = studentRepository.save(new Student("O'Brien: Miles", "miles@example.com"));
+        studentRepository.save(new Student("Ocean Blue", "ocean@example.com"));
+        Student underscore = studentRepository.save(new Student("Ann", "a_n@example.com"));
+        studentRepository.save(new Student("Abner", "abn@example.com"));
+
+        // when
+        List<Student> quoted = search.search("o'brien: m", 0, 10);
+        List<Student> wildcard = search.search("a_n", 0, 10);
+
+        // then
+        assertThat(quoted).extracting(Student::getId).containsExactly(miles.getId());
+        assertThat(wildcard).extracting(Student::getId).first().isEqualTo(underscore.getId());
+    }
+
+    @Test
+    void shouldServePrefixAndFuzzyMatchesFromTheSearchIndexes() {
+        // when
+        List<String> plan = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("set local enable_seqscan = off");
+            return new NamedParameterJdbcTemplate(jdbcTemplate).queryForList(
+                    "explain " + PostgresStudentSearch.searchSql("smi"),
+                    Map.of("query", "smi", "offset", 0, "limit", 10), String.class);
+        });
+
+        // then: like became a range over the text_pattern_ops indexes, <% (commuted to %>) went to the trigram ones
+        String text = String.join("\n", plan);
+        assertThat(text).doesNotContain("Seq Scan");
+        assertThat(plan).anyMatch(line -> line.contains("Index Cond") && line.contains("~>=~ 'smi'"));
+        assertThat(plan).anyMatch(line -> line.contains("Index Cond") && line.contains("%> 'smi'"));
+    }
+
+    @Test
+    void shouldGiveUpOnceTheBudgetIsSpent() {
+        // given
+        jdbcTemplate.update("insert into students (name, email) "
+                + "select 'Student ' || g, 'student' || g || '@example.com' from generate_series(1, 50000) g");
+        PostgresStudentSearch hurried = new PostgresStudentSearch(entityManager,
+                TestStudentApiProperties.with("student-api.search.budget=1ms"));
+
+        // when & then
+        assertThatThrownBy(() -> transactionTemplate.execute(status -> hurried.search("student", 0, 10)))
+                .isInstanceOf(SearchTimeoutException.class)
+                .hasMessageContaining("1ms budget");
+    }
+}
@@ -0,0 +1,110 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.EmbeddedPostgresDatabase;
+import com.rish889.sbh.config.TestStudentApiProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// transaction status is only visible on PostgreSQL; H2 falls back to gap-timeout, see StudentChangeRelayTest
+@SpringBootTest
+@ActiveProfiles("test")
+class StudentChangeRelayIntegrationTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresDatabase.register(registry);
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldHoldAGapPastTheTimeoutWhileItsWriteIsInFlightAndDeliverItUnderItsOwnOffset() throws Exception {
+        // given
+        StudentChangeRelay relay = relay(Duration.ZERO);
+        long start = relay.head();
+        try (Connection slow = dataSource.getConnection()) {
+            slow.setAutoCommit(false);
+            long held = insert(slow, "UPDATED");
+            long committed = jdbcTemplate.queryForObject("insert into student_changes (student_id, type) "
+                    + "values (7, 'CREATED') returning id", Long.class);
+
+            // when
+            relay.poll();
+            relay.poll();
+
+            // then: the slow write can still commit, so its offset is not given up on
+            assertThat(relay.head()).isEqualTo(start);
+
+            // when
+            slow.commit();
+            relay.poll();
+
+            // then
+            assertThat(relay.head()).isEqualTo(committed);
+            assertThat(relay.read(start, 10)).extracting(StudentChange::offset).containsExactly(held, committed);
+        }
+    }
+
+    @Test
+    void shouldSkipTheOffsetOfARolledBackWriteWithoutWaitingForTheTimeout() throws Exception {
+        // given
+        StudentChangeRelay relay = relay(Duration.ofHours(1));
+        long start = relay.head();
+        try (Connection failing = dataSource.getConnection()) {
+            failing.setAutoCommit(false);
+            long held = insert(failing, "UPDATED");
+            long committed = jdbcTemplate.queryForObject("insert into student_changes (student_id, type) "
+                    + "values (7, 'CREATED') returning id", Long.class);
+            relay.poll();
+
+            // when
+            failing.rollback();
+            relay.poll();
+
+            // then
+            assertThat(relay.head()).isEqualTo(committed);
+            assertThat(relay.read(start, 10)).extracting(StudentChange::offset).containsExactly(committed);
+        }
+    }
+
+    private StudentChangeRelay relay(Duration gapTimeout) {
+        StudentChangeRelay relay = new StudentChangeRelay(jdbcTemplate, TestStudentApiProperties.with(
+                "student-api.changes.gap-timeout=" + gapTimeout));
+        relay.start();
+        relay.stop();
+        return relay;
+    }
+
+    // like StudentOutbox, after a write that gave the transaction its xid
+    private static long insert(Connection connection, String type) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select pg_current_xact_id()")) {
+            statement.execute();
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into student_changes (student_id, type) values (7, ?) returning id")) {
+            statement.setString(1, type);
+            try (ResultSet result = statement.executeQuery()) {
+                result.next();
+                return result.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.config.TestStudentApiProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class StudentChangeRelayTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("db/migration/V6__create_student_changes_outbox.sql")
+                .addScript("db/migration/V9__persist_student_changes_watermark.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void shouldAdvanceHeadOverContiguousOffsets() {
+        // given
+        StudentChangeRelay relay = relay(Duration.ofMinutes(1));
+        relay.start();
+        relay.stop();
+        insert(1, "CREATED");
+        insert(2, "UPDATED");
+
+        // when
+        relay.poll();
+
+        // then
+        assertThat(relay.head()).isEqualTo(2);
+        assertThat(relay.read(0, 10)).extracting(StudentChange::type)
+                .containsExactly(StudentChangedEvent.Type.CREATED, StudentChangedEvent.Type.UPDATED);
+        assertThat(relay.read(1, 10).getFirst().data())
+                .isEqualTo("{\"offset\":2,\"type\":\"UPDATED\",\"id\":7,\"student\":{\"id\":7}}");
+    }
+
+    @Test
+    void shouldHoldBackAtAGapUntilItIsFilled() {
+        // given
+        StudentChangeRelay relay = relay(Duration.ofMinutes(1));
+        relay.start();
+        relay.stop();
+        insert(1, "CREATED");
+        insert(3, "CREATED");
+
+        // when
+        relay.poll();
+
+        // then
+        assertThat(relay.head()).isEqualTo(1);
+
+        // when: the slower transaction commits
+        insert(2, "DELETED");
+        relay.poll();
+
+        // then
+        assertThat(relay.head()).isEqualTo(3);
+        assertThat(relay.read(0, 10)).extracting(StudentChange::offset).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void shouldSkipAGapOlderThanTheTimeout() {
+        // given
+        StudentChangeRelay relay = relay(Duration.ZERO);
+        relay.start();
+        relay.stop();
+        insert(2, "CREATED");
+
+        // when
+        relay.poll();
+
+        // then
+        assertThat(relay.head()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepTheOffsetOfAChangeThatCommitsAfterItWasSkipped() {
+        // given
+        StudentChangeRelay relay = relay(Duration.ZERO);
+        relay.start();
+        relay.stop();
+        insert(2, "CREATED");
+        relay.poll();
+
+        // when: the write holding offset 1 commits after all
+        insert(1, "UPDATED");
+        relay.poll();
+
+        // then
+        assertThat(relay.head()).isEqualTo(2);
+        assertThat(relay.read(0, 10)).extracting(StudentChange::offset, StudentChange::type)
+                .containsExactly(tuple(1L, StudentChangedEvent.Type.UPDATED), tuple(2L, StudentChangedEvent.Type.CREATED));
+    }
+
+    @Test
+    void shouldKeepThePurgeWatermarkAcrossRestarts() {
+        // given
+        insert(1, "CREATED");
+        insert(2, "UPDATED");
+        jdbcTemplate.update("update student_changes set created_at = ?", Timestamp.from(Instant.now().minus(Duration.ofDays(8))));
+        StudentChangeRelay relay = relay(Duration.ofMinutes(1));
+        relay.start();
+        relay.stop();
+        relay.purge();
+
+        // when
+        StudentChangeRelay restarted = relay(Duration.ofMinutes(1));
+        restarted.start();
+        restarted.stop();
+
+        // then
+        assertThat(restarted.purgedThrough()).isEqualTo(2);
+        assertThat(restarted.head()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldStartAtTheNewestRowAndReadOlderChangesFromTheTable() {
+        // given
+        insert(1, "CREATED");
+        insert(2, "UPDATED");
+        StudentChangeRelay relay = relay(Duration.ofMinutes(1));
+
+        // when
+        relay.start();
+        relay.stop();
+
+        // then
+        assertThat(relay.head()).isEqualTo(2);
+        assertThat(relay.read(0, 1)).extracting(StudentChange::offset).containsExactly(1L);
+    }
+
+    private StudentChangeRelay relay(Duration gapTimeout) {
+        return new StudentChangeRelay(jdbcTemplate, TestStudentApiProperties.with(
+                "student-api.changes.poll-interval=1m",
+                "student-api.changes.gap-timeout=" + gapTimeout,
+                "student-api.changes.buffer-size=100",
+                "student-api.changes.batch-size=100",
+                "student-api.changes.max-subscribers=10"));
+    }
+
+    private void insert(long offset, String type) {
+        jdbcTemplate.update("insert into student_changes (id, student_id, type, payload) values (?, 7, ?, ?)",
+                offset, type, type.equals("DELETED") ? null : "{\"id\":7}");
+    }
+}
@@ -0,0 +1,56 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.config.TestStudentApiProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StudentPartitionsTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ObjectProvider<HikariDataSource> pool;
+
+    @Test
+    void shouldStartWhenThePoolHasRoomForOneParallelScan() {
+        // given
+        when(pool.getIfUnique()).thenReturn(pool(10));
+
+        // when & then
+        assertThatCode(() -> partitions(4)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldRefuseToStartWhenThePoolHasNoRoomForAParallelScan() {
+        // given
+        when(pool.getIfUnique()).thenReturn(pool(10));
+
+        // when & then
+        assertThatThrownBy(() -> partitions(5))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("needs a pool of at least 12 connections");
+    }
+
+    private StudentPartitions partitions(int parallelism) {
+        return new StudentPartitions(jdbcTemplate,
+                TestStudentApiProperties.with("student-api.partitions.parallelism=" + parallelism), pool);
+    }
+
+    // never started, so it opens no connections
+    private static HikariDataSource pool(int size) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(size);
+        return dataSource;
+    }
+}
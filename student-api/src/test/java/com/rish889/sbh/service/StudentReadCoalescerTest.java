@@ -0,0 +1,218 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.config.TestStudentApiProperties;
+import com.rish889.sbh.entity.Student;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class StudentReadCoalescerTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger queries = new AtomicInteger();
+    private final List<Thread> followerThreads = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.close();
+    }
+
+    @Test
+    void shouldShareOneQueryAmongConcurrentReadsOfSamePage() throws Exception {
+        // given
+        StudentReadCoalescer coalescer = coalescer(Duration.ofSeconds(10));
+        List<Student> page = List.of(new Student("Alice Smith", "alice@example.com"));
+        Future<List<Student>> leader = executor.submit(() -> coalescer.page(0L, 20, blockingLoader(() -> page),
+                StudentReadCoalescerTest::copy));
+        loading.await();
+
+        // when
+        List<Future<List<Student>>> followers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            followers.add(follow(() -> coalescer.page(0L, 20, () -> {
+                queries.incrementAndGet();
+                return List.of(new Student("Other", "other@example.com"));
+            }, StudentReadCoalescerTest::copy)));
+        }
+        awaitFollowersWaiting();
+        release.countDown();
+
+        // then: each follower got its own copy of the leader's students
+        assertThat(leader.get()).isSameAs(page);
+        for (Future<List<Student>> follower : followers) {
+            assertThat(follower.get()).isEqualTo(page);
+            assertThat(follower.get().getFirst()).isNotSameAs(page.getFirst());
+        }
+        assertThat(queries).hasValue(1);
+        assertThat(count("page", "leader")).isEqualTo(1);
+        assertThat(count("page", "coalesced")).isEqualTo(20);
+    }
+
+    @Test
+    void shouldFailWaitersOnceMaxWaitIsOverInsteadOfQueryingAgain() throws Exception {
+        // given
+        StudentReadCoalescer coalescer = coalescer(Duration.ofMillis(50));
+        executor.submit(() -> coalescer.page(0L, 20, blockingLoader(() -> List.of(new Student("Slow", "slow@example.com"))),
+                StudentReadCoalescerTest::copy));
+        loading.await();
+
+        // when
+        List<Future<List<Student>>> waiters = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            waiters.add(executor.submit(() -> coalescer.page(0L, 20, () -> {
+                queries.incrementAndGet();
+                return List.of(new Student("Other", "other@example.com"));
+            }, StudentReadCoalescerTest::copy)));
+        }
+
+        // then: the slow query stays the only one
+        for (Future<List<Student>> waiter : waiters) {
+            assertThatThrownBy(waiter::get).hasCauseInstanceOf(ReadCoalescingTimeoutException.class);
+        }
+        assertThat(queries).hasValue(1);
+        assertThat(count("page", "timeout")).isEqualTo(20);
+        assertThat(count("page", "leader")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldQueryAloneInsideAReadWriteTransaction() throws Exception {
+        // given
+        StudentReadCoalescer coalescer = coalescer(Duration.ofSeconds(10));
+        executor.submit(() -> coalescer.page(0L, 20, blockingLoader(List::of), StudentReadCoalescerTest::copy));
+        loading.await();
+        List<Student> own = List.of(new Student("Alice Smith", "alice@example.com"));
+
+        // when
+        List<Student> result;
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            result = coalescer.page(0L, 20, () -> own, StudentReadCoalescerTest::copy);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        // then
+        assertThat(result).isSameAs(own);
+        assertThat(count("page", "leader")).isEqualTo(1);
+        assertThat(count("page", "coalesced")).isZero();
+    }
+
+    @Test
+    void shouldHandLeadersFailureToEveryWaiter() throws Exception {
+        // given
+        StudentReadCoalescer coalescer = coalescer(Duration.ofSeconds(10));
+        Future<List<Student>> leader = executor.submit(() -> coalescer.page(0L, 20, blockingLoader(() -> {
+            throw new RuntimeException("Page query failed");
+        }), StudentReadCoalescerTest::copy));
+        loading.await();
+
+        // when
+        Future<List<Student>> follower = follow(() -> coalescer.page(0L, 20,
+                () -> List.of(new Student("Other", "other@example.com")), StudentReadCoalescerTest::copy));
+        awaitFollowersWaiting();
+        release.countDown();
+
+        // then
+        assertThatThrownBy(leader::get).isInstanceOf(ExecutionException.class).hasMessageContaining("Page query failed");
+        assertThatThrownBy(follower::get).isInstanceOf(ExecutionException.class).hasMessageContaining("Page query failed");
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    void shouldNotJoinQueryStartedBeforeAWrite() throws Exception {
+        // given
+        StudentReadCoalescer coalescer = coalescer(Duration.ofSeconds(10));
+        executor.submit(() -> coalescer.page(0L, 20, blockingLoader(List::of), StudentReadCoalescerTest::copy));
+        loading.await();
+
+        // when
+        coalescer.onChange(StudentChangedEvent.deleted(1L));
+        List<Student> after = coalescer.page(0L, 20, () -> List.of(new Student("Alice Smith", "alice@example.com")),
+                StudentReadCoalescerTest::copy);
+
+        // then
+        assertThat(after).hasSize(1);
+        assertThat(count("page", "leader")).isEqualTo(2);
+        assertThat(count("page", "coalesced")).isZero();
+    }
+
+    @Test
+    void shouldKeepPagesOfDifferentCursorsApart() {
+        // given
+        StudentReadCoalescer coalescer = coalescer(Duration.ofSeconds(10));
+
+        // when
+        coalescer.page(0L, 20, List::of, StudentReadCoalescerTest::copy);
+        coalescer.page(20L, 20, List::of, StudentReadCoalescerTest::copy);
+        coalescer.page(null, null, List::of, StudentReadCoalescerTest::copy);
+
+        // then
+        assertThat(count("page", "leader")).isEqualTo(3);
+    }
+
+    // platform threads, so a follower blocked on the leader's result shows as TIMED_WAITING
+    private <T> Future<T> follow(Callable<T> call) {
+        FutureTask<T> task = new FutureTask<>(call);
+        Thread thread = new Thread(task);
+        followerThreads.add(thread);
+        thread.start();
+        return task;
+    }
+
+    private void awaitFollowersWaiting() {
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> followerThreads.stream().allMatch(thread -> thread.getState() == Thread.State.TIMED_WAITING));
+    }
+
+    private <T> Supplier<T> blockingLoader(Supplier<T> result) {
+        return () -> {
+            queries.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return result.get();
+        };
+    }
+
+    private static List<Student> copy(List<Student> students) {
+        return students.stream().map(Student::copy).toList();
+    }
+
+    private StudentReadCoalescer coalescer(Duration maxWait) {
+        StudentApiProperties properties = TestStudentApiProperties.with("student-api.single-flight.max-wait=" + maxWait);
+        StudentReadCoalescer coalescer = new StudentReadCoalescer(properties);
+        coalescer.bindTo(registry);
+        return coalescer;
+    }
+
+    private double count(String query, String outcome) {
+        return registry.get("student.singleflight.requests").tag("query", query).tag("outcome", outcome)
+                .functionCounter().count();
+    }
+}
@@ -0,0 +1,150 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// single node: the outbox follower would also evict this node's own writes, a little later
+@SpringBootTest(properties = "student-api.cache-invalidation.transport=none")
+@ActiveProfiles("test")
+class StudentServiceCachingTest {
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private StudentRepository repository;
+
+    private Student testStudent;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(StudentService.CACHE).clear();
+        testStudent = new Student("John Doe", "john.doe@example.com");
+        testStudent.setId(1L);
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        // given
+        when(repository.findById(1L)).thenReturn(Optional.of(testStudent));
+
+        // when
+        studentService.getById(1L);
+        Student result = studentService.getById(1L);
+
+        // then
+        assertThat(result.getName()).isEqualTo("John Doe");
+        verify(repository, times(1)).findById(1L);
+    }
+
+    @Test
+    void shouldNotCacheMissingStudent() {
+        // given
+        when(repository.findById(2L)).thenReturn(Optional.empty());
+
+        // when
+        for (int i = 0; i < 2; i++) {
+            try {
+                studentService.getById(2L);
+            } catch (RuntimeException expected) {
+                // not found
+            }
+        }
+
+        // then
+        verify(repository, times(2)).findById(2L);
+    }
+
+    @Test
+    void shouldEvictOnUpdate() {
+        // given
+        when(repository.findById(1L)).thenReturn(Optional.of(testStudent));
+        when(repository.updateColumns(1L, null, "John Updated", "john.updated@example.com"))
+                .thenReturn(Optional.of(testStudent));
+        studentService.getById(1L);
+
+        // when
+        studentService.update(1L, new Student("John Updated", "john.updated@example.com"));
+        studentService.getById(1L);
+
+        // then: one load to warm, one after the eviction
+        verify(repository, times(2)).findById(1L);
+    }
+
+    @Test
+    void shouldEvictOnDelete() {
+        // given
+        when(repository.findById(1L)).thenReturn(Optional.of(testStudent));
+        studentService.getById(1L);
+
+        // when
+        studentService.delete(1L);
+
+        // then
+        assertThat(cacheManager.getCache(StudentService.CACHE).get(1L)).isNull();
+    }
+
+    @Test
+    void shouldReadPastCacheInsideACallersTransaction() {
+        // given
+        when(repository.findById(1L)).thenReturn(Optional.of(testStudent));
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> {
+            studentService.getById(1L);
+            studentService.getById(1L);
+        });
+
+        // then
+        verify(repository, times(2)).findById(1L);
+        assertThat(cacheManager.getCache(StudentService.CACHE).get(1L)).isNull();
+    }
+
+    @Test
+    void shouldPublishHitAndMissMetrics() {
+        // given
+        when(repository.findById(1L)).thenReturn(Optional.of(testStudent));
+        double hitsBefore = cacheGets("hit");
+        double missesBefore = cacheGets("miss");
+
+        // when
+        studentService.getById(1L);
+        studentService.getById(1L);
+
+        // then
+        assertThat(cacheGets("miss") - missesBefore).isEqualTo(1);
+        assertThat(cacheGets("hit") - hitsBefore).isEqualTo(1);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", StudentService.CACHE)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
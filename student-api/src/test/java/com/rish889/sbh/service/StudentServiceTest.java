@@ -1,21 +1,29 @@
 package com.rish889.sbh.service;
 
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.config.TestStudentApiProperties;
 import com.rish889.sbh.entity.Student;
 import com.rish889.sbh.repository.StudentRepository;
+import com.rish889.sbh.repository.StudentUpsert;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,20 +32,33 @@ class StudentServiceTest {
     @Mock
     private StudentRepository repository;
 
-    @InjectMocks
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private StudentPartitions partitions;
+
     private StudentService studentService;
 
     private Student testStudent;
 
     @BeforeEach
     void setUp() {
+        StudentApiProperties properties = TestStudentApiProperties.with(
+                "student-api.pagination.default-limit=2",
+                "student-api.pagination.max-limit=5");
+        studentService = new StudentService(repository, entityManager, events, partitions,
+                new StudentReadCoalescer(properties), properties);
         testStudent = new Student("John Doe", "john.doe@example.com");
     }
 
     @Test
     void shouldCreateStudent() {
         // given
-        when(repository.save(any(Student.class))).thenReturn(testStudent);
+        when(repository.upsert(testStudent)).thenReturn(new StudentUpsert(testStudent, StudentUpsert.Outcome.CREATED));
 
         // when
         Student result = studentService.create(testStudent);
@@ -46,7 +67,8 @@ class StudentServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getName()).isEqualTo("John Doe");
         assertThat(result.getEmail()).isEqualTo("john.doe@example.com");
-        verify(repository, times(1)).save(testStudent);
+        verify(repository, times(1)).upsert(testStudent);
+        verify(events).publishEvent(StudentChangedEvent.created(testStudent));
     }
 
     @Test
@@ -55,7 +77,7 @@ class StudentServiceTest {
         Student student1 = new Student("Alice Brown", "alice.brown@example.com");
         Student student2 = new Student("Bob Wilson", "bob.wilson@example.com");
         List<Student> students = Arrays.asList(student1, student2);
-        when(repository.findAll()).thenReturn(students);
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(5))).thenReturn(students);
 
         // when
         List<Student> result = studentService.getAll();
@@ -63,20 +85,83 @@ class StudentServiceTest {
         // then
         assertThat(result).hasSize(2);
         assertThat(result).containsExactly(student1, student2);
-        verify(repository, times(1)).findAll();
+        verify(repository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(5));
+        verify(repository, never()).findAll();
     }
 
     @Test
     void shouldGetEmptyListWhenNoStudents() {
         // given
-        when(repository.findAll()).thenReturn(List.of());
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of());
 
         // when
         List<Student> result = studentService.getAll();
 
         // then
         assertThat(result).isEmpty();
-        verify(repository, times(1)).findAll();
+    }
+
+    @Test
+    void shouldReturnPageWithNextCursorWhenMoreRowsExist() {
+        // given
+        List<Student> rows = students(11L, 12L, 13L);
+        when(repository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(3))).thenReturn(rows);
+
+        // when
+        StudentPage<Student> page = studentService.getPage(10L, null);
+
+        // then
+        assertThat(page.items()).extracting(Student::getId).containsExactly(11L, 12L);
+        assertThat(page.nextAfter()).isEqualTo(12L);
+    }
+
+    @Test
+    void shouldReturnLastPageWithoutNextCursor() {
+        // given
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(5))).thenReturn(students(1L, 2L));
+
+        // when
+        StudentPage<Student> page = studentService.getPage(null, 4);
+
+        // then
+        assertThat(page.items()).hasSize(2);
+        assertThat(page.nextAfter()).isNull();
+    }
+
+    @Test
+    void shouldClampPageLimitToMaximum() {
+        // given
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(6))).thenReturn(List.of());
+
+        // when
+        studentService.getPage(0L, 10_000);
+
+        // then
+        verify(repository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(6));
+    }
+
+    @Test
+    void shouldStreamAndDetachEveryStudent() {
+        // given
+        List<Student> rows = students(4L, 5L);
+        when(repository.streamByIdGreaterThan(3L)).thenReturn(rows.stream());
+        List<Student> seen = new ArrayList<>();
+
+        // when
+        studentService.streamAll(3L, seen::add);
+
+        // then
+        assertThat(seen).containsExactlyElementsOf(rows);
+        verify(entityManager, times(1)).detach(rows.get(0));
+        verify(entityManager, times(1)).detach(rows.get(1));
+    }
+
+    private static List<Student> students(Long... ids) {
+        return Stream.of(ids).map(id -> {
+            Student student = new Student("Student " + id, "student" + id + "@example.com");
+            student.setId(id);
+            return student;
+        }).toList();
     }
 
     @Test
@@ -109,14 +194,12 @@ class StudentServiceTest {
     }
 
     @Test
-    void shouldUpdateStudent() {
+    void shouldUpdateStudentInOneStatement() {
         // given
         Long studentId = 1L;
-        Student existingStudent = new Student("John Doe", "john.doe@example.com");
         Student updatedData = new Student("John Updated", "john.updated@example.com");
-
-        when(repository.findById(studentId)).thenReturn(Optional.of(existingStudent));
-        when(repository.save(any(Student.class))).thenReturn(updatedData);
+        when(repository.updateColumns(studentId, null, "John Updated", "john.updated@example.com"))
+                .thenReturn(Optional.of(updatedData));
 
         // when
         Student result = studentService.update(studentId, updatedData);
@@ -124,8 +207,9 @@ class StudentServiceTest {
         // then
         assertThat(result.getName()).isEqualTo("John Updated");
         assertThat(result.getEmail()).isEqualTo("john.updated@example.com");
-        verify(repository, times(1)).findById(studentId);
-        verify(repository, times(1)).save(updatedData);
+        verify(repository, never()).findById(any());
+        verify(repository, never()).save(any(Student.class));
+        verify(events).publishEvent(StudentChangedEvent.updated(updatedData));
     }
 
     @Test
@@ -133,37 +217,78 @@ class StudentServiceTest {
         // given
         Long studentId = 999L;
         Student updatedData = new Student("John Updated", "john.updated@example.com");
-        when(repository.findById(studentId)).thenReturn(Optional.empty());
+        when(repository.updateColumns(eq(studentId), any(), any(), any())).thenReturn(Optional.empty());
 
         // when & then
         assertThatThrownBy(() -> studentService.update(studentId, updatedData))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessage("Student not found");
-        verify(repository, times(1)).findById(studentId);
-        verify(repository, never()).save(any(Student.class));
+        verify(repository, never()).findVersionById(any());
+    }
+
+    @Test
+    void shouldReportStaleVersionWhenStudentStillExists() {
+        // given
+        Long studentId = 1L;
+        when(repository.updateColumns(studentId, 3L, "John Updated", "john.updated@example.com"))
+                .thenReturn(Optional.empty());
+        when(repository.findVersionById(studentId)).thenReturn(Optional.of(4L));
+
+        // when & then
+        assertThatThrownBy(() -> studentService.update(studentId, 3L,
+                new Student("John Updated", "john.updated@example.com")))
+                .isInstanceOf(StaleStudentException.class);
+    }
+
+    @Test
+    void shouldPatchOnlyGivenColumns() {
+        // given
+        Long studentId = 1L;
+        Student patched = new Student("John Updated", "john.doe@example.com");
+        when(repository.updateColumns(studentId, null, "John Updated", null)).thenReturn(Optional.of(patched));
+
+        // when
+        Student result = studentService.patch(studentId, null, new StudentPatch("John Updated", null));
+
+        // then
+        assertThat(result.getEmail()).isEqualTo("john.doe@example.com");
     }
 
     @Test
     void shouldDeleteStudent() {
         // given
         Long studentId = 1L;
-        doNothing().when(repository).deleteById(studentId);
+        when(repository.deleteByIds(List.of(studentId))).thenReturn(1);
 
         // when
         studentService.delete(studentId);
 
         // then
-        verify(repository, times(1)).deleteById(studentId);
+        verify(repository, times(1)).deleteByIds(List.of(studentId));
+        verify(events).publishEvent(StudentChangedEvent.deleted(studentId));
     }
 
     @Test
     void shouldNotThrowExceptionWhenDeletingStudent() {
         // given
         Long studentId = 1L;
-        doNothing().when(repository).deleteById(studentId);
+        when(repository.deleteByIds(List.of(studentId))).thenReturn(0);
 
         // when & then
         studentService.delete(studentId);
-        verify(repository, times(1)).deleteById(studentId);
+        verify(repository, times(1)).deleteByIds(List.of(studentId));
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void shouldSumCountsOfAllPartitions() {
+        // given
+        when(partitions.<Long>scan(any())).thenReturn(List.of(3L, 0L, 4L));
+
+        // when
+        long count = studentService.count();
+
+        // then
+        assertThat(count).isEqualTo(7);
     }
-}
\ No newline at end of file
+}
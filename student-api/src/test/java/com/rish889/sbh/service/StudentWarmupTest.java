@@ -0,0 +1,101 @@
+package com.rish889.sbh.service;
+
+import com.rish889.sbh.config.StudentApiProperties;
+import com.rish889.sbh.config.TestStudentApiProperties;
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.Metamodel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StudentWarmupTest {
+
+    @Mock
+    private StudentService service;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Metamodel metamodel;
+
+    @Test
+    void shouldRunConfiguredIterations() {
+        // given
+        Student student = new Student("John Doe", "john.doe@example.com");
+        student.setId(1L);
+        student.setVersion(0L);
+        when(entityManager.getMetamodel()).thenReturn(metamodel);
+        when(service.getPage(isNull(), anyInt())).thenReturn(new StudentPage<>(List.of(student), null));
+        when(service.getViewPage(any(), isNull(), anyInt()))
+                .thenReturn(new StudentPage<>(List.of(new StudentView(1L, "John Doe", "john.doe@example.com", 0L)), null));
+
+        // when
+        int iterations = warmup(true, 3, Duration.ofSeconds(10)).run();
+
+        // then
+        assertThat(iterations).isEqualTo(3);
+        verify(service, times(3)).getPageTag(isNull(), anyInt());
+        verify(service, times(3)).getVersion(1L);
+        verify(metamodel).getEntities();
+    }
+
+    @Test
+    void shouldStopWithoutFailingWhenReadFails() {
+        // given
+        when(entityManager.getMetamodel()).thenReturn(metamodel);
+        when(service.getPage(isNull(), anyInt())).thenThrow(new IllegalStateException("database down"));
+
+        // when
+        int iterations = warmup(true, 3, Duration.ofSeconds(10)).run();
+
+        // then
+        assertThat(iterations).isZero();
+        verify(service).getPage(isNull(), anyInt());
+    }
+
+    @Test
+    void shouldStopWhenBudgetIsSpent() {
+        // given
+        when(entityManager.getMetamodel()).thenReturn(metamodel);
+
+        // when
+        int iterations = warmup(true, 3, Duration.ZERO).run();
+
+        // then
+        assertThat(iterations).isZero();
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void shouldDoNothingWhenDisabled() {
+        // when
+        int iterations = warmup(false, 3, Duration.ofSeconds(10)).run();
+
+        // then
+        assertThat(iterations).isZero();
+        verifyNoInteractions(service, entityManager);
+    }
+
+    private StudentWarmup warmup(boolean enabled, int iterations, Duration budget) {
+        StudentApiProperties properties = TestStudentApiProperties.with(
+                "student-api.warmup.enabled=" + enabled,
+                "student-api.warmup.iterations=" + iterations,
+                "student-api.warmup.budget=" + budget);
+        return new StudentWarmup(service, entityManager, JsonMapper.builder().build(), properties);
+    }
+}
@@ -0,0 +1,39 @@
+package com.rish889.sbh.benchmark;
+
+import com.rish889.sbh.StudentApiApplication;
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.repository.StudentRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Boots student-api against an in-memory H2 database (profile {@code benchmark}) for the benchmarks
+ * that need the Spring context.
+ */
+final class BenchmarkApplication {
+
+    static final int SEED_SIZE = 1_000;
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(StudentApiApplication.class)
+                .profiles("benchmark")
+                .run();
+    }
+
+    /**
+     * Inserts {@link #SEED_SIZE} students and returns their ids.
+     */
+    static long[] seed(ConfigurableApplicationContext context) {
+        StudentRepository repository = context.getBean(StudentRepository.class);
+        List<Student> saved = repository.saveAll(IntStream.range(0, SEED_SIZE)
+                .mapToObj(i -> new Student("Student " + i, "student" + i + "@example.com"))
+                .toList());
+        return saved.stream().mapToLong(Student::getId).toArray();
+    }
+}
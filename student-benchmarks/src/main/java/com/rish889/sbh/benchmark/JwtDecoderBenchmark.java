@@ -0,0 +1,74 @@
+package com.rish889.sbh.benchmark;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.rish889.sbh.security.CachingJwtDecoder;
+import com.rish889.sbh.security.SecurityConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.*;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request authentication CPU: RS256 verification plus claim validation and role conversion,
+ * with and without the per-token cache in {@link CachingJwtDecoder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtDecoderBenchmark {
+
+    private JwtDecoder uncached;
+    private JwtDecoder cached;
+    private JwtAuthenticationConverter converter;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        RSAKey rsaKey = new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+                .privateKey(keyPair.getPrivate())
+                .keyID("benchmark")
+                .build();
+
+        JwtEncoder encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(rsaKey)));
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .subject("john")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plus(Duration.ofHours(1)))
+                .claim("realm_access", Map.of("roles", List.of("ADMIN", "USER", "offline_access")))
+                .build();
+        token = encoder.encode(JwtEncoderParameters.from(JwsHeader.with(SignatureAlgorithm.RS256).build(), claims))
+                .getTokenValue();
+
+        uncached = NimbusJwtDecoder.withPublicKey((RSAPublicKey) keyPair.getPublic()).build();
+        cached = new CachingJwtDecoder(uncached, 1_000, Duration.ofMinutes(5));
+        converter = new SecurityConfig().jwtAuthenticationConverter();
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken authenticateUncached() {
+        return converter.convert(uncached.decode(token));
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken authenticateCached() {
+        return converter.convert(cached.decode(token));
+    }
+}
@@ -0,0 +1,175 @@
+package com.rish889.sbh.benchmark;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to readiness and resident memory of the packaged student-api, for each build found in its
+ * {@code target} directory: the plain jar on the JIT, the jar with the AOT cache from
+ * {@code -Paot-cache} and the native executable from {@code -Pnative}. Readiness is polled on
+ * {@code /actuator/health/readiness}, so the warmup runner is included, as it is for a pod; RSS is read
+ * from {@code /proc} right after, so it is only reported on Linux.
+ * <p>
+ * Not a JMH benchmark, every sample is a fresh process. Needs the database and settings the
+ * application normally runs with; run with
+ * {@code mvn -pl student-benchmarks -Pstartup verify [-Dstartup.runs=5] [-Dstartup.args="--spring.datasource.url=..."]}.
+ */
+public final class StartupBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+
+    private final Path target;
+    private final int runs;
+    private final int port;
+    private final List<String> args;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private StartupBenchmark(Path target, int runs, int port, List<String> args) {
+        this.target = target;
+        this.runs = runs;
+        this.port = port;
+        this.args = args;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String extraArgs = System.getProperty("startup.args", "").strip();
+        StartupBenchmark benchmark = new StartupBenchmark(
+                Path.of(System.getProperty("startup.target", "../student-api/target")),
+                Integer.getInteger("startup.runs", 5),
+                Integer.getInteger("startup.port", 18080),
+                extraArgs.isEmpty() ? List.of() : Arrays.asList(extraArgs.split("\\s+")));
+        List<Variant> variants = benchmark.variants();
+        if (variants.isEmpty()) {
+            throw new IllegalStateException("No student-api build in " + benchmark.target.toAbsolutePath());
+        }
+        for (Variant variant : variants) {
+            System.out.println(benchmark.measure(variant));
+        }
+    }
+
+    private List<Variant> variants() throws IOException {
+        List<Variant> variants = new ArrayList<>();
+        Path jar = execJar(target);
+        if (jar != null) {
+            variants.add(new Variant("jit", List.of(java(), "-jar", jar.toString())));
+        }
+        Path extracted = target.resolve("aot");
+        Path extractedJar = Files.isDirectory(extracted) ? execJar(extracted) : null;
+        if (extractedJar != null && Files.exists(extracted.resolve("student-api.aot"))) {
+            variants.add(new Variant("aot-cache", List.of(java(), "-XX:AOTCache=" + extracted.resolve("student-api.aot"),
+                    "-Dspring.aot.enabled=true", "-jar", extractedJar.toString())));
+        } else if (extractedJar != null && Files.exists(extracted.resolve("student-api.jsa"))) {
+            variants.add(new Variant("cds", List.of(java(), "-XX:SharedArchiveFile=" + extracted.resolve("student-api.jsa"),
+                    "-Dspring.aot.enabled=true", "-jar", extractedJar.toString())));
+        }
+        Path executable = target.resolve("student-api");
+        if (Files.isExecutable(executable) && !Files.isDirectory(executable)) {
+            variants.add(new Variant("native", List.of(executable.toString())));
+        }
+        return variants;
+    }
+
+    private Result measure(Variant variant) throws Exception {
+        long[] startupMillis = new long[runs];
+        long[] rssKilobytes = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            List<String> command = new ArrayList<>(variant.command());
+            command.add("--server.port=" + port);
+            command.addAll(args);
+            Path log = target.resolve("startup-" + variant.name() + "-" + i + ".log");
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile())
+                    .start();
+            try {
+                awaitReadiness(process, log);
+                startupMillis[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                rssKilobytes[i] = rssKilobytes(process.pid());
+            } finally {
+                process.destroy();
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            }
+        }
+        return new Result(variant.name(), runs, median(startupMillis), Arrays.stream(startupMillis).min().orElse(0),
+                median(rssKilobytes) / 1024);
+    }
+
+    private void awaitReadiness(Process process, Path log) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (System.nanoTime() - deadline < 0) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("student-api exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException e) {
+                // not listening yet
+            }
+            Thread.sleep(POLL_INTERVAL);
+        }
+        throw new IllegalStateException("student-api not ready after " + TIMEOUT + ", see " + log);
+    }
+
+    // VmRSS of the process, 0 where /proc is not available
+    private static long rssKilobytes(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> line.replaceAll("\\D", ""))
+                    .mapToLong(Long::parseLong)
+                    .findFirst().orElse(0);
+        }
+    }
+
+    private static Path execJar(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith("-exec.jar")).findFirst().orElse(null);
+        }
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private record Variant(String name, List<String> command) {
+    }
+
+    record Result(String variant, int runs, long medianMillis, long minMillis, long medianRssMegabytes) {
+
+        @Override
+        public String toString() {
+            return "%-9s runs=%d ready median=%d ms min=%d ms rss median=%d MB"
+                    .formatted(variant, runs, medianMillis, minMillis, medianRssMegabytes);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.rish889.sbh.benchmark;
+
+import com.rish889.sbh.entity.Student;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Jackson cost of the student payloads, single and as a 100-element list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StudentJsonBenchmark {
+
+    private ObjectWriter studentWriter;
+    private ObjectReader studentReader;
+    private ObjectWriter listWriter;
+
+    private Student student;
+    private byte[] studentJson;
+    private List<Student> students;
+
+    @Setup
+    public void setUp() {
+        JsonMapper mapper = JsonMapper.builder().build();
+        studentWriter = mapper.writerFor(Student.class);
+        studentReader = mapper.readerFor(Student.class);
+        listWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Student.class));
+
+        student = student(1);
+        studentJson = studentWriter.writeValueAsBytes(student);
+        students = IntStream.range(0, 100).mapToObj(StudentJsonBenchmark::student).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeStudent() {
+        return studentWriter.writeValueAsBytes(student);
+    }
+
+    @Benchmark
+    public Student deserializeStudent() {
+        return studentReader.readValue(studentJson);
+    }
+
+    @Benchmark
+    public byte[] serializeStudentList() {
+        return listWriter.writeValueAsBytes(students);
+    }
+
+    private static Student student(int i) {
+        Student student = new Student("Student " + i, "student" + i + "@example.com");
+        student.setId((long) i);
+        student.setVersion(0L);
+        return student;
+    }
+}
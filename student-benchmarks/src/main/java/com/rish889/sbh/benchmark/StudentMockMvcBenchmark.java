@@ -0,0 +1,78 @@
+package com.rish889.sbh.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Full request round trips through the security filter chain, controller, service and Jackson,
+ * without socket I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentMockMvcBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private RequestPostProcessor admin;
+    private long[] ids;
+    // creates upsert by email, so a repeated email would measure the UNCHANGED path after the first call
+    private final AtomicLong created = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        ids = BenchmarkApplication.seed(context);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .apply(springSecurity())
+                .build();
+        admin = jwt().authorities(new SimpleGrantedAuthority("ROLE_ADMIN"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getById() throws Exception {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return mockMvc.perform(get("/api/students/{id}", id).with(admin))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int getPage() throws Exception {
+        return mockMvc.perform(get("/api/students").param("limit", "20").with(admin))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int create() throws Exception {
+        return mockMvc.perform(post("/api/students")
+                        .with(admin)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Benchmark\",\"email\":\"benchmark" + created.incrementAndGet() + "@example.com\"}"))
+                .andReturn().getResponse().getStatus();
+    }
+}
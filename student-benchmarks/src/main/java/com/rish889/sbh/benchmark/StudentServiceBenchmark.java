@@ -0,0 +1,65 @@
+package com.rish889.sbh.benchmark;
+
+import com.rish889.sbh.entity.Student;
+import com.rish889.sbh.service.StudentPage;
+import com.rish889.sbh.service.StudentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link StudentService} operations through the Spring proxies (cache, transactions) against H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private StudentService service;
+    private long[] ids;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        service = context.getBean(StudentService.class);
+        ids = BenchmarkApplication.seed(context);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Student getById() {
+        return service.getById(randomId());
+    }
+
+    @Benchmark
+    public StudentPage<Student> getPage() {
+        return service.getPage(randomId(), 20);
+    }
+
+    @Benchmark
+    public Student update() {
+        long id = randomId();
+        return service.update(id, new Student("Updated " + id, "student" + id + "@example.com"));
+    }
+
+    @Benchmark
+    public Student createAndDelete() {
+        Student created = service.create(new Student("Transient", "transient@example.com"));
+        service.delete(created.getId());
+        return created;
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
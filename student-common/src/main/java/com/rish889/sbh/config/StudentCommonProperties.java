@@ -0,0 +1,35 @@
+package com.rish889.sbh.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * The {@code student-api.*} settings student-api-reactive reads, under the same names as student-api's, so
+ * both stacks can share one configuration. student-api binds its own sections in {@code StudentApiProperties}.
+ */
+@ConfigurationProperties(prefix = "student-api")
+public record StudentCommonProperties(@DefaultValue Pagination pagination,
+                                      @DefaultValue Streaming streaming,
+                                      @DefaultValue CacheInvalidation cacheInvalidation) {
+
+    /**
+     * @param defaultLimit page size used when the client does not pass {@code limit}
+     * @param maxLimit     upper bound for {@code limit}, also caps the unpaginated list endpoint
+     */
+    public record Pagination(@DefaultValue("100") int defaultLimit,
+                             @DefaultValue("1000") int maxLimit) {
+    }
+
+    /**
+     * @param fetchSize rows the reactive stack's driver fetches per round trip for streams and exports, and
+     *                  the demand requested from it at a time, so a slow client stops the database reads
+     */
+    public record Streaming(@DefaultValue("500") int fetchSize) {
+    }
+
+    /**
+     * @param channel notification channel student-api's nodes listen on for cache invalidations
+     */
+    public record CacheInvalidation(@DefaultValue("student_cache") String channel) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.rish889.sbh.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps Keycloak's {@code realm_access.roles} claim to {@code ROLE_*} authorities. Every distinct role
+ * list is converted once and every authority is a shared instance, so a request with a familiar set of
+ * roles allocates nothing here.
+ */
+public class RealmRoleAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>>, MeterBinder {
+
+    private final Map<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+    private final Cache<List<String>, List<GrantedAuthority>> byRoles = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .recordStats()
+            .build();
+
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        Map<String, Object> realmAccess = jwt.getClaim("realm_access");
+        if (realmAccess == null || realmAccess.get("roles") == null) {
+            return List.of();
+        }
+        @SuppressWarnings("unchecked")
+        List<String> roles = (List<String>) realmAccess.get("roles");
+        return byRoles.get(roles, this::toAuthorities);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, byRoles, "jwt-authorities");
+    }
+
+    private List<GrantedAuthority> toAuthorities(List<String> roles) {
+        return roles.stream()
+                .map(role -> authorities.computeIfAbsent(role, r -> new SimpleGrantedAuthority("ROLE_" + r)))
+                .toList();
+    }
+}
@@ -0,0 +1,27 @@
+package com.rish889.sbh.service;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Locale;
+
+/**
+ * Another student already has the email a write asked for.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class DuplicateEmailException extends RuntimeException {
+
+    public DuplicateEmailException(String message) {
+        super(message);
+    }
+
+    /**
+     * Whether {@code e} is the unique email constraint of V5, or the claim trigger raising its name on
+     * the partitioned table.
+     */
+    public static boolean isCauseOf(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains("students_email_key");
+    }
+}
@@ -0,0 +1,15 @@
+package com.rish889.sbh.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The student exists but no longer has the version the client expected.
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class StaleStudentException extends RuntimeException {
+
+    public StaleStudentException(String message) {
+        super(message);
+    }
+}
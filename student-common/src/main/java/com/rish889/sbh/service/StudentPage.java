@@ -0,0 +1,12 @@
+package com.rish889.sbh.service;
+
+import java.util.List;
+
+/**
+ * One keyset page of students ordered by id.
+ *
+ * @param items     the students (or student views) on this page
+ * @param nextAfter cursor to pass as {@code after} for the next page, or {@code null} on the last page
+ */
+public record StudentPage<T>(List<T> items, Long nextAfter) {
+}
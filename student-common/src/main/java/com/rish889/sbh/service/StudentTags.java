@@ -0,0 +1,92 @@
+package com.rish889.sbh.service;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Entity tags derived from student versions rather than from serialized bodies, so they can be
+ * compared against {@code If-None-Match} before any entity is loaded. Both stacks compute them here, so
+ * a client can move between student-api and student-api-reactive and keep its cached responses valid.
+ */
+public final class StudentTags {
+
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private StudentTags() {
+    }
+
+    /**
+     * Strong tag of a single student; the {@code @Version} changes on every write. {@code null} for a
+     * student that has not been written yet.
+     */
+    public static String of(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * Version named by a strong tag from {@link #of(Long)} or its {@link #gzip} variant, {@code null} for {@code *}.
+     *
+     * @throws IllegalArgumentException for any other tag
+     */
+    public static Long parseVersion(String tag) {
+        String value = tag.strip();
+        if (value.equals("*")) {
+            return null;
+        }
+        if (value.length() < 3 || value.charAt(0) != '"' || value.charAt(value.length() - 1) != '"') {
+            throw new IllegalArgumentException("Not a version tag: " + tag);
+        }
+        String version = value.substring(1, value.length() - 1);
+        return Long.parseLong(version.endsWith(GZIP_SUFFIX) ? version.substring(0, version.length() - GZIP_SUFFIX.length()) : version);
+    }
+
+    /**
+     * Tag of the gzip-encoded body of a representation tagged {@code tag}. A strong tag promises the
+     * exact bytes, so the compressed body gets its own; a weak tag may be shared by both encodings.
+     */
+    public static String gzip(String tag) {
+        if (tag == null || tag.startsWith("W/")) {
+            return tag;
+        }
+        return tag.substring(0, tag.length() - 1) + GZIP_SUFFIX + "\"";
+    }
+
+    /**
+     * Whether an {@code If-None-Match} value names a tag from {@link #gzip}.
+     */
+    public static boolean namesGzip(String ifNoneMatch) {
+        return ifNoneMatch != null && ifNoneMatch.contains(GZIP_SUFFIX + "\"");
+    }
+
+    /**
+     * Weak tag of a list, fingerprinting the ids and versions on it and whether a next page exists.
+     */
+    public static String ofVersions(List<? extends Versioned> rows, boolean hasNext) {
+        long hash = hasNext ? 1 : 0;
+        for (Versioned row : rows) {
+            hash = mix(hash, row.id());
+            hash = mix(hash, row.version());
+        }
+        return "W/\"" + rows.size() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Derives the tag of a {@code ?fields=} projection from the tag of the full representation.
+     */
+    public static String withFields(String tag, Set<? extends Enum<?>> fields) {
+        if (tag == null) {
+            return null;
+        }
+        int mask = 0;
+        for (Enum<?> field : fields) {
+            mask |= 1 << field.ordinal();
+        }
+        return tag.substring(0, tag.length() - 1) + "-f" + Integer.toHexString(mask) + "\"";
+    }
+
+    private static long mix(long hash, Long value) {
+        long v = value == null ? 0 : value;
+        hash ^= v + 0x9E3779B97F4A7C15L + (hash << 6) + (hash >>> 2);
+        return hash * 0xBF58476D1CE4E5B9L;
+    }
+}
@@ -0,0 +1,11 @@
+package com.rish889.sbh.service;
+
+/**
+ * What an entity tag is computed from: a student's id and the version every write bumps.
+ */
+public interface Versioned {
+
+    Long id();
+
+    Long version();
+}
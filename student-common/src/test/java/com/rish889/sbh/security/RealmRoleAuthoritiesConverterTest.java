@@ -0,0 +1,52 @@
+package com.rish889.sbh.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RealmRoleAuthoritiesConverterTest {
+
+    private final RealmRoleAuthoritiesConverter converter = new RealmRoleAuthoritiesConverter();
+
+    @Test
+    void shouldMapRealmRolesToRoleAuthorities() {
+        // when
+        Collection<GrantedAuthority> authorities = converter.convert(jwt(Map.of("roles", List.of("ADMIN", "USER"))));
+
+        // then
+        assertThat(authorities).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN", "ROLE_USER");
+    }
+
+    @Test
+    void shouldReturnNoAuthoritiesWithoutRealmRoles() {
+        // when & then
+        assertThat(converter.convert(jwt(Map.of()))).isEmpty();
+    }
+
+    @Test
+    void shouldShareAuthorityInstancesAcrossTokens() {
+        // when
+        Collection<GrantedAuthority> first = converter.convert(jwt(Map.of("roles", List.of("ADMIN", "USER"))));
+        Collection<GrantedAuthority> second = converter.convert(jwt(Map.of("roles", List.of("ADMIN", "USER"))));
+        Collection<GrantedAuthority> other = converter.convert(jwt(Map.of("roles", List.of("USER"))));
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(other.iterator().next()).isSameAs(List.copyOf(first).get(1));
+    }
+
+    private static Jwt jwt(Map<String, Object> realmAccess) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("john")
+                .claim("realm_access", realmAccess)
+                .build();
+    }
+}